@@ -8,25 +8,55 @@ import geometry_objects.delegates.LineDelegate;
 import geometry_objects.delegates.SegmentDelegate;
 import geometry_objects.delegates.intersections.IntersectionDelegate;
 import geometry_objects.points.Point;
+import geometry_objects.points.PointIndex;
 import utilities.math.MathUtilities;
-import utilities.math.analytic_geometry.GeometryUtilities;
 
 public class Segment extends GeometricObject
 {
+	// twice EPSILON: leaves room for rounding in the (tolerant) point-on-segment tests
+	private static final double BOX_MARGIN = 2 * MathUtilities.EPSILON;
+
 	protected Point _point1;
 	protected Point _point2;
 
-	protected double _length;
-	protected double _slope;
+	//
+	// Invariants computed once (the endpoints never change), on the first geometric query:
+	// most segments (e.g., the non-minimal segments of a figure) are only ever hashed and
+	// compared, so they carry a single (null) reference instead of the values themselves
+	//
+	private Invariants _invariants;
+
+	// the (cached) hash
+	// (as in String: a racing thread sees either 0, and recomputes, or the hash;
+	// a hash of 0 is flagged separately so it is not recomputed on every call)
+	private int _hash;
+	private boolean _hashIsZero;
 
 	public Point getPoint1() { return _point1; }
 	public Point getPoint2() { return _point2; }
-	public double length() { return _length; }
-	public double slope()
-	{
-		try { return GeometryUtilities.slope(_point1, _point2); }
-		catch(ArithmeticException ae) { return Double.POSITIVE_INFINITY; }
-	}
+	public double length() { return invariants()._length; }
+	public double slope() { return invariants()._slope; }
+
+	/*
+	 * The direction: point2 - point1
+	 */
+	public double dx() { return invariants()._dx; }
+	public double dy() { return invariants()._dy; }
+
+	/*
+	 * The line through the segment:  lineA x + lineB y = lineC
+	 */
+	public double lineA() { return invariants()._dy; }
+	public double lineB() { return -invariants()._dx; }
+	public double lineC() { return invariants()._lineC; }
+
+	/*
+	 * The bounding box
+	 */
+	public double minX() { return invariants()._minX; }
+	public double minY() { return invariants()._minY; }
+	public double maxX() { return invariants()._maxX; }
+	public double maxY() { return invariants()._maxY; }
 
 	public Segment(Segment in) { this(in._point1, in._point2); }
 	public Segment(Point p1, Point p2)
@@ -35,6 +65,63 @@ public class Segment extends GeometricObject
 		_point2 = p2;
 	}
 
+	/*
+	 * An (immutable) record of the invariants; a racing first use computes equal copies.
+	 */
+	private static final class Invariants
+	{
+		final double _dx;
+		final double _dy;
+		final double _length;
+		final double _slope;
+		final double _lineC;
+		final double _minX;
+		final double _minY;
+		final double _maxX;
+		final double _maxY;
+		final boolean _vertical;
+		final boolean _horizontal;
+
+		Invariants(Point p1, Point p2)
+		{
+			_dx = p2.getX() - p1.getX();
+			_dy = p2.getY() - p1.getY();
+			_length = Math.sqrt(_dx * _dx + _dy * _dy);
+
+			_vertical = MathUtilities.doubleEquals(p1.getX(), p2.getX());
+			_horizontal = MathUtilities.doubleEquals(p1.getY(), p2.getY());
+
+			// (as GeometryUtilities.slope, without the exception for a vertical segment)
+			_slope = _vertical ? Double.POSITIVE_INFINITY : (p1.getY() - p2.getY()) / (p1.getX() - p2.getX());
+
+			_lineC = _dy * p1.getX() - _dx * p1.getY();
+
+			_minX = Math.min(p1.getX(), p2.getX());
+			_minY = Math.min(p1.getY(), p2.getY());
+			_maxX = Math.max(p1.getX(), p2.getX());
+			_maxY = Math.max(p1.getY(), p2.getY());
+		}
+	}
+
+	private Invariants invariants()
+	{
+		if (_invariants == null) _invariants = new Invariants(_point1, _point2);
+
+		return _invariants;
+	}
+
+	/*
+	 * @return false if the point is certainly more than EPSILON away from this segment
+	 *         (outside its bounding box, padded with a margin)
+	 */
+	public boolean boxContains(double x, double y)
+	{
+		Invariants box = invariants();
+
+		return x >= box._minX - BOX_MARGIN && x <= box._maxX + BOX_MARGIN &&
+			   y >= box._minY - BOX_MARGIN && y <= box._maxY + BOX_MARGIN;
+	}
+
 	/*
 	 * @param that -- a segment (as a segment: finite)
 	 * @return the midpoint of this segment (finite)
@@ -116,6 +203,10 @@ public class Segment extends GeometricObject
 		if (!(obj instanceof Segment)) return false;
 		Segment that = (Segment)obj;
 
+		if (this == that) return true;
+
+		// (with interned endpoints equal points are the same instance: Point.equals returns at once)
+
 		return this.has(that.getPoint1()) && this.has(that.getPoint2());
 	}
 
@@ -134,12 +225,12 @@ public class Segment extends GeometricObject
 	/*
 	 * @return true if this segment is horizontal (by analysis of both endpoints having same y-coordinate)
 	 */
-	public boolean isHorizontal() { return MathUtilities.doubleEquals(_point1.getY(), _point2.getY()); }
+	public boolean isHorizontal() { return invariants()._horizontal; }
 
 	/*
 	 * @return true if this segment is vertical (by analysis of both endpoints having same x-coordinate)
 	 */
-	public boolean isVertical() { return MathUtilities.doubleEquals(_point1.getX(), _point2.getX()); }
+	public boolean isVertical() { return invariants()._vertical; }
 
 	/*
 	 * @param pt -- one of the endpoints of this segment
@@ -153,10 +244,24 @@ public class Segment extends GeometricObject
 		return null;
 	}
 
+	/**
+	 * The sum of the endpoint hashes: equal segments hash alike when their endpoints lie in the
+	 * same GridHash cells, e.g. when they are built on the same point objects (as the
+	 * Preprocessor builds them on the stored database points).
+	 */
 	@Override
 	public int hashCode()
 	{
-		return _point1.hashCode() +_point2.hashCode();
+		int hash = _hash;
+		if (hash == 0 && !_hashIsZero)
+		{
+			hash = _point1.hashCode() +_point2.hashCode();
+
+			if (hash == 0) _hashIsZero = true;
+			else _hash = hash;
+		}
+
+		return hash;
 	}
 
 	/*
@@ -218,4 +323,24 @@ public class Segment extends GeometricObject
 
 		return pointsOn;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * collectOrderedPointsOnSegment over a sorted index: only the points in the
+	 * x-span of the segment are tested.
+	 *
+	 * @return the sorted subset of the indexed points that lie on this segment
+	 */
+	public SortedSet<Point> collectIndexedPointsOnSegment(PointIndex index)
+	{
+		if (index == null) return null;
+
+		SortedSet<Point> pointsOn = new TreeSet<Point>();
+
+		for (Point p : index.inXRange(minX() - BOX_MARGIN, maxX() + BOX_MARGIN))
+		{
+			if (this.pointLiesOnSegment(p)) pointsOn.add(p);
+		}
+
+		return pointsOn;
+	}
+}
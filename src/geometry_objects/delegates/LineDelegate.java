@@ -1,7 +1,7 @@
 package geometry_objects.delegates;
 
 import geometry_objects.Segment;
-import utilities.math.MathUtilities;
+import utilities.math.analytic_geometry.OrientationPredicates;
 
 /*
  * A processing, delegation class.
@@ -16,20 +16,8 @@ public class LineDelegate
      */
     public static boolean areCollinear(Segment thisS, Segment that)
     {
-        // If the segments are vertical, just compare the X values of one point of each
-        // Also ensure that the segments have some overlap
-        if (thisS.isVertical() && that.isVertical())
-        {
-            return MathUtilities.doubleEquals(thisS.getPoint1().getX(), that.getPoint1().getX());
-        }
-
-        // If the segments are horizontal, just compare the Y values of one point of each; this is redundant
-        if (thisS.isHorizontal() && that.isHorizontal())
-        {
-            return MathUtilities.doubleEquals(thisS.getPoint1().getY(), that.getPoint2().getY());
-        }
-
-        // Slopes equate
-        return MathUtilities.doubleEquals(thisS.slope(), that.slope());
+        // Both endpoints of that segment lie on the line of this segment
+        return OrientationPredicates.collinear(thisS.getPoint1(), thisS.getPoint2(), that.getPoint1()) &&
+               OrientationPredicates.collinear(thisS.getPoint1(), thisS.getPoint2(), that.getPoint2());
     }
 }
@@ -59,7 +59,7 @@ public class SegmentDelegate extends FigureDelegate
 	 */
 	public static boolean pointLiesOnSegment(Segment segment, Point pt)
 	{
-		if (pt == null) return false;
+		if (pt == null || !segment.boxContains(pt.getX(), pt.getY())) return false;
 
 		return GeometryUtilities.between(pt, segment.getPoint1(), segment.getPoint2());
 	}
@@ -70,7 +70,7 @@ public class SegmentDelegate extends FigureDelegate
 	 */
 	public static boolean pointLiesBetweenEndpoints(Segment segment, Point pt)
 	{
-		if (pt == null || segment.has(pt)) return false;
+		if (pt == null || !segment.boxContains(pt.getX(), pt.getY()) || segment.has(pt)) return false;
 
 		return GeometryUtilities.between(pt, segment.getPoint1(), segment.getPoint2());
 	}
@@ -3,6 +3,8 @@ package geometry_objects.delegates.intersections;
 import geometry_objects.delegates.FigureDelegate;
 import geometry_objects.points.Point;
 import geometry_objects.Segment;
+import utilities.math.MathUtilities;
+import utilities.math.analytic_geometry.OrientationPredicates;
 
 public class SegmentIntersectionDelegate extends FigureDelegate
 {
@@ -10,19 +12,53 @@ public class SegmentIntersectionDelegate extends FigureDelegate
      * <Segment, Segment> intersection
      * @param thisS -- (this Segment)
      * @param that -- a Segment to intersect with
-     * @return the intersection of @thisS and @that
+     * @return the intersection of @thisS and @that: a point in the interior of both segments
+     *         (null otherwise: disjoint, parallel, collinear, or meeting at an endpoint)
+     *
+     * Works on raw coordinates only; a Point is created for an accepted intersection only.
      */
     public static Point findIntersection(Segment thisS, Segment that)
     {
-        // <line, line> intersection
-        Point inter = LineIntersectionDelegate.intersection(thisS, that);
- 
-        // Point lies on both segments
-        
-        if (!thisS.pointLiesBetweenEndpoints(inter)) return null;
-
-        if (!that.pointLiesBetweenEndpoints(inter)) return null;
-        
-        return inter;        
+        double ax = thisS.getPoint1().getX(), ay = thisS.getPoint1().getY();
+        double bx = thisS.getPoint2().getX(), by = thisS.getPoint2().getY();
+        double cx = that.getPoint1().getX(),  cy = that.getPoint1().getY();
+        double dx = that.getPoint2().getX(),  dy = that.getPoint2().getY();
+
+        // Bounding boxes (padded by EPSILON) do not overlap: most pairs end here
+        if (thisS.maxX() < that.minX() - MathUtilities.EPSILON ||
+            that.maxX() < thisS.minX() - MathUtilities.EPSILON ||
+            thisS.maxY() < that.minY() - MathUtilities.EPSILON ||
+            that.maxY() < thisS.minY() - MathUtilities.EPSILON) return null;
+
+        // Canonical (lexicographic) order of endpoints and segments: the computed
+        // point must not depend on the order of the arguments
+        if (ax > bx || (ax == bx && ay > by)) { double x = ax; ax = bx; bx = x; double y = ay; ay = by; by = y; }
+        if (cx > dx || (cx == dx && cy > dy)) { double x = cx; cx = dx; dx = x; double y = cy; cy = dy; dy = y; }
+        if (ax > cx || (ax == cx && (ay > cy || (ay == cy && (bx > dx || (bx == dx && by > dy))))))
+        {
+            double x = ax; ax = cx; cx = x;   x = ay; ay = cy; cy = x;
+            x = bx; bx = dx; dx = x;          x = by; by = dy; dy = x;
+        }
+
+        // collinear segments (within EPSILON, as LineDelegate.areCollinear): no single crossing,
+        // however small the (rounded) denominator below
+        if (OrientationPredicates.collinear(ax, ay, bx, by, cx, cy) &&
+            OrientationPredicates.collinear(ax, ay, bx, by, dx, dy)) return null;
+
+        // <line, line> intersection:  a + t (b - a)
+        double t = LineIntersectionDelegate.parameter(ax, ay, bx, by, cx, cy, dx, dy);
+
+        // parallel or collinear lines: no single crossing
+        if (Double.isNaN(t)) return null;
+
+        double x = ax + t * (bx - ax);
+        double y = ay + t * (by - ay);
+
+        // Point lies on both segments (not at an endpoint)
+        if (!OrientationPredicates.strictlyBetween(x, y, ax, ay, bx, by)) return null;
+
+        if (!OrientationPredicates.strictlyBetween(x, y, cx, cy, dx, dy)) return null;
+
+        return new Point(x, y);
     }
 }
@@ -0,0 +1,171 @@
+package geometry_objects.points;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import utilities.math.GridHash;
+
+/**
+ * A PointNamingFactory that may be shared by threads.
+ *
+ * The points are kept in a ConcurrentHashMap, so lookups take no lock. Each update
+ * (put, rename, remove) is an atomic check-then-act under lock striping: it holds the
+ * stripes of the GridHash cells a lookup of its coordinates probes (at most 4). Two equal
+ * points (within EPSILON) always share at least one probed cell, so updates of equal
+ * points are serialized while updates elsewhere in the plane proceed in parallel.
+ *
+ * The name index is updated under a second set of stripes (keyed on the name), always
+ * acquired after the cell stripes.
+ *
+ * Unlike the sequential factory, getAllPoints() is in no particular order, and a name
+ * given to several points resolves to one of them (not necessarily the earliest).
+ */
+public class ConcurrentPointNamingFactory extends PointNamingFactory
+{
+	private static final int STRIPES = 256;
+
+	protected final ReentrantLock[] _cellLocks;
+	protected final ReentrantLock[] _nameLocks;
+
+	public ConcurrentPointNamingFactory()
+	{
+		super(new ConcurrentHashMap<Point, Point>(), new ConcurrentHashMap<Object, Point>(),
+			  ConcurrentHashMap.newKeySet());
+
+		_cellLocks = newLocks();
+		_nameLocks = newLocks();
+	}
+
+	private static ReentrantLock[] newLocks()
+	{
+		ReentrantLock[] locks = new ReentrantLock[STRIPES];
+		for (int k = 0; k < STRIPES; k++) locks[k] = new ReentrantLock();
+
+		return locks;
+	}
+
+	@Override
+	public boolean isThreadSafe() { return true; }
+
+	@Override
+	public Point put(Point pt)
+	{
+		if (pt == null) return null;
+
+		int[] stripes = lockCells(pt.getX(), pt.getY());
+		try { return super.put(pt); }
+		finally { unlock(_cellLocks, stripes); }
+	}
+
+	@Override
+	public Point put(double x, double y)
+	{
+		int[] stripes = lockCells(x, y);
+		try { return super.put(x, y); }
+		finally { unlock(_cellLocks, stripes); }
+	}
+
+	@Override
+	public Point put(String name, double x, double y)
+	{
+		int[] stripes = lockCells(x, y);
+		try { return super.put(name, x, y); }
+		finally { unlock(_cellLocks, stripes); }
+	}
+
+	@Override
+	public Point remove(Point pt)
+	{
+		int[] stripes = lockCells(pt.getX(), pt.getY());
+		try { return super.remove(pt); }
+		finally { unlock(_cellLocks, stripes); }
+	}
+
+	/**
+	 * Clear under all the cell stripes (no update is half done).
+	 */
+	@Override
+	public void clear()
+	{
+		int[] stripes = new int[STRIPES];
+		for (int k = 0; k < STRIPES; k++) stripes[k] = k;
+
+		lock(_cellLocks, stripes);
+		try { super.clear(); }
+		finally { unlock(_cellLocks, stripes); }
+	}
+
+	@Override
+	protected void index(Point point)
+	{
+		if (point.isUnnamed()) return;
+
+		ReentrantLock lock = nameLock(point);
+		lock.lock();
+		try { super.index(point); }
+		finally { lock.unlock(); }
+	}
+
+	@Override
+	protected void unindex(Point point)
+	{
+		if (point.isUnnamed()) return;
+
+		ReentrantLock lock = nameLock(point);
+		lock.lock();
+		try { super.unindex(point); }
+		finally { lock.unlock(); }
+	}
+
+	private ReentrantLock nameLock(Point point)
+	{
+		int h = nameKey(point).hashCode() * 0x9E3779B9;
+
+		return _nameLocks[(h ^ (h >>> 16)) & (STRIPES - 1)];
+	}
+
+	/**
+	 * Lock the (distinct) stripes of the cells probed for (x, y), in ascending order
+	 * so threads locking overlapping neighborhoods cannot deadlock.
+	 *
+	 * @return the stripes locked
+	 */
+	private int[] lockCells(double x, double y)
+	{
+		long cellX = GridHash.cell(x);
+		long cellY = GridHash.cell(y);
+		long otherX = cellX + GridHash.side(x);
+		long otherY = cellY + GridHash.side(y);
+
+		int[] stripes = { stripe(cellX, cellY), stripe(otherX, cellY), stripe(cellX, otherY), stripe(otherX, otherY) };
+		Arrays.sort(stripes);
+
+		// drop the repeated stripes
+		int distinct = 1;
+		for (int k = 1; k < stripes.length; k++)
+		{
+			if (stripes[k] != stripes[distinct - 1]) stripes[distinct++] = stripes[k];
+		}
+		stripes = Arrays.copyOf(stripes, distinct);
+
+		lock(_cellLocks, stripes);
+
+		return stripes;
+	}
+
+	private static int stripe(long cellX, long cellY)
+	{
+		return GridHash.hash(cellX, cellY) & (STRIPES - 1);
+	}
+
+	private static void lock(ReentrantLock[] locks, int[] stripes)
+	{
+		for (int stripe : stripes) locks[stripe].lock();
+	}
+
+	private static void unlock(ReentrantLock[] locks, int[] stripes)
+	{
+		for (int k = stripes.length - 1; k >= 0; k--) locks[stripes[k]].unlock();
+	}
+}
@@ -0,0 +1,34 @@
+package geometry_objects.points;
+
+/**
+ * A point with a generated name (see PointNamingFactory).
+ *
+ * Only the index of the name in the generated sequence is kept; the name itself
+ * (whose length grows with the index) is rendered on the first call of getName().
+ */
+public class GeneratedPoint extends Point
+{
+	protected final long _nameIndex;
+	public long getNameIndex() { return _nameIndex; }
+
+	public GeneratedPoint(long nameIndex, double x, double y)
+	{
+		super(x, y);
+
+		_nameIndex = nameIndex;
+
+		// not yet rendered
+		_name = null;
+	}
+
+	@Override
+	public String getName()
+	{
+		if (_name == null) _name = PointNamingFactory.generatedName(_nameIndex);
+
+		return _name;
+	}
+
+	@Override
+	public boolean isGenerated() { return true; }
+}
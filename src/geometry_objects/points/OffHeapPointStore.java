@@ -0,0 +1,85 @@
+package geometry_objects.points;
+
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+
+import utilities.memory.OffHeapArena;
+
+/**
+ * A PointStore whose coordinates live off the heap, in blocks of an OffHeapArena.
+ *
+ * The coordinates are kept in chunks of CHUNK points, x and y interleaved:
+ *
+ *     chunk c:  x(c * CHUNK), y(c * CHUNK), x(c * CHUNK + 1), y(c * CHUNK + 1), ...
+ *
+ * so growing the store allocates new chunks and never copies. The store keeps only
+ * the arena handles of its chunks: once the arena is closed, the store is unusable
+ * (an access throws IllegalStateException).
+ */
+public class OffHeapPointStore extends PointStore
+{
+	private static final int CHUNK_SHIFT = 14;
+	private static final int CHUNK = 1 << CHUNK_SHIFT;
+	private static final int CHUNK_MASK = CHUNK - 1;
+
+	protected final OffHeapArena _arena;
+
+	// the arena handles of the chunks
+	protected int[] _chunks;
+	protected int _chunkCount;
+
+	public OffHeapPointStore(OffHeapArena arena)
+	{
+		// (PointStore() cleared the store before the arena was set)
+		super();
+
+		_arena = arena;
+		_chunks = new int[4];
+
+		clear();
+	}
+
+	public OffHeapArena getArena() { return _arena; }
+
+	@Override
+	protected double x(int index) { return chunk(index).get(2 * (index & CHUNK_MASK)); }
+
+	@Override
+	protected double y(int index) { return chunk(index).get(2 * (index & CHUNK_MASK) + 1); }
+
+	@Override
+	protected void setCoordinates(int index, double x, double y)
+	{
+		DoubleBuffer chunk = chunk(index);
+
+		chunk.put(2 * (index & CHUNK_MASK), x);
+		chunk.put(2 * (index & CHUNK_MASK) + 1, y);
+	}
+
+	private DoubleBuffer chunk(int index)
+	{
+		return _arena.doubles(_chunks[index >>> CHUNK_SHIFT]);
+	}
+
+	/**
+	 * The chunks allocated are kept (and reused).
+	 */
+	@Override
+	protected void clearCoordinates(int capacity)
+	{
+		if (_arena == null) return;
+
+		growCoordinates(capacity);
+	}
+
+	@Override
+	protected void growCoordinates(int capacity)
+	{
+		while ((long)_chunkCount * CHUNK < capacity)
+		{
+			if (_chunkCount == _chunks.length) _chunks = Arrays.copyOf(_chunks, 2 * _chunks.length);
+
+			_chunks[_chunkCount++] = _arena.allocateDoubles(2 * CHUNK);
+		}
+	}
+}
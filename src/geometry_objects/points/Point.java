@@ -1,5 +1,6 @@
 package geometry_objects.points;
 
+import utilities.math.GridHash;
 import utilities.math.MathUtilities;
 
 /**
@@ -28,6 +29,12 @@ public class Point implements Comparable<Point>
 	protected String _name; 
 	public String getName() { return _name; }
 
+	// the (cached) grid hash; the coordinates do not change
+	// (as in String: a racing thread sees either 0, and recomputes, or the hash;
+	// a hash of 0 is flagged separately so it is not recomputed on every call)
+	private int _hash;
+	private boolean _hashIsZero;
+
 	// BasicPoint objects are named points (from input)
 	// ImpliedPoint objects are unnamed points (from input)
 	public boolean isGenerated() { return false; }
@@ -63,11 +70,23 @@ public class Point implements Comparable<Point>
 		return _name == ANONYMOUS;
 	}
 
+	/**
+	 * The hash of the EPSILON-cell of the point: equal points hash alike unless they
+	 * straddle a cell border (see GridHash; lookups probe the neighboring cells).
+	 */
 	@Override
 	public int hashCode()
 	{
-		return Double.valueOf(MathUtilities.removeLessEpsilon(_x)).hashCode() +
-				Double.valueOf(MathUtilities.removeLessEpsilon(_y)).hashCode();
+		int hash = _hash;
+		if (hash == 0 && !_hashIsZero)
+		{
+			hash = GridHash.hash(_x, _y);
+
+			if (hash == 0) _hashIsZero = true;
+			else _hash = hash;
+		}
+
+		return hash;
 	}
 
 	/**
@@ -108,12 +127,14 @@ public class Point implements Comparable<Point>
 
 		Point other = (Point) obj;
 
+		if (this == other) return true;
+
 		return	MathUtilities.doubleEquals(this.getX(), other.getX()) &&
 				MathUtilities.doubleEquals(this.getY(), other.getY());
 	}
 	
 	public String toString()
     {
-		return _name + "(" + _x + ", " + _y + ")";
+		return getName() + "(" + _x + ", " + _y + ")";
 	}
 }
\ No newline at end of file
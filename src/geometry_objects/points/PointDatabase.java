@@ -4,6 +4,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
+import utilities.memory.OffHeapArena;
+
 /**
  * This class represents a bi-directional database of points.
  * 
@@ -24,8 +26,24 @@ public class PointDatabase
 	//
 	protected PointNamingFactory _factory;
 
+	// The points sorted lexicographically; built on first use (and again after an edit)
+	protected PointIndex _index;
+
 	public Set<Point> getPoints() { return _factory.getAllPoints(); }
 
+	/**
+	 * @return a sorted index of the points (e.g., for x-range queries); over a
+	 *         thread-safe factory, a snapshot built on each call (not cached)
+	 */
+	public PointIndex getIndex()
+	{
+		if (_factory.isThreadSafe()) return new PointIndex(getPoints());
+
+		if (_index == null) _index = new PointIndex(getPoints());
+
+		return _index;
+	}
+
 	public PointDatabase() {
 		_factory = new PointNamingFactory();
 	}
@@ -34,6 +52,33 @@ public class PointDatabase
 		_factory = new PointNamingFactory(points);
 	}
 
+	/**
+	 * @param compact -- true to back the database with a (compact) PointStore
+	 */
+	public PointDatabase(boolean compact) {
+		_factory = new PointNamingFactory(compact);
+	}
+
+	public PointDatabase(List<Point> points, boolean compact) {
+		_factory = new PointNamingFactory(points, compact);
+	}
+
+	/**
+	 * @param arena -- keep the coordinates off the heap, in blocks of the arena
+	 *                 (the database is unusable once the arena is closed)
+	 */
+	public PointDatabase(OffHeapArena arena) {
+		_factory = new PointNamingFactory(arena);
+	}
+
+	/**
+	 * A database over the given factory; e.g., a ConcurrentPointNamingFactory
+	 * for a database shared by threads.
+	 */
+	public PointDatabase(PointNamingFactory factory) {
+		_factory = factory;
+	}
+
 	public int size() { return _factory.size(); }
 
 	/**
@@ -41,9 +86,21 @@ public class PointDatabase
 	 */
 	public void put(String name, double x, double y)
 	{
+		_index = null;
 		_factory.put(name, x, y);
 	}
 
+	/**
+	 * Remove a point from the database.
+	 * 
+	 * @return the database entry removed; null if the point was not in the database
+	 */
+	public Point remove(Point point)
+	{
+		_index = null;
+		return _factory.remove(point);
+	}
+
 	/**
 	 * Given raw coordinates of a point, determine if it is named.
 	 * 
@@ -68,12 +125,7 @@ public class PointDatabase
 	 */
 	public Point getPoint(String name)
 	{
-
-		for(Point point : _factory.getAllPoints()) 
-		{
-			if(point.getName().equals(name)) return point;
-		}
-		return null;
+		return _factory.get(name);
 	}
 
 	/**
@@ -96,6 +148,6 @@ public class PointDatabase
 	 */
 	public Point getPoint(double x, double y)
 	{
-		return getPoint(new Point(x, y));
+		return _factory.get(x, y);
 	}
 }
\ No newline at end of file
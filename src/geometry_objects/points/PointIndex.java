@@ -0,0 +1,87 @@
+package geometry_objects.points;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A static, array-backed index of points sorted lexicographically (see Point.compareTo).
+ *
+ * Since the order is by x first, the points with x in a range are a contiguous run
+ * of the array, found by two binary searches over the (parallel) x coordinates.
+ */
+public class PointIndex extends AbstractList<Point> implements RandomAccess
+{
+	// the points in lexicographic order
+	protected final Point[] _points;
+
+	// _xs[i] == _points[i].getX(); searched without dereferencing the points
+	protected final double[] _xs;
+
+	public PointIndex(Collection<Point> points)
+	{
+		_points = points.toArray(new Point[0]);
+		Arrays.sort(_points);
+
+		_xs = new double[_points.length];
+		for (int i = 0; i < _points.length; i++) _xs[i] = _points[i].getX();
+	}
+
+	@Override
+	public Point get(int index) { return _points[index]; }
+
+	@Override
+	public int size() { return _points.length; }
+
+	/**
+	 * @return the points whose x lies in [x1, x2] (in lexicographic order);
+	 *         empty if x2 < x1
+	 */
+	public List<Point> inXRange(double x1, double x2)
+	{
+		int from = firstAtLeast(x1);
+		int to = firstAbove(x2);
+
+		return from < to ? subList(from, to) : List.of();
+	}
+
+	/**
+	 * @return the index of the first point with x >= value (size() if there is none)
+	 */
+	protected int firstAtLeast(double value)
+	{
+		int low = 0;
+		int high = _xs.length;
+
+		while (low < high)
+		{
+			int middle = (low + high) >>> 1;
+
+			if (_xs[middle] < value) low = middle + 1;
+			else high = middle;
+		}
+
+		return low;
+	}
+
+	/**
+	 * @return the index of the first point with x > value (size() if there is none)
+	 */
+	protected int firstAbove(double value)
+	{
+		int low = 0;
+		int high = _xs.length;
+
+		while (low < high)
+		{
+			int middle = (low + high) >>> 1;
+
+			if (_xs[middle] <= value) low = middle + 1;
+			else high = middle;
+		}
+
+		return low;
+	}
+}
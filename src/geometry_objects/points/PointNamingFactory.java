@@ -1,15 +1,25 @@
 package geometry_objects.points;
 
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import utilities.memory.OffHeapArena;
 
 /*
  * Given a pair of coordinates; generate a unique name for it;
  * return that point object.
  *
  * Names go from A..Z..AA..ZZ..AAA...ZZZ  (a name such as ABA does not occur)
+ *
+ * A generated name is determined by its index in that sequence: index k is the
+ * (k % 26)-th letter repeated (k / 26 + 1) times. Points hold only the index
+ * (see GeneratedPoint); the name is rendered when asked for. Blocks of indices
+ * may be reserved up front (e.g., one block per thread).
  */
 public class PointNamingFactory
 {
@@ -19,14 +29,10 @@ public class PointNamingFactory
 	// Constants reflecting our naming characters for generated names.
 	private static final char START_LETTER = 'A';
 	private static final char END_LETTER = 'Z';
+	private static final int LETTERS = END_LETTER - START_LETTER + 1;
 
-	//
-	// the number of characters in the generated names:
-	// "A" and 1 -> "A"
-	// "B" and 3 -> "BBB"
-	//
-	private String _currentName = "A";
-	private int _numLetters = 1;
+	// the index of the next generated name
+	private final AtomicLong _nextName = new AtomicLong();
 
 	//
 	// A hashed container for the database of points; this requires the Point
@@ -36,9 +42,60 @@ public class PointNamingFactory
 	//
 	protected Map<Point, Point> _database;
 
+	// the database when it is a (compact) PointStore; null otherwise
+	protected PointStore _store;
+
+	//
+	// name --> the earliest stored point with the name (for the LinkedHashMap database;
+	// a PointStore indexes names itself). Unnamed points are not indexed;
+	// names given to more than one point are noted so a removal can find the next.
+	// A generated name is keyed on its index (see nameKey), so it is never rendered.
+	//
+	protected Map<Object, Point> _byName;
+	protected Set<Object> _sharedNames;
+
 	public PointNamingFactory()
 	{
-		_database = new LinkedHashMap<Point, Point>();
+		this(false);
+	}
+
+	/**
+	 * @param compact -- true to keep the points in a PointStore (parallel coordinate
+	 *                   arrays) rather than a LinkedHashMap; its Point objects are views,
+	 *                   so two lookups of a point yield equal (not identical) objects
+	 */
+	public PointNamingFactory(boolean compact)
+	{
+		_store = compact ? new PointStore() : null;
+		_database = compact ? _store : new LinkedHashMap<Point, Point>();
+
+		_byName = new HashMap<Object, Point>();
+		_sharedNames = new HashSet<Object>();
+	}
+
+	/**
+	 * @param arena -- keep the points in an OffHeapPointStore: a PointStore (as with compact)
+	 *                 whose coordinates are allocated from the (off-heap) arena
+	 */
+	public PointNamingFactory(OffHeapArena arena)
+	{
+		_store = new OffHeapPointStore(arena);
+		_database = _store;
+
+		_byName = new HashMap<Object, Point>();
+		_sharedNames = new HashSet<Object>();
+	}
+
+	/**
+	 * A factory over the given (empty) containers, e.g., concurrent ones
+	 */
+	protected PointNamingFactory(Map<Point, Point> database, Map<Object, Point> byName, Set<Object> sharedNames)
+	{
+		_store = null;
+		_database = database;
+
+		_byName = byName;
+		_sharedNames = sharedNames;
 	}
 
 	/**
@@ -48,8 +105,13 @@ public class PointNamingFactory
 	 */
 	public PointNamingFactory(List<Point> points)
 	{
-		_database = new LinkedHashMap<Point, Point>();
-		
+		this(points, false);
+	}
+
+	public PointNamingFactory(List<Point> points, boolean compact)
+	{
+		this(compact);
+
 		for(Point point : points)
 		{
 			put(point);
@@ -69,12 +131,13 @@ public class PointNamingFactory
 	{
 		if(pt == null) return null;
 		
-		Point pointIn = _database.get(pt);
+		Point pointIn = lookup(pt);
 		
 		if (pointIn == null)
 		{
-			Point pointNew = new Point(pt.getName(), pt.getX(), pt.getY());
+			Point pointNew = copy(pt);
 			_database.put(pointNew, pointNew);
+			index(pointNew);
 			return pointNew;
 		}
 
@@ -93,7 +156,7 @@ public class PointNamingFactory
 	 */
 	public Point put(double x, double y)
 	{
-		return put(getCurrentName(), x, y);
+		return putNamed(generate(x, y));
 	}
 
 	/**
@@ -116,20 +179,24 @@ public class PointNamingFactory
 	 */
 	public Point put(String name, double x, double y)
 	{
-		//create new point
-		Point pt = new Point(name, x, y);
-		
+		return putNamed(new Point(name, x, y));
+	}
+
+	private Point putNamed(Point pt)
+	{
 		//attempt to find the point in the database
-		Point pointIn = _database.get(pt);
+		Point pointIn = lookup(pt);
 
 		//not found; put a new point in
-		if(pointIn == null) return put(new Point(name, x, y));
+		if(pointIn == null) return put(pt);
 		
 		//found AND unnamed 
 		if(pointIn.isUnnamed())
 		{
-			//update
-			pointIn._name = name;
+			//update (and store the renamed object back; a PointStore keeps only the name)
+			pointIn._name = pt.getName();
+			_database.put(pointIn, pointIn);
+			index(pointIn);
 		}
 		return pointIn;
 	}    
@@ -143,11 +210,31 @@ public class PointNamingFactory
 	 */
 	public Point get(double x, double y) // caden
 	{
+		// no throwaway lookup point for the compact store
+		if (_store != null) return _store.get(x, y);
+
 		return get(new Point(x, y));
 	}	
 	public Point get(Point pt) // caden
 	{
-		return _database.get(pt);
+		return lookup(pt);
+	}
+
+	/**
+	 * @param name -- a point name
+	 * @return the earliest stored point with the name; null if there is none
+	 */
+	public Point get(String name)
+	{
+		if (_store != null)
+		{
+			int index = _store.indexOfName(name);
+			return index < 0 ? null : _store.view(index);
+		}
+
+		if (Point.ANONYMOUS.equals(name)) return find(name);
+
+		return _byName.get(nameKey(name));
 	}
 
 	/**
@@ -155,39 +242,193 @@ public class PointNamingFactory
 	 * @param y -- single coordinate
 	 * @return simple containment; no updating
 	 */
-	public boolean contains(double x, double y) { return _database.containsKey(new Point(x, y));} // caden
-	public boolean contains(Point p) { return _database.containsKey(p); } // caden
+	public boolean contains(double x, double y) // caden
+	{
+		if (_store != null) return _store.indexOf(x, y) >= 0;
+
+		return lookup(new Point(x, y)) != null;
+	}
+	public boolean contains(Point p) { return lookup(p) != null; } // caden
+
+	/**
+	 * @param pt -- a point (only the coordinates matter)
+	 * @return the stored database object removed; null if the point was not in the database
+	 */
+	public Point remove(Point pt)
+	{
+		Point stored = lookup(pt);
+		if (stored == null) return null;
+
+		Point removed = _database.remove(stored);
+		unindex(removed);
+
+		return removed;
+	}
+
+	/**
+	 * @return the stored point equal to the given one; null if there is none
+	 */
+	private Point lookup(Point pt)
+	{
+		// the PointStore probes the adjacent cells itself
+		if (_store != null) return _store.get(pt);
+
+		return PointProbe.get(_database, pt);
+	}
+
+	/**
+	 * @return a copy of the point to store (a generated name stays unrendered)
+	 */
+	private static Point copy(Point pt)
+	{
+		if (pt instanceof GeneratedPoint)
+		{
+			return new GeneratedPoint(((GeneratedPoint)pt).getNameIndex(), pt.getX(), pt.getY());
+		}
+
+		return new Point(pt.getName(), pt.getX(), pt.getY());
+	}
+
+	/**
+	 * Maintain the name index (of the LinkedHashMap database) as a point is added or renamed.
+	 */
+	protected void index(Point point)
+	{
+		if (_store != null || point.isUnnamed()) return;
+
+		Object key = nameKey(point);
+		if (_byName.putIfAbsent(key, point) == null) return;
+
+		// a shared name: the earliest stored point with the name (as a linear search would find)
+		_sharedNames.add(key);
+		_byName.put(key, findByKey(key));
+	}
+
+	protected void unindex(Point point)
+	{
+		if (_store != null || point.isUnnamed()) return;
+
+		Object key = nameKey(point);
+		if (_byName.get(key) != point) return;
+
+		_byName.remove(key);
+
+		// another point with the same name takes over
+		if (_sharedNames.contains(key))
+		{
+			Point next = findByKey(key);
+			if (next == null) _sharedNames.remove(key);
+			else _byName.put(key, next);
+		}
+	}
+
+	/**
+	 * @return the first stored point with the name (a linear search); null if there is none
+	 */
+	private Point find(String name)
+	{
+		for (Point point : _database.keySet())
+		{
+			if (point.getName().equals(name)) return point;
+		}
+
+		return null;
+	}
+
+	/**
+	 * find() on a name key (no generated name is rendered)
+	 */
+	private Point findByKey(Object key)
+	{
+		for (Point point : _database.keySet())
+		{
+			if (!point.isUnnamed() && nameKey(point).equals(key)) return point;
+		}
+
+		return null;
+	}
+
+	/**
+	 * @return the key of a name in the name index: the index of a generated name; the name otherwise
+	 */
+	private static Object nameKey(String name)
+	{
+		long index = generatedIndex(name);
+
+		return index < 0 ? name : (Object)index;
+	}
+
+	protected static Object nameKey(Point point)
+	{
+		if (point instanceof GeneratedPoint) return ((GeneratedPoint)point).getNameIndex();
+
+		return nameKey(point.getName());
+	}
 
 	/**
 	 * Constructs the next (complete with prefix) generated name.
 	 * Names should be of the form PREFIX + current name
 	 *
-	 * This method should also invoke updating of the current name
-	 * to reflect the 'next' name in the sequence.
+	 * This method also advances the sequence to the 'next' name.
 	 *	 
 	 * @return the next complete name in the sequence including prefix.
 	 */
 	public String getCurrentName() // Jake
 	{
-        String currName = _PREFIX + _currentName.repeat(_numLetters);
-        updateName();
-        return currName;
+		return generatedName(_nextName.getAndIncrement());
+	}
+
+	/**
+	 * @return an (unstored) point with the next generated name; the name is not rendered
+	 */
+	public Point generate(double x, double y)
+	{
+		return new GeneratedPoint(_nextName.getAndIncrement(), x, y);
+	}
+
+	/**
+	 * Reserve a block of consecutive generated names; the caller names its points
+	 * with new GeneratedPoint(first + k, x, y) for k in [0, count).
+	 *
+	 * @return the index of the first name of the block
+	 */
+	public long reserveNames(long count)
+	{
+		return _nextName.getAndAdd(count);
 	}
 
 	/**
-	 * Advances the current generated name to the next letter in the alphabet:
-	 * 'A' -> 'B' -> 'C' -> 'Z' --> 'AA' -> 'BB'
+	 * Render a generated name: 0 -> *_A, 25 -> *_Z, 26 -> *_AA, 27 -> *_BB, ...
+	 */
+	public static String generatedName(long index)
+	{
+		char letter = (char)(START_LETTER + index % LETTERS);
+		int length = Math.toIntExact(index / LETTERS + 1);
+
+		StringBuilder name = new StringBuilder(_PREFIX.length() + length).append(_PREFIX);
+		for (int k = 0; k < length; k++) name.append(letter);
+
+		return name.toString();
+	}
+
+	/**
+	 * The inverse of generatedName.
+	 *
+	 * @return the index of a generated name; -1 if the name is not of the generated form
 	 */
-	private void updateName()
+	public static long generatedIndex(String name)
 	{
-		char currChar = _currentName.charAt(_currentName.length() -1);
-		if(currChar < END_LETTER) currChar++;
-		else
+		if (name == null || name.length() <= _PREFIX.length() || !name.startsWith(_PREFIX)) return -1;
+
+		char letter = name.charAt(_PREFIX.length());
+		if (letter < START_LETTER || letter > END_LETTER) return -1;
+
+		for (int k = _PREFIX.length() + 1; k < name.length(); k++)
 		{
-			currChar = START_LETTER;
-			_numLetters++;
+			if (name.charAt(k) != letter) return -1;
 		}
-		_currentName = Character.toString(currChar).repeat(_numLetters);
+
+		return (long)(name.length() - _PREFIX.length() - 1) * LETTERS + (letter - START_LETTER);
 	}
 
 	/**
@@ -199,9 +440,19 @@ public class PointNamingFactory
 		return _database.keySet();
 	}
 
-	public void clear() { _database.clear(); }
+	public void clear()
+	{
+		_database.clear();
+		_byName.clear();
+		_sharedNames.clear();
+	}
 	public int size() { return _database.size(); }
 
+	/**
+	 * @return whether the factory may be shared by threads (see ConcurrentPointNamingFactory)
+	 */
+	public boolean isThreadSafe() { return false; }
+
 	@Override
 	public String toString()
 	{
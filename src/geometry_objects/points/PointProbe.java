@@ -0,0 +1,75 @@
+package geometry_objects.points;
+
+import java.util.Map;
+import java.util.Set;
+
+import utilities.math.GridHash;
+
+/**
+ * Tolerant lookup in hashed collections of points.
+ *
+ * A Point hashes to its GridHash cell, so an equal point stored in an adjacent cell is
+ * missed by a plain get() / contains(). A probe compares equal to the points near the
+ * given coordinates (it is a Point) but hashes to a chosen neighboring cell.
+ */
+public class PointProbe extends Point
+{
+	private final int _hash;
+
+	private PointProbe(Point point, long cellX, long cellY)
+	{
+		super(point.getX(), point.getY());
+
+		_hash = GridHash.hash(cellX, cellY);
+	}
+
+	@Override
+	public int hashCode() { return _hash; }
+
+	/**
+	 * @return the value of a key equal to the point; null if there is none
+	 */
+	public static <V> V get(Map<? extends Point, V> map, Point point)
+	{
+		V value = map.get(point);
+		if (value != null) return value;
+
+		for (Point probe : neighbors(point))
+		{
+			value = map.get(probe);
+			if (value != null) return value;
+		}
+
+		return null;
+	}
+
+	/**
+	 * @return true if the set holds a point equal to the given one
+	 */
+	public static boolean contains(Set<? extends Point> set, Point point)
+	{
+		if (set.contains(point)) return true;
+
+		for (Point probe : neighbors(point))
+		{
+			if (set.contains(probe)) return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * @return probes for the 3 neighboring cells that may hold points equal to the given one
+	 */
+	private static Point[] neighbors(Point point)
+	{
+		long cellX = GridHash.cell(point.getX());
+		long cellY = GridHash.cell(point.getY());
+		int sideX = GridHash.side(point.getX());
+		int sideY = GridHash.side(point.getY());
+
+		return new Point[] { new PointProbe(point, cellX + sideX, cellY),
+				             new PointProbe(point, cellX, cellY + sideY),
+				             new PointProbe(point, cellX + sideX, cellY + sideY) };
+	}
+}
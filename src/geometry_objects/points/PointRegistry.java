@@ -0,0 +1,59 @@
+package geometry_objects.points;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Canonical point instances (interning).
+ *
+ * The first point interned at some coordinates becomes the single registered instance
+ * for them and receives a small id (0, 1, 2, ...). Later equal points intern to that
+ * instance. The ids are kept in this registry, not in the points: the points may be
+ * shared (e.g. with the caller's PointDatabase or another registry).
+ */
+public class PointRegistry
+{
+	protected Map<Point, Point> _points;
+
+	// registered instance -> id
+	protected Map<Point, Integer> _ids;
+
+	public PointRegistry()
+	{
+		_points = new HashMap<Point, Point>();
+		_ids = new IdentityHashMap<Point, Integer>();
+	}
+
+	/**
+	 * @param point -- a point
+	 * @return the registered instance equal to the point (the point itself, if it is the first)
+	 */
+	public Point intern(Point point)
+	{
+		if (point == null) return null;
+
+		if (_ids.containsKey(point)) return point;
+
+		Point registered = PointProbe.get(_points, point);
+		if (registered != null) return registered;
+
+		_ids.put(point, _ids.size());
+		_points.put(point, point);
+
+		return point;
+	}
+
+	/**
+	 * @param point -- a point
+	 * @return the id of the point if it is a registered instance; -1 otherwise
+	 */
+	public int getId(Point point)
+	{
+		Integer id = _ids.get(point);
+
+		return id == null ? -1 : id;
+	}
+
+	public int size() { return _points.size(); }
+}
@@ -0,0 +1,537 @@
+package geometry_objects.points;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import utilities.math.GridHash;
+import utilities.math.MathUtilities;
+
+/**
+ * A compact point database (key == value) in struct-of-arrays form:
+ *
+ *     _x[i], _y[i], _names[i]  -- the i-th point inserted
+ *
+ * Points are found through an open-addressed (linear probing) table of indices keyed
+ * on the coordinates quantized to GridHash cells. Two equal points (within EPSILON in
+ * each coordinate) lie in the same or in adjacent cells, so a lookup probes the cell of
+ * the coordinates and the (at most 3) adjacent cells GridHash.side() points to.
+ *
+ * A second table of indices, keyed on the names, serves lookups by name (unnamed
+ * points are not in it). A generated name (see GeneratedPoint) is kept as its index
+ * in _nameIndices (with _names[i] == null) and keyed on that index, so it is never rendered.
+ *
+ * No Point objects are stored: a Point is a view created on access (so two lookups
+ * of the same point yield equal, not identical, objects). Iteration follows
+ * insertion order.
+ *
+ * The coordinates are accessed only through x(), y(), setCoordinates() and
+ * growCoordinates(); a subclass may keep them elsewhere (see OffHeapPointStore).
+ */
+public class PointStore extends AbstractMap<Point, Point>
+{
+	private static final int INITIAL_CAPACITY = 16;
+
+	// an empty table slot; occupied slots hold (index + 1)
+	private static final int EMPTY = 0;
+
+	protected double[] _x;
+	protected double[] _y;
+	protected String[] _names;
+	protected boolean[] _removed;
+
+	// the generated name indices; allocated when the first generated name is stored
+	protected long[] _nameIndices;
+
+	// the number of indices used (including removed points)
+	protected int _count;
+	protected int _size;
+
+	protected int[] _table;
+	protected int[] _nameTable;
+
+	public PointStore()
+	{
+		clear();
+	}
+
+	@Override
+	public void clear()
+	{
+		clearCoordinates(INITIAL_CAPACITY);
+		_names = new String[INITIAL_CAPACITY];
+		_removed = new boolean[INITIAL_CAPACITY];
+		_nameIndices = null;
+
+		_count = 0;
+		_size = 0;
+
+		_table = new int[2 * INITIAL_CAPACITY];
+		_nameTable = new int[2 * INITIAL_CAPACITY];
+	}
+
+	@Override
+	public int size() { return _size; }
+
+	/**
+	 * @return the index of a stored point equal to (x, y); -1 if there is none
+	 */
+	public int indexOf(double x, double y)
+	{
+		long cellX = quantize(x);
+		long cellY = quantize(y);
+		long otherX = cellX + GridHash.side(x);
+		long otherY = cellY + GridHash.side(y);
+
+		// the earliest inserted of the equal points (the neighborhood may hold several)
+		return earliest(earliest(find(cellX, cellY, x, y), find(otherX, cellY, x, y)),
+				        earliest(find(cellX, otherY, x, y), find(otherX, otherY, x, y)));
+	}
+
+	private static int earliest(int index, int other)
+	{
+		if (index < 0) return other;
+		if (other < 0) return index;
+
+		return Math.min(index, other);
+	}
+
+	/**
+	 * @return the index of a point equal to (x, y) in the given cell; -1 if there is none
+	 */
+	private int find(long cellX, long cellY, double x, double y)
+	{
+		int mask = _table.length - 1;
+
+		for (int slot = hash(cellX, cellY) & mask; _table[slot] != EMPTY; slot = (slot + 1) & mask)
+		{
+			int index = _table[slot] - 1;
+
+			double storedX = x(index);
+			double storedY = y(index);
+
+			if (MathUtilities.doubleEquals(storedX, x) && MathUtilities.doubleEquals(storedY, y) &&
+				quantize(storedX) == cellX && quantize(storedY) == cellY) return index;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * @return the index of the earliest inserted point with the name; -1 if there is none
+	 */
+	public int indexOfName(String name)
+	{
+		if (Point.ANONYMOUS.equals(name)) return indexOfUnnamed();
+
+		long generated = PointNamingFactory.generatedIndex(name);
+
+		int mask = _nameTable.length - 1;
+
+		int found = -1;
+		for (int slot = nameHash(name, generated) & mask; _nameTable[slot] != EMPTY; slot = (slot + 1) & mask)
+		{
+			int index = _nameTable[slot] - 1;
+
+			if (hasName(index, name, generated) && (found < 0 || index < found)) found = index;
+		}
+
+		return found;
+	}
+
+	/**
+	 * @param generated -- the generated index of the name (-1 if it is not of the generated form)
+	 */
+	private boolean hasName(int index, String name, long generated)
+	{
+		if (_names[index] == null) return _nameIndices[index] == generated;
+
+		return _names[index].equals(name);
+	}
+
+	private int indexOfUnnamed()
+	{
+		for (int index = 0; index < _count; index++)
+		{
+			if (!_removed[index] && Point.ANONYMOUS.equals(_names[index])) return index;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * @return a view of the point at an index
+	 */
+	public Point view(int index)
+	{
+		if (_names[index] == null) return new GeneratedPoint(_nameIndices[index], x(index), y(index));
+
+		return new Point(_names[index], x(index), y(index));
+	}
+
+	@Override
+	public boolean containsKey(Object key)
+	{
+		if (!(key instanceof Point)) return false;
+
+		Point point = (Point)key;
+
+		return indexOf(point.getX(), point.getY()) >= 0;
+	}
+
+	@Override
+	public Point get(Object key)
+	{
+		if (!(key instanceof Point)) return null;
+
+		Point point = (Point)key;
+
+		return get(point.getX(), point.getY());
+	}
+
+	/**
+	 * Lookup on raw coordinates (no Point is created unless a stored point is found).
+	 */
+	public Point get(double x, double y)
+	{
+		int index = indexOf(x, y);
+
+		return index < 0 ? null : view(index);
+	}
+
+	/**
+	 * Add a point; a stored point equal to the key is replaced by the value (e.g., renamed).
+	 *
+	 * @return the point previously stored; null if there was none
+	 */
+	@Override
+	public Point put(Point key, Point value)
+	{
+		int index = indexOf(key.getX(), key.getY());
+
+		if (index >= 0)
+		{
+			Point previous = view(index);
+
+			// the coordinates (and so the cell) may differ slightly
+			deleteSlot(_table, index, false);
+			deleteSlot(_nameTable, index, true);
+
+			setCoordinates(index, value.getX(), value.getY());
+			setName(index, value);
+
+			insert(index);
+
+			return previous;
+		}
+
+		add(value);
+
+		return null;
+	}
+
+	/**
+	 * Append a point (not already stored); a generated name stays unrendered.
+	 *
+	 * @return the index of the new point
+	 */
+	public int add(Point point)
+	{
+		int index = append(point.getX(), point.getY());
+		setName(index, point);
+
+		enter(index);
+
+		return index;
+	}
+
+	/**
+	 * Append a point (not already stored) from raw coordinates.
+	 *
+	 * @return the index of the new point
+	 */
+	public int add(String name, double x, double y)
+	{
+		int index = append(x, y);
+		_names[index] = name;
+
+		enter(index);
+
+		return index;
+	}
+
+	/**
+	 * Append the coordinates of a new point (not yet in the tables).
+	 */
+	private int append(double x, double y)
+	{
+		if (_count == _names.length) grow();
+
+		int index = _count++;
+		setCoordinates(index, x, y);
+
+		return index;
+	}
+
+	/**
+	 * Name the point at the index as the given point (keeping a generated name unrendered).
+	 */
+	private void setName(int index, Point point)
+	{
+		if (!(point instanceof GeneratedPoint))
+		{
+			_names[index] = point.getName();
+			return;
+		}
+
+		if (_nameIndices == null) _nameIndices = new long[_names.length];
+
+		_names[index] = null;
+		_nameIndices[index] = ((GeneratedPoint)point).getNameIndex();
+	}
+
+	/**
+	 * Enter a new point in the tables.
+	 */
+	private void enter(int index)
+	{
+		_size++;
+
+		// keep the load factor at most 1/2
+		if (2 * _size > _table.length) rehash(2 * _table.length);
+		else insert(index);
+	}
+
+	private void grow()
+	{
+		int capacity = 2 * _names.length;
+
+		growCoordinates(capacity);
+		_names = Arrays.copyOf(_names, capacity);
+		_removed = Arrays.copyOf(_removed, capacity);
+		if (_nameIndices != null) _nameIndices = Arrays.copyOf(_nameIndices, capacity);
+	}
+
+	//
+	// The coordinate storage: parallel on-heap arrays
+	//
+	protected double x(int index) { return _x[index]; }
+	protected double y(int index) { return _y[index]; }
+
+	protected void setCoordinates(int index, double x, double y)
+	{
+		_x[index] = x;
+		_y[index] = y;
+	}
+
+	/**
+	 * Discard the coordinates; room for (at least) capacity points.
+	 */
+	protected void clearCoordinates(int capacity)
+	{
+		_x = new double[capacity];
+		_y = new double[capacity];
+	}
+
+	/**
+	 * Make room for (at least) capacity points, keeping the stored coordinates.
+	 */
+	protected void growCoordinates(int capacity)
+	{
+		_x = Arrays.copyOf(_x, capacity);
+		_y = Arrays.copyOf(_y, capacity);
+	}
+
+	private void insert(int index)
+	{
+		insert(_table, index, home(index, false));
+
+		if (!Point.ANONYMOUS.equals(_names[index])) insert(_nameTable, index, home(index, true));
+	}
+
+	private static void insert(int[] table, int index, int home)
+	{
+		int mask = table.length - 1;
+
+		int slot = home & mask;
+		while (table[slot] != EMPTY) slot = (slot + 1) & mask;
+
+		table[slot] = index + 1;
+	}
+
+	private void rehash(int capacity)
+	{
+		_table = new int[capacity];
+		_nameTable = new int[capacity];
+
+		for (int index = 0; index < _count; index++)
+		{
+			if (!_removed[index]) insert(index);
+		}
+	}
+
+	@Override
+	public Point remove(Object key)
+	{
+		if (!(key instanceof Point)) return null;
+
+		Point point = (Point)key;
+
+		int index = indexOf(point.getX(), point.getY());
+		if (index < 0) return null;
+
+		Point removed = view(index);
+
+		deleteSlot(_table, index, false);
+		deleteSlot(_nameTable, index, true);
+
+		_removed[index] = true;
+		_names[index] = null;
+		_size--;
+
+		return removed;
+	}
+
+	/**
+	 * Remove the slot holding the index from a table (the coordinate or the name table);
+	 * later slots of the probe run shift back so no lookup stops early at the hole.
+	 */
+	private void deleteSlot(int[] table, int index, boolean byName)
+	{
+		// unnamed points are not in the name table
+		if (byName && Point.ANONYMOUS.equals(_names[index])) return;
+
+		int mask = table.length - 1;
+
+		int hole = home(index, byName) & mask;
+		while (table[hole] != index + 1) hole = (hole + 1) & mask;
+
+		for (int slot = (hole + 1) & mask; table[slot] != EMPTY; slot = (slot + 1) & mask)
+		{
+			int home = home(table[slot] - 1, byName) & mask;
+
+			// the entry may move into the hole if its home is not cyclically within (hole, slot]
+			boolean movable = hole <= slot ? (home <= hole || home > slot) : (home <= hole && home > slot);
+			if (movable)
+			{
+				table[hole] = table[slot];
+				hole = slot;
+			}
+		}
+
+		table[hole] = EMPTY;
+	}
+
+	/**
+	 * @return the (unmasked) home slot of the point at the index in the coordinate or the name table
+	 */
+	private int home(int index, boolean byName)
+	{
+		if (!byName) return hash(quantize(x(index)), quantize(y(index)));
+
+		if (_names[index] == null) return generatedHash(_nameIndices[index]);
+
+		return nameHash(_names[index], PointNamingFactory.generatedIndex(_names[index]));
+	}
+
+	/**
+	 * A name of the generated form hashes as the generated name (so both are found by a lookup).
+	 */
+	private static int nameHash(String name, long generated)
+	{
+		if (generated >= 0) return generatedHash(generated);
+
+		int h = name.hashCode() * 0x9E3779B9;
+
+		return h ^ (h >>> 16);
+	}
+
+	private static int generatedHash(long generated)
+	{
+		return Long.hashCode(generated * 0x9E3779B97F4A7C15L);
+	}
+
+	private static long quantize(double value)
+	{
+		return GridHash.cell(value);
+	}
+
+	private static int hash(long cellX, long cellY)
+	{
+		return GridHash.hash(cellX, cellY);
+	}
+
+	@Override
+	public Set<Map.Entry<Point, Point>> entrySet()
+	{
+		return new AbstractSet<Map.Entry<Point, Point>>()
+		{
+			@Override
+			public Iterator<Map.Entry<Point, Point>> iterator()
+			{
+				Iterator<Point> points = keySet().iterator();
+
+				return new Iterator<Map.Entry<Point, Point>>()
+				{
+					public boolean hasNext() { return points.hasNext(); }
+
+					public Map.Entry<Point, Point> next()
+					{
+						Point point = points.next();
+						return new AbstractMap.SimpleImmutableEntry<Point, Point>(point, point);
+					}
+				};
+			}
+
+			@Override
+			public int size() { return _size; }
+		};
+	}
+
+	/**
+	 * @return the stored points in insertion order
+	 */
+	@Override
+	public Set<Point> keySet()
+	{
+		return new AbstractSet<Point>()
+		{
+			@Override
+			public Iterator<Point> iterator()
+			{
+				return new Iterator<Point>()
+				{
+					private int _next = advance(0);
+
+					private int advance(int index)
+					{
+						while (index < _count && _removed[index]) index++;
+						return index;
+					}
+
+					public boolean hasNext() { return _next < _count; }
+
+					public Point next()
+					{
+						if (!hasNext()) throw new NoSuchElementException();
+
+						Point point = view(_next);
+						_next = advance(_next + 1);
+
+						return point;
+					}
+				};
+			}
+
+			@Override
+			public boolean contains(Object o) { return containsKey(o); }
+
+			@Override
+			public int size() { return _size; }
+		};
+	}
+}
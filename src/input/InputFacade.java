@@ -1,13 +1,23 @@
 package input;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import geometry_objects.points.Point;
 import geometry_objects.points.PointDatabase;
@@ -18,15 +28,19 @@ import input.components.ComponentNode;
 import input.components.FigureNode;
 import input.components.point.PointNode;
 import input.components.segment.SegmentNode;
+import input.exception.ParseException;
+import input.parser.BinaryFigureReader;
 import input.parser.JSONParser;
-import utilities.io.FileUtilities;
+import input.parser.JSONPullReader;
+import input.visitor.ToBinaryVisitor;
+import utilities.io.MappedCommentFilterReader;
 
 public class InputFacade
 {
 	/**
 	 * A utility method to acquire a figure from the given JSON file:
 	 *     Constructs a parser
-	 *     Acquries an input file string.
+	 *     Maps the input file (filtering its comments as it is read).
 	 *     Parses the file.
 	 *
 	 * @param filepath -- the path/name defining the input file
@@ -35,8 +49,87 @@ public class InputFacade
 	public static FigureNode extractFigure(String filepath)
 	{
         JSONParser parser = new JSONParser(new GeometryBuilder());
-        String str = FileUtilities.readFileFilterComments(filepath);
-        return (FigureNode) parser.parse(str);
+        try (Reader reader = new MappedCommentFilterReader(filepath))
+        {
+            return (FigureNode) parser.parse(reader);
+        }
+        catch (IOException e) { throw new ParseException("Error reading file: " + filepath, e); }
+	}
+
+	/**
+	 * Acquire the figures of a batch JSON file ("Figures"), handing each to the consumer
+	 * as soon as it is parsed (see extractFigure).
+	 *
+	 * @param filepath -- the path/name defining the input file
+	 * @param figures -- called back with each FigureNode, in file order
+	 */
+	public static void extractFigures(String filepath, Consumer<FigureNode> figures)
+	{
+        JSONParser parser = new JSONParser(new GeometryBuilder());
+        try (Reader reader = new MappedCommentFilterReader(filepath))
+        {
+            parser.parseFigures(new JSONPullReader(reader), (figure) -> figures.accept((FigureNode) figure));
+        }
+        catch (IOException e) { throw new ParseException("Error reading file: " + filepath, e); }
+	}
+
+	/**
+	 * @param filepath -- the path/name defining the input file
+	 * @return the FigureNode objects of a batch JSON file ("Figures"), in file order
+	 */
+	public static List<FigureNode> extractFigures(String filepath)
+	{
+		List<FigureNode> figures = new ArrayList<FigureNode>();
+		extractFigures(filepath, figures::add);
+
+		return figures;
+	}
+
+	/**
+	 * Acquire a figure from a binary figure file (written by writeBinaryFigure): the file
+	 * is mapped and read as a table of points and segments, with no text to parse.
+	 *
+	 * @param filepath -- the path/name defining the input file
+	 * @return a FigureNode object corresponding to the input file.
+	 */
+	public static FigureNode extractBinaryFigure(String filepath)
+	{
+		return (FigureNode) new BinaryFigureReader(mapFile(filepath)).readFigure(new GeometryBuilder());
+	}
+
+	/**
+	 * Acquire the geometric form of a binary figure file (as toGeometryRepresentation
+	 * returns it), without building a FigureNode.
+	 *
+	 * @param filepath -- the path/name defining the input file
+	 * @return a point database and a set of segments
+	 */
+	public static Map.Entry<PointDatabase, Set<Segment>> extractBinaryGeometry(String filepath)
+	{
+		return new BinaryFigureReader(mapFile(filepath)).readGeometry();
+	}
+
+	/**
+	 * Write a figure to a binary figure file (see ToBinaryVisitor).
+	 *
+	 * @param filepath -- the path/name of the output file (replaced if it exists)
+	 */
+	public static void writeBinaryFigure(FigureNode fig, String filepath)
+	{
+		try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(Path.of(filepath))))
+		{
+			fig.accept(new ToBinaryVisitor(out), null);
+		}
+		catch (IOException | UncheckedIOException e) { throw new ParseException("Error writing file: " + filepath, e); }
+	}
+
+	private static ByteBuffer mapFile(String filepath)
+	{
+		try (FileChannel channel = FileChannel.open(Path.of(filepath), StandardOpenOption.READ))
+		{
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		catch (IOException e) { throw new ParseException("Error reading file: " + filepath, e); }
 	}
 
 	/**
@@ -11,6 +11,7 @@ package input.components.point;
 import input.components.ComponentNode;
 import input.visitor.ComponentNodeVisitor;
 import utilities.io.StringUtilities;
+import utilities.math.GridHash;
 import utilities.math.MathUtilities;
 
 /**
@@ -55,7 +56,8 @@ public class PointNode implements ComponentNode
 	@Override
 	public int hashCode(){
 		
-		return Double.valueOf(_x).hashCode() + Double.valueOf(_y).hashCode();
+		// the EPSILON-cell of the point (as Point)
+		return GridHash.hash(_x, _y);
 	}
 
 	
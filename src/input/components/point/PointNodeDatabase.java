@@ -8,9 +8,11 @@
 */
 package input.components.point;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
 
 import input.components.ComponentNode;
@@ -20,10 +22,18 @@ import utilities.io.StringUtilities;
 
 public class PointNodeDatabase implements ComponentNode, Iterable<PointNode> {
 	Set<PointNode> _points;
+
+	// name --> the first point put with that name
+	Map<String, PointNode> _byName;
+
+	// each point --> itself (a hashed lookup of the stored object)
+	Map<PointNode, PointNode> _stored;
 	
 	public PointNodeDatabase() 
 	{
 		_points = new LinkedHashSet<PointNode>();
+		_byName = new HashMap<String, PointNode>();
+		_stored = new HashMap<PointNode, PointNode>();
 	}
 	
 	public Set<PointNode> getPoints(){ return _points; }
@@ -37,9 +47,9 @@ public class PointNodeDatabase implements ComponentNode, Iterable<PointNode> {
 	 */
 	public PointNodeDatabase(List<PointNode> points) {
 		
-		if(points == null || points.size() == 0) _points = new LinkedHashSet<PointNode>();
+		this();
 		
-        else {_points = new LinkedHashSet<PointNode>(points);}
+		if(points == null) return;
 		
         for(PointNode point : points) {
         	
@@ -53,31 +63,30 @@ public class PointNodeDatabase implements ComponentNode, Iterable<PointNode> {
 		
 		if(point == null) return;
 		
+		// (a point equal to a stored one in an adjacent grid cell is a duplicate as well)
+		if(contains(point)) return;
+		
 		_points.add(point);
+		_stored.put(point, point);
+		_byName.putIfAbsent(point.getName(), point);
 		
 	}
 	
 	public boolean contains(PointNode point){
 		
-		return _points.contains(point);
+		return PointNodeProbe.contains(_points, point);
 		
 	}
 	public boolean contains(double x, double y) {
-		//if null return false
-	    PointNode point = getPoint(x, y);
-	    
-	    return _points.contains(point);
+		
+	    return getPoint(x, y) != null;
 	    
 	}
 	
 	
 	public String getName(PointNode point){
 		
-		for (PointNode point1:_points){
-			
-			if(point1.equals(point)) return point._name;
-			
-		}
+		if(contains(point)) return point._name;
 		
 		return null;
 		
@@ -102,37 +111,20 @@ public class PointNodeDatabase implements ComponentNode, Iterable<PointNode> {
 	 */
 	public PointNode getPoint(PointNode point){
 		
-		if(_points.contains(point)) return point;
-		//use the below implementation this should do the work
-		else return null;
+		if(contains(point)) return point;
+		
+		return null;
 		
 	}
 	public PointNode getPoint(double x, double y){
 		
-        PointNode point1 = new PointNode(x, y);
-        
-        if (_points.contains(point1)) { //return false then do the loop
-        	
-            for (PointNode point:_points) {
-            	
-                if (point1.equals(point)) return point;
-            }
-            
-        }
-        
-        return null;
+        return PointNodeProbe.get(_stored, new PointNode(x, y));
         
     }
 	
 	public PointNode getPoint(String name) {
 		
-		for(PointNode point : _points) {
-			
-			if(point.getName().equals(name)) return point;
-			
-		}
-		
-		return null;
+		return _byName.get(name);
 	}
 	
 	protected int size() { return _points.size(); }
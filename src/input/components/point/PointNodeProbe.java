@@ -0,0 +1,73 @@
+package input.components.point;
+
+import java.util.Map;
+import java.util.Set;
+
+import utilities.math.GridHash;
+
+/**
+ * Tolerant lookup in hashed collections of PointNodes (as PointProbe for Points):
+ * a probe compares equal to the nodes near the given coordinates but hashes to a
+ * chosen neighboring GridHash cell.
+ */
+public class PointNodeProbe extends PointNode
+{
+	private final int _hash;
+
+	private PointNodeProbe(PointNode node, long cellX, long cellY)
+	{
+		super(node.getX(), node.getY());
+
+		_hash = GridHash.hash(cellX, cellY);
+	}
+
+	@Override
+	public int hashCode() { return _hash; }
+
+	/**
+	 * @return the value of a key equal to the node; null if there is none
+	 */
+	public static <V> V get(Map<? extends PointNode, V> map, PointNode node)
+	{
+		V value = map.get(node);
+		if (value != null) return value;
+
+		for (PointNode probe : neighbors(node))
+		{
+			value = map.get(probe);
+			if (value != null) return value;
+		}
+
+		return null;
+	}
+
+	/**
+	 * @return true if the set holds a node equal to the given one
+	 */
+	public static boolean contains(Set<? extends PointNode> set, PointNode node)
+	{
+		if (set.contains(node)) return true;
+
+		for (PointNode probe : neighbors(node))
+		{
+			if (set.contains(probe)) return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * @return probes for the 3 neighboring cells that may hold nodes equal to the given one
+	 */
+	private static PointNode[] neighbors(PointNode node)
+	{
+		long cellX = GridHash.cell(node.getX());
+		long cellY = GridHash.cell(node.getY());
+		int sideX = GridHash.side(node.getX());
+		int sideY = GridHash.side(node.getY());
+
+		return new PointNode[] { new PointNodeProbe(node, cellX + sideX, cellY),
+				                 new PointNodeProbe(node, cellX, cellY + sideY),
+				                 new PointNodeProbe(node, cellX + sideX, cellY + sideY) };
+	}
+}
@@ -20,6 +20,7 @@ import java.util.Map.Entry;
 
 import input.components.ComponentNode;
 import input.components.point.PointNode;
+import input.components.point.PointNodeProbe;
 import input.visitor.ComponentNodeVisitor;
 import utilities.io.StringUtilities;
 
@@ -68,18 +69,23 @@ public class SegmentNodeDatabase implements ComponentNode{
 		if(a == null || b == null) return;
 
 		// if the map doesn't contain point a add it with b in its adjacency list
+		// (the lookups tolerate points in adjacent grid cells)
 
-		if(!_adjLists.containsKey(a)) {
+		Set<PointNode> adjacent = PointNodeProbe.get(_adjLists, a);
+
+		if(adjacent == null) {
 
 			_adjLists.put(a, new HashSet<PointNode>(Arrays.asList(b)));
 
+			return;
+
 		}
 
 		// if b is not in a's adjacency list, add it
 
-		if(!_adjLists.get(a).contains(b)) {
+		if(!PointNodeProbe.contains(adjacent, b)) {
 
-			_adjLists.get(a).add(b);
+			adjacent.add(b);
 
 		}
 
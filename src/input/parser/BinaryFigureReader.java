@@ -0,0 +1,180 @@
+package input.parser;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+import geometry_objects.points.PointDatabase;
+import input.builder.DefaultBuilder;
+import input.components.ComponentNode;
+import input.components.point.PointNode;
+import input.components.point.PointNodeDatabase;
+import input.components.segment.SegmentNodeDatabase;
+import input.exception.ParseException;
+
+/**
+ * Reads a figure in the binary figure format (see Binary_Constants), as written by
+ * ToBinaryVisitor: the points are a table indexed by id, and the segments are id pairs,
+ * so there are no names to look up or numbers to parse.
+ *
+ * The figure is built either as a FigureNode (through a builder, as JSONParser does) or
+ * straight into its geometric form (as InputFacade.toGeometryRepresentation returns it).
+ */
+public class BinaryFigureReader
+{
+	protected final ByteBuffer _bytes;
+
+	/**
+	 * @param bytes -- a figure, read from the position of the buffer
+	 */
+	public BinaryFigureReader(ByteBuffer bytes)
+	{
+		_bytes = bytes.order(ByteOrder.BIG_ENDIAN);
+	}
+
+	/**
+	 * @return the figure, built through the builder (as JSONParser.parse builds it)
+	 */
+	public ComponentNode readFigure(DefaultBuilder builder) throws ParseException
+	{
+		try
+		{
+			String description = readHeader();
+
+			String[] names = readNames();
+			List<PointNode> nodes = new ArrayList<PointNode>(names.length);
+			for (String name : names) nodes.add(builder.buildPointNode(name, _bytes.getDouble(), _bytes.getDouble()));
+
+			PointNodeDatabase pnd = builder.buildPointDatabaseNode(nodes);
+			SegmentNodeDatabase snd = builder.buildSegmentNodeDatabase();
+
+			for (int heads = readCount(); heads > 0; heads--)
+			{
+				PointNode head = nodes.get(readId(names.length));
+
+				for (int tails = readCount(); tails > 0; tails--)
+				{
+					builder.addSegmentToDatabase(snd, head, nodes.get(readId(names.length)));
+				}
+			}
+
+			return builder.buildFigureNode(description, pnd, snd);
+		}
+		catch (BufferUnderflowException e) { throw new ParseException("Parse error: the figure is truncated", e); }
+	}
+
+	/**
+	 * @return the points and segments of the figure (the segments' endpoints are the points
+	 *         of the database)
+	 */
+	public Map.Entry<PointDatabase, Set<Segment>> readGeometry() throws ParseException
+	{
+		try
+		{
+			readHeader();
+
+			String[] names = readNames();
+			PointDatabase database = new PointDatabase();
+			Point[] points = new Point[names.length];
+
+			for (int id = 0; id < names.length; id++)
+			{
+				double x = _bytes.getDouble();
+				double y = _bytes.getDouble();
+
+				database.put(names[id], x, y);
+				points[id] = database.getPoint(x, y);
+			}
+
+			Set<Segment> segments = new LinkedHashSet<Segment>();
+			for (int heads = readCount(); heads > 0; heads--)
+			{
+				Point head = points[readId(names.length)];
+
+				for (int tails = readCount(); tails > 0; tails--)
+				{
+					segments.add(new Segment(head, points[readId(names.length)]));
+				}
+			}
+
+			return new AbstractMap.SimpleEntry<PointDatabase, Set<Segment>>(database, segments);
+		}
+		catch (BufferUnderflowException e) { throw new ParseException("Parse error: the figure is truncated", e); }
+	}
+
+	/**
+	 * Check the magic number and version.
+	 *
+	 * @return the description of the figure
+	 */
+	private String readHeader()
+	{
+		if (_bytes.remaining() < 6 || _bytes.getInt() != Binary_Constants.MAGIC)
+		{
+			throw new ParseException("Parse error: not a binary figure");
+		}
+
+		short version = _bytes.getShort();
+		if (version != Binary_Constants.VERSION)
+		{
+			throw new ParseException("Parse error: unsupported binary figure version " + version);
+		}
+
+		return readString();
+	}
+
+	private String[] readNames()
+	{
+		String[] names = new String[readCount()];
+		for (int id = 0; id < names.length; id++) names[id] = readString();
+
+		return names;
+	}
+
+	private String readString()
+	{
+		int length = readCount();
+		if (length > _bytes.remaining()) throw new BufferUnderflowException();
+
+		String s;
+		if (_bytes.hasArray())
+		{
+			int offset = _bytes.arrayOffset() + _bytes.position();
+			s = new String(_bytes.array(), offset, length, StandardCharsets.UTF_8);
+			_bytes.position(_bytes.position() + length);
+		}
+		else
+		{
+			byte[] bytes = new byte[length];
+			_bytes.get(bytes);
+			s = new String(bytes, StandardCharsets.UTF_8);
+		}
+
+		return s;
+	}
+
+	private int readCount()
+	{
+		int count = _bytes.getInt();
+		if (count < 0) throw new ParseException("Parse error: a negative count " + count);
+
+		return count;
+	}
+
+	private int readId(int points)
+	{
+		int id = _bytes.getInt();
+		if (id < 0 || id >= points) throw new ParseException("Parse error: an undefined point id " + id);
+
+		return id;
+	}
+}
@@ -0,0 +1,21 @@
+package input.parser;
+
+/**
+ * The binary figure format (big-endian, as DataOutput writes it):
+ *
+ *     header:    MAGIC (int), VERSION (short)
+ *     figure:    description (int byte count, UTF-8 bytes)
+ *     points:    n (int); the n names (int byte count, UTF-8 bytes each);
+ *                the n coordinate pairs, packed (x, y doubles)
+ *     segments:  h (int); h adjacency lists: head id (int), t (int), t tail ids (int)
+ *
+ * A point id is its index in the point table; each segment is listed once, under its
+ * endpoint of lower id.
+ */
+public class Binary_Constants
+{
+	// "GFIG"
+	public static final int MAGIC = 0x47464947;
+
+	public static final short VERSION = 1;
+}
@@ -9,21 +9,19 @@
 
 package input.parser;
 
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
-
-import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
-import org.json.JSONArray;
-import org.json.JSONException;
 import org.json.JSONObject;
-import org.json.JSONTokener;
 
 import input.builder.DefaultBuilder;
 import input.components.*;
 import input.components.point.PointNode;
 import input.components.point.PointNodeDatabase;
-import input.components.segment.SegmentNode;
 import input.components.segment.SegmentNodeDatabase;
 import input.exception.ParseException;
 
@@ -48,155 +46,236 @@ public class JSONParser
 
 	public ComponentNode parse(String str) throws ParseException
 	{
-		// Parsing is accomplished via the JSONTokenizer class.
-		JSONTokener tokenizer = new JSONTokener(str);
-		JSONObject JSONroot = (JSONObject)tokenizer.nextValue();
-		
-		String description;
-		PointNodeDatabase pnd;
-		SegmentNodeDatabase snd;
-		
-		// parse elements from input JSONroot 
-		try {
-			JSONObject values = JSONroot.getJSONObject("Figure");
-			description = values.getString("Description");
-			pnd = getPointNodeDatabase(values);
-			snd = getSegmentNodeDatabase(values, pnd);
+		return parse(new StringReader(str));
+	}
+
+	public ComponentNode parse(JSONObject JSONroot) throws ParseException
+	{
+		return parse(JSONroot.toString());
+	}
+
+	public ComponentNode parse(Reader reader) throws ParseException
+	{
+		return parse(new JSONPullReader(reader));
+	}
+
+	/**
+	 * @param bytes -- UTF-8 encoded JSON
+	 */
+	public ComponentNode parse(ByteBuffer bytes) throws ParseException
+	{
+		return parse(new JSONPullReader(bytes));
+	}
+
+	/**
+	 * Parse a figure as its tokens are pulled from the input: the builder is called back
+	 * as each point and segment is read (no JSON tree of the figure is built).
+	 */
+	public ComponentNode parse(JSONPullReader json) throws ParseException
+	{
+		boolean found = false;
+
+		json.beginObject();
+		while (json.hasNext())
+		{
+			if (!json.nextName().equals(JSON_Constants.JSON_FIGURE)) json.skipValue();
+			else
+			{
+				_astRoot = parseFigure(json);
+				found = true;
+			}
 		}
-		
-		catch(JSONException e) { throw new ParseException("File is incorrecly formatted."); }
-		
-		// return FigureNode with input data 
-		return _builder.buildFigureNode(description, pnd, snd);
+		json.endObject();
+
+		if (!found) error("no " + JSON_Constants.JSON_FIGURE);
+		if (json.peek() != JSONPullReader.Token.END_DOCUMENT) error("unexpected content after the figure (line " + json.getLine() + ")");
+
+		return _astRoot;
 	}
 
-	// makes and returns a PointNodeDatabase from the given JSON object 
-	private PointNodeDatabase getPointNodeDatabase(JSONObject values) {
+	/**
+	 * Parse a batch of figures, {"Figures" : [ {...}, {...}, ... ]} (each figure as the value
+	 * of "Figure" in a document of one figure), handing each figure to the consumer as soon as
+	 * it is read. A document of one figure is a batch of one.
+	 */
+	public void parseFigures(JSONPullReader json, Consumer<ComponentNode> figures) throws ParseException
+	{
+		boolean found = false;
 
-		JSONArray points = values.getJSONArray("Points");
-		
-		ArrayList<PointNode> pointList = new ArrayList<PointNode>();
-		
-		for (Object point : points) { pointList.add(makePointNode(point)); }
+		json.beginObject();
+		while (json.hasNext())
+		{
+			String key = json.nextName();
 
-		return _builder.buildPointDatabaseNode(pointList);
+			if (key.equals(JSON_Constants.JSON_FIGURE)) figures.accept(parseFigure(json));
+
+			else if (key.equals(JSON_Constants.JSON_FIGURE_S))
+			{
+				json.beginArray();
+				while (json.hasNext()) figures.accept(parseFigure(json));
+				json.endArray();
+			}
+
+			else
+			{
+				json.skipValue();
+				continue;
+			}
+			found = true;
+		}
+		json.endObject();
 
+		if (!found) error("no " + JSON_Constants.JSON_FIGURE_S + " or " + JSON_Constants.JSON_FIGURE);
+		if (json.peek() != JSONPullReader.Token.END_DOCUMENT) error("unexpected content after the figures (line " + json.getLine() + ")");
 	}
 
-	// makes and returns a PointNode from a given dictionary 
-	private PointNode makePointNode(Object point) {
+	/**
+	 * @return the figures of a batch document (in order)
+	 */
+	public List<ComponentNode> parseFigures(String str) throws ParseException
+	{
+		List<ComponentNode> figures = new ArrayList<ComponentNode>();
+		parseFigures(new JSONPullReader(new StringReader(str)), figures::add);
 
-		String name = "";
-		String x = "";
-		String y = "";
+		return figures;
+	}
 
-		String p_str = point.toString();
-		int count = 0;
+	// parses the members of a figure (in any order)
+	private ComponentNode parseFigure(JSONPullReader json) {
 
-		// finds the name, x, and y value from the point's String
-		for(int i = 0; i < p_str.length(); i++) {
+		String description = null;
+		PointNodeDatabase pnd = null;
+		SegmentNodeDatabase snd = null;
 
-			char character = p_str.charAt(i);
+		boolean hasPoints = false;
+		boolean hasSegments = false;
 
-			if(character == ':') {
+		// the (head, tail) names of segments listed before the points
+		List<String> pending = null;
 
-				// found name 
-				if (count == 0) {
-					name = p_str.substring(i + 2, i + 3);
-					count = count + 1;
-				}
+		json.beginObject();
+		while (json.hasNext()) {
 
-				// found x
-				else if(count == 1) {
-					char sep = ',';
-					int sepIndex = p_str.indexOf(sep, i + 1);
-					x = p_str.substring(i + 1, sepIndex);
-					count = count + 1;
-				}
+			String key = json.nextName();
 
-				// found y 
-				else if(count == 2) {
-					char sep = '}';
-					int sepIndex = p_str.indexOf(sep, i + 1);
-					y = p_str.substring(i + 1, sepIndex);
-					count = count + 1;
-				}
-			}	
+			if (key.equals(JSON_Constants.JSON_DESCRIPTION)) description = json.nextString();
+
+			else if (key.equals(JSON_Constants.JSON_POINT_S)) {
+				pnd = getPointNodeDatabase(json);
+				hasPoints = true;
+			}
+
+			else if (key.equals(JSON_Constants.JSON_SEGMENTS)) {
+				snd = _builder.buildSegmentNodeDatabase();
+				hasSegments = true;
+				if (!hasPoints) pending = new ArrayList<String>();
+
+				getSegmentNodeDatabase(json, pnd, snd, pending);
+			}
+
+			else json.skipValue();
+		}
+		json.endObject();
+
+		if (description == null || !hasPoints || !hasSegments) {
+			error("File is incorrecly formatted.");
 		}
 
-		return _builder.buildPointNode(name, Double.parseDouble(x), Double.parseDouble(y));
+		// resolve the segments read before the points
+		if (pending != null) {
+			for (int i = 0; i < pending.size(); i += 2) addSegment(pnd, snd, pending.get(i), pending.get(i + 1));
+		}
+
+		// return FigureNode with input data 
+		return _builder.buildFigureNode(description, pnd, snd);
 	}
 
-	// returns a SegmentNodeDatabase from the given JSON object 
-	private SegmentNodeDatabase getSegmentNodeDatabase(JSONObject values, PointNodeDatabase pnd) {
+	// makes and returns a PointNodeDatabase from an array of points
+	private PointNodeDatabase getPointNodeDatabase(JSONPullReader json) {
 
-		JSONArray segments = values.getJSONArray("Segments");
-		SegmentNodeDatabase snd  = _builder.buildSegmentNodeDatabase();
+		ArrayList<PointNode> pointList = new ArrayList<PointNode>();
 
-		// adds all segments to the SegmentNodeDatabase 
-		for(Object segment : segments) {
-			makeSegmentNodeDatabase(segment, pnd, snd);
-		}
+		json.beginArray();
+		while (json.hasNext()) { pointList.add(makePointNode(json)); }
+		json.endArray();
 
-		return snd;
+		return _builder.buildPointDatabaseNode(pointList);
 	}
 
-	// adds segments from a dictionary to a given SegmentNodeDatabase 
-	private void makeSegmentNodeDatabase(Object segment, PointNodeDatabase points, SegmentNodeDatabase snd) {
+	// makes and returns a PointNode from a point object: its name, x, and y (in any order)
+	private PointNode makePointNode(JSONPullReader json) {
 
-		if(segment == null) return;
-		
-		if(points == null) return;
-		
-		if(snd == null) return;
-		
-		String s_str = segment.toString();
+		String name = null;
+		double x = Double.NaN;
+		double y = Double.NaN;
 
-		// get the head PointNode
-		String headName = s_str.substring(2, 3);
-		PointNode head = points.getPoint(headName);
+		json.beginObject();
+		while (json.hasNext()) {
 
-		// find all tail PointNodes and add the segments 
-		for(int i = 5; i < s_str.length(); i++) {
+			String key = json.nextName();
 
-			char character = s_str.charAt(i);
+			if (key.equals(JSON_Constants.JSON_NAME)) name = json.nextString();
+			else if (key.equals(JSON_Constants.JSON_X)) x = json.nextDouble();
+			else if (key.equals(JSON_Constants.JSON_Y)) y = json.nextDouble();
+			else json.skipValue();
+		}
+		json.endObject();
 
-			if(character == '"') {
+		if (name == null || Double.isNaN(x) || Double.isNaN(y)) error("a point needs a name, x, and y (line " + json.getLine() + ")");
 
-				// get the tail PointNode
-				String tailName = s_str.substring(i + 1, i + 2);
-				PointNode tail = points.getPoint(tailName);
+		return _builder.buildPointNode(name, x, y);
+	}
 
-				// add the head/tail pairing to the SegmentNodeDatabase
-				_builder.addSegmentToDatabase(snd, head, tail);
+	// adds the segments to a given SegmentNodeDatabase: an array of adjacency lists
+	// {"A" : ["B", "C"]}, or one object of adjacency lists (as written by ToJSONVisitor)
+	private void getSegmentNodeDatabase(JSONPullReader json, PointNodeDatabase pnd, SegmentNodeDatabase snd, List<String> pending) {
 
-				i += 2;
-			}
+		if (json.peek() == JSONPullReader.Token.BEGIN_OBJECT) {
+			makeSegmentNodeDatabase(json, pnd, snd, pending);
+			return;
 		}
+
+		json.beginArray();
+		while (json.hasNext()) { makeSegmentNodeDatabase(json, pnd, snd, pending); }
+		json.endArray();
 	}
-	
-	public ComponentNode parse(JSONObject JSONroot) throws ParseException
-	{
-		// Parsing is accomplished via the JSONTokenizer class.
-		
-		String description;
-		PointNodeDatabase pnd;
-		SegmentNodeDatabase snd;
-		
-		// parse elements from input JSONroot 
-		try {
-			JSONObject values = JSONroot.getJSONObject("Figure");
-			description = values.getString("Description");
-			pnd = getPointNodeDatabase(values);
-			snd = getSegmentNodeDatabase(values, pnd);
+
+	// adds the segments of the adjacency lists of an object to a given SegmentNodeDatabase
+	private void makeSegmentNodeDatabase(JSONPullReader json, PointNodeDatabase pnd, SegmentNodeDatabase snd, List<String> pending) {
+
+		json.beginObject();
+		while (json.hasNext()) {
+
+			String head = json.nextName();
+
+			json.beginArray();
+			while (json.hasNext()) {
+
+				String tail = json.nextString();
+
+				if (pending == null) addSegment(pnd, snd, head, tail);
+				else {
+					pending.add(head);
+					pending.add(tail);
+				}
+			}
+			json.endArray();
 		}
-		
-		catch(JSONException e) { throw new ParseException("File is incorrecly formatted."); }
-		
-		// return FigureNode with input data 
-		return _builder.buildFigureNode(description, pnd, snd);
+		json.endObject();
 	}
-	
-	
 
-}
\ No newline at end of file
+	// add the head/tail pairing to the SegmentNodeDatabase
+	private void addSegment(PointNodeDatabase points, SegmentNodeDatabase snd, String headName, String tailName) {
+
+		// (the default builder builds no databases)
+		if (points == null || snd == null) return;
+
+		PointNode head = points.getPoint(headName);
+		PointNode tail = points.getPoint(tailName);
+
+		if (head == null) error("segment from an undefined point " + headName);
+		if (tail == null) error("segment to an undefined point " + tailName);
+
+		_builder.addSegmentToDatabase(snd, head, tail);
+	}
+}
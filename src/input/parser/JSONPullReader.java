@@ -0,0 +1,489 @@
+package input.parser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import input.exception.ParseException;
+
+/**
+ * A pull tokenizer for JSON: the caller walks the document one token at a time
+ *
+ *     reader.beginObject();
+ *     while (reader.hasNext())
+ *     {
+ *         String key = reader.nextName();
+ *         ...
+ *     }
+ *     reader.endObject();
+ *
+ * reading its input (a Reader, or UTF-8 bytes in a ByteBuffer) through a fixed-size
+ * buffer: no tree of the document is built, and only the current token is held.
+ *
+ * Errors (malformed input, an unexpected token, an I/O failure) are ParseExceptions.
+ */
+public class JSONPullReader
+{
+	public enum Token { BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT }
+
+	private static final int BUFFER = 8192;
+
+	private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15 };
+
+	// the input: a Reader, or bytes decoded through _decoder
+	private final Reader _reader;
+	private final ByteBuffer _bytes;
+	private final CharsetDecoder _decoder;
+
+	private final char[] _buffer;
+	private int _position;
+	private int _limit;
+
+	private int _line;
+
+	// the nesting of the containers (true: an object), and whether each has an element yet
+	private boolean[] _objects;
+	private boolean[] _started;
+	private int _depth;
+
+	// an object key has been read, its value has not
+	private boolean _afterName;
+
+	// the token peeked (null if none)
+	private Token _peeked;
+
+	// the text of the current string or number token (reused)
+	private final StringBuilder _text;
+
+	// the names read lately, by hash of their text (the keys of objects repeat)
+	private final String[] _names;
+
+	public JSONPullReader(Reader reader)
+	{
+		this(reader, null);
+	}
+
+	/**
+	 * @param bytes -- UTF-8 encoded JSON, read from its position to its limit
+	 */
+	public JSONPullReader(ByteBuffer bytes)
+	{
+		this(null, bytes);
+	}
+
+	private JSONPullReader(Reader reader, ByteBuffer bytes)
+	{
+		_reader = reader;
+		_bytes = bytes;
+		_decoder = bytes == null ? null : StandardCharsets.UTF_8.newDecoder()
+				                                               .onMalformedInput(CodingErrorAction.REPORT)
+				                                               .onUnmappableCharacter(CodingErrorAction.REPORT);
+
+		_buffer = new char[BUFFER];
+		_line = 1;
+
+		_objects = new boolean[16];
+		_started = new boolean[16];
+
+		_text = new StringBuilder();
+		_names = new String[64];
+	}
+
+	/**
+	 * @return the kind of the next token (without consuming it)
+	 */
+	public Token peek()
+	{
+		if (_peeked != null) return _peeked;
+
+		int c = nextNonWhitespace();
+
+		// inside a container: the separator (or the end) comes first
+		if (_depth > 0 && !_afterName)
+		{
+			boolean object = _objects[_depth - 1];
+
+			if (c == (object ? '}' : ']'))
+			{
+				unread(c);
+				return _peeked = object ? Token.END_OBJECT : Token.END_ARRAY;
+			}
+
+			if (_started[_depth - 1])
+			{
+				if (c != ',') throw error("expected ',' or '" + (object ? '}' : ']') + "'", c);
+				c = nextNonWhitespace();
+			}
+
+			if (object)
+			{
+				if (c != '"') throw error("expected a name", c);
+
+				unread(c);
+				return _peeked = Token.NAME;
+			}
+		}
+		else if (_afterName)
+		{
+			if (c != ':') throw error("expected ':'", c);
+			c = nextNonWhitespace();
+		}
+
+		switch (c)
+		{
+			case -1:  if (_depth > 0 || _afterName) throw error("unexpected end of input", c);
+			          return _peeked = Token.END_DOCUMENT;
+			case '{': unread(c); return _peeked = Token.BEGIN_OBJECT;
+			case '[': unread(c); return _peeked = Token.BEGIN_ARRAY;
+			case '"': unread(c); return _peeked = Token.STRING;
+			case 't':
+			case 'f': unread(c); return _peeked = Token.BOOLEAN;
+			case 'n': unread(c); return _peeked = Token.NULL;
+			default:
+				if (c == '-' || (c >= '0' && c <= '9'))
+				{
+					unread(c);
+					return _peeked = Token.NUMBER;
+				}
+				throw error("unexpected character", c);
+		}
+	}
+
+	public void beginObject() { begin(Token.BEGIN_OBJECT, true); }
+	public void beginArray()  { begin(Token.BEGIN_ARRAY, false); }
+
+	public void endObject() { end(Token.END_OBJECT); }
+	public void endArray()  { end(Token.END_ARRAY); }
+
+	/**
+	 * @return true if the current object or array has another element
+	 */
+	public boolean hasNext()
+	{
+		Token token = peek();
+
+		return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+	}
+
+	public String nextName()
+	{
+		expect(Token.NAME);
+
+		readText();
+		_afterName = true;
+
+		// reuse the String of a name read before
+		int hash = 0;
+		for (int k = 0; k < _text.length(); k++) hash = 31 * hash + _text.charAt(k);
+
+		int slot = (hash ^ (hash >>> 16)) & (_names.length - 1);
+		if (_names[slot] == null || !_names[slot].contentEquals(_text)) _names[slot] = _text.toString();
+
+		return _names[slot];
+	}
+
+	public String nextString()
+	{
+		expect(Token.STRING);
+
+		String value = readString();
+		consumed();
+
+		return value;
+	}
+
+	public double nextDouble()
+	{
+		expect(Token.NUMBER);
+
+		double value = readNumber();
+		consumed();
+
+		return value;
+	}
+
+	public boolean nextBoolean()
+	{
+		expect(Token.BOOLEAN);
+
+		boolean value = read() == 't';
+		readLiteral(value ? "rue" : "alse");
+		consumed();
+
+		return value;
+	}
+
+	public void nextNull()
+	{
+		expect(Token.NULL);
+
+		read();
+		readLiteral("ull");
+		consumed();
+	}
+
+	/**
+	 * Skip the next value (a nested object or array as a whole).
+	 */
+	public void skipValue()
+	{
+		switch (peek())
+		{
+			case BEGIN_OBJECT:
+				beginObject();
+				while (hasNext())
+				{
+					nextName();
+					skipValue();
+				}
+				endObject();
+				break;
+
+			case BEGIN_ARRAY:
+				beginArray();
+				while (hasNext()) skipValue();
+				endArray();
+				break;
+
+			case STRING:  nextString(); break;
+			case NUMBER:  nextDouble(); break;
+			case BOOLEAN: nextBoolean(); break;
+			case NULL:    nextNull(); break;
+
+			default: throw error("expected a value", -1);
+		}
+	}
+
+	/**
+	 * @return the (1-based) line of the input being read
+	 */
+	public int getLine() { return _line; }
+
+	private void begin(Token token, boolean object)
+	{
+		expect(token);
+		read();
+
+		if (_depth == _objects.length)
+		{
+			_objects = Arrays.copyOf(_objects, 2 * _depth);
+			_started = Arrays.copyOf(_started, 2 * _depth);
+		}
+		_objects[_depth] = object;
+		_started[_depth] = false;
+		_depth++;
+
+		_afterName = false;
+	}
+
+	private void end(Token token)
+	{
+		expect(token);
+		read();
+
+		_depth--;
+		consumed();
+	}
+
+	private void expect(Token token)
+	{
+		if (peek() != token) throw error("expected " + token + " but found " + _peeked, -1);
+
+		_peeked = null;
+	}
+
+	/**
+	 * A value was read: it is an element of the enclosing container.
+	 */
+	private void consumed()
+	{
+		_afterName = false;
+		if (_depth > 0) _started[_depth - 1] = true;
+	}
+
+	private String readString()
+	{
+		readText();
+
+		return _text.toString();
+	}
+
+	/**
+	 * Read a string token into _text.
+	 */
+	private void readText()
+	{
+		// the opening quote
+		read();
+
+		StringBuilder value = _text;
+		value.setLength(0);
+
+		for (int c = read(); c != '"'; c = read())
+		{
+			if (c == -1 || c == '\n') throw error("unterminated string", c);
+
+			if (c == '\\')
+			{
+				c = read();
+				switch (c)
+				{
+					case 'b': c = '\b'; break;
+					case 'f': c = '\f'; break;
+					case 'n': c = '\n'; break;
+					case 'r': c = '\r'; break;
+					case 't': c = '\t'; break;
+					case 'u': c = readHex(); break;
+					case '"':
+					case '\\':
+					case '/': break;
+					default: throw error("invalid escape", c);
+				}
+			}
+			value.append((char)c);
+		}
+	}
+
+	private int readHex()
+	{
+		int value = 0;
+		for (int k = 0; k < 4; k++)
+		{
+			int digit = Character.digit(read(), 16);
+			if (digit < 0) throw error("invalid \\u escape", -1);
+
+			value = 16 * value + digit;
+		}
+
+		return value;
+	}
+
+	private double readNumber()
+	{
+		_text.setLength(0);
+
+		// a plain decimal of at most 15 digits is exactly its digits (a long) over a power of ten
+		// (a double): one division gives the correctly rounded value, without parseDouble
+		boolean plain = true;
+		long digits = 0;
+		int count = 0;
+		int scale = -1;
+
+		for (int c = read(); ; c = read())
+		{
+			if (c >= '0' && c <= '9')
+			{
+				digits = 10 * digits + (c - '0');
+				count++;
+				if (scale >= 0) scale++;
+			}
+			else if (c == '.' && scale < 0) scale = 0;
+			else if (c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-')
+			{
+				// (but for a leading sign)
+				if (c != '-' || _text.length() > 0) plain = false;
+			}
+			else
+			{
+				unread(c);
+				break;
+			}
+			_text.append((char)c);
+		}
+
+		if (count == 0) throw error("invalid number", -1);
+
+		if (plain && count <= 15 && scale != 0)
+		{
+			double value = scale < 0 ? digits : digits / POWERS_OF_TEN[scale];
+
+			return _text.charAt(0) == '-' ? -value : value;
+		}
+
+		try { return Double.parseDouble(_text.toString()); }
+		catch (NumberFormatException e) { throw error("invalid number " + _text, -1); }
+	}
+
+	private void readLiteral(String rest)
+	{
+		for (int k = 0; k < rest.length(); k++)
+		{
+			int c = read();
+			if (c != rest.charAt(k)) throw error("invalid literal", c);
+		}
+	}
+
+	/**
+	 * Push back the character just read (so it is read again).
+	 */
+	private void unread(int c)
+	{
+		if (c == -1) return;
+
+		_position--;
+		if (c == '\n') _line--;
+	}
+
+	private int nextNonWhitespace()
+	{
+		for (int c = read(); ; c = read())
+		{
+			if (c != ' ' && c != '\t' && c != '\n' && c != '\r') return c;
+		}
+	}
+
+	/**
+	 * @return the next character; -1 at the end of the input
+	 */
+	private int read()
+	{
+		if (_position == _limit && !fill()) return -1;
+
+		char c = _buffer[_position++];
+		if (c == '\n') _line++;
+
+		return c;
+	}
+
+	private boolean fill()
+	{
+		// keep the last character read, so it can be pushed back
+		_buffer[0] = _position > 0 ? _buffer[_position - 1] : 0;
+		_position = 1;
+		_limit = 1;
+
+		try
+		{
+			int count = _reader != null ? _reader.read(_buffer, 1, BUFFER - 1) : decode();
+			if (count <= 0) return false;
+
+			_limit += count;
+			return true;
+		}
+		catch (IOException e) { throw new ParseException("Parse error: cannot read the input", e); }
+	}
+
+	private int decode() throws CharacterCodingException
+	{
+		CharBuffer chars = CharBuffer.wrap(_buffer, 1, BUFFER - 1);
+
+		CoderResult result = _decoder.decode(_bytes, chars, true);
+		if (result.isError()) result.throwException();
+
+		return chars.position() - 1;
+	}
+
+	private ParseException error(String message, int c)
+	{
+		String found = c == -1 ? "" : " '" + (char)c + "'";
+
+		return new ParseException("Parse error: " + message + found + " (line " + _line + ")");
+	}
+}
@@ -0,0 +1,149 @@
+package input.visitor;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import input.components.FigureNode;
+import input.components.point.PointNode;
+import input.components.point.PointNodeDatabase;
+import input.components.segment.SegmentNode;
+import input.components.segment.SegmentNodeDatabase;
+import input.parser.Binary_Constants;
+
+/**
+ * Writes a figure in the binary figure format (see Binary_Constants) to a stream.
+ * Visiting a figure returns the number of bytes written.
+ */
+public class ToBinaryVisitor implements ComponentNodeVisitor {
+
+	private final DataOutputStream _out;
+
+	// the id of each point: its index in the point table
+	private final Map<PointNode, Integer> _ids;
+
+	public ToBinaryVisitor(OutputStream out) {
+		_out = new DataOutputStream(out);
+		_ids = new HashMap<PointNode, Integer>();
+	}
+
+	public Object visitFigureNode(FigureNode node, Object o)
+	{
+		try {
+			_out.writeInt(Binary_Constants.MAGIC);
+			_out.writeShort(Binary_Constants.VERSION);
+			writeString(node.getDescription());
+
+			node.getPointsDatabase().accept(this, null);
+			node.getSegments().accept(this, null);
+
+			_out.flush();
+		}
+		catch (IOException e) { throw new UncheckedIOException(e); }
+
+		return _out.size();
+	}
+
+	@Override
+	public Object visitPointNodeDatabase(PointNodeDatabase node, Object o) {
+
+		Set<PointNode> points = node.getPoints();
+
+		try {
+			_out.writeInt(points.size());
+
+			// the names, then the coordinates (packed)
+			for (PointNode point : points) {
+				_ids.put(point, _ids.size());
+				writeString(point.getName());
+			}
+			for (PointNode point : points) point.accept(this, null);
+		}
+		catch (IOException e) { throw new UncheckedIOException(e); }
+
+		return null;
+	}
+
+	@Override
+	public Object visitPointNode(PointNode node, Object o) {
+
+		try {
+			_out.writeDouble(node.getX());
+			_out.writeDouble(node.getY());
+		}
+		catch (IOException e) { throw new UncheckedIOException(e); }
+
+		return null;
+	}
+
+	@Override
+	public Object visitSegmentDatabaseNode(SegmentNodeDatabase node, Object o) {
+
+		// each segment once: under its endpoint of lower id
+		Map<Integer, List<Integer>> lists = new HashMap<Integer, List<Integer>>();
+		List<Integer> heads = new ArrayList<Integer>();
+
+		for (Map.Entry<PointNode, Set<PointNode>> entry : node.getAdjLists().entrySet()) {
+
+			int head = id(entry.getKey());
+
+			for (PointNode tail : entry.getValue()) {
+
+				int other = id(tail);
+				if (other <= head) continue;
+
+				List<Integer> tails = lists.get(head);
+				if (tails == null) {
+					tails = new ArrayList<Integer>();
+					lists.put(head, tails);
+					heads.add(head);
+				}
+				tails.add(other);
+			}
+		}
+
+		try {
+			_out.writeInt(heads.size());
+			for (int head : heads) {
+
+				List<Integer> tails = lists.get(head);
+
+				_out.writeInt(head);
+				_out.writeInt(tails.size());
+				for (int tail : tails) _out.writeInt(tail);
+			}
+		}
+		catch (IOException e) { throw new UncheckedIOException(e); }
+
+		return null;
+	}
+
+	@Override
+	public Object visitSegmentNode(SegmentNode node, Object o) {
+
+		return null;
+	}
+
+	private int id(PointNode point) {
+
+		Integer id = _ids.get(point);
+		if (id == null) throw new IllegalArgumentException("a segment endpoint not in the points: " + point);
+
+		return id;
+	}
+
+	private void writeString(String s) throws IOException {
+
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+
+		_out.writeInt(bytes.length);
+		_out.write(bytes);
+	}
+}
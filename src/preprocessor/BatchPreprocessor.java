@@ -0,0 +1,130 @@
+package preprocessor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import geometry_objects.Segment;
+import geometry_objects.points.PointDatabase;
+import input.InputFacade;
+import input.components.FigureNode;
+
+/**
+ * Preprocesses batches of (typically small) figures on a pool of worker threads:
+ * each figure is converted (InputFacade.toGeometryRepresentation) and analyzed by
+ * its own Preprocessor, in a task of its own.
+ *
+ * Figures are independent (no state is shared between preprocessors), so the batch
+ * scales with the workers. The results are returned in input order: the tasks are
+ * collected in the order they were submitted, whatever order they finish in.
+ *
+ * A batch file is parsed on the calling thread while the workers preprocess the
+ * figures already read. With a cache, a figure preprocessed before is loaded instead.
+ */
+public class BatchPreprocessor
+{
+	protected final ExecutorService _pool;
+
+	// null: every figure is analyzed
+	protected final PreprocessorCache _cache;
+
+	/**
+	 * A batch preprocessor on the common ForkJoinPool.
+	 */
+	public BatchPreprocessor()
+	{
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * @param pool -- the workers (not shut down by the batch preprocessor)
+	 */
+	public BatchPreprocessor(ExecutorService pool)
+	{
+		this(pool, null);
+	}
+
+	/**
+	 * @param pool -- the workers (not shut down by the batch preprocessor)
+	 * @param cache -- the results of figures preprocessed before
+	 */
+	public BatchPreprocessor(ExecutorService pool, PreprocessorCache cache)
+	{
+		_pool = pool;
+		_cache = cache;
+	}
+
+	/**
+	 * @return the preprocessor of each figure, in input order
+	 */
+	public List<Preprocessor> preprocess(List<FigureNode> figures)
+	{
+		List<Future<Preprocessor>> tasks = new ArrayList<Future<Preprocessor>>(figures.size());
+		for (FigureNode figure : figures) tasks.add(submit(figure));
+
+		return join(tasks);
+	}
+
+	/**
+	 * @param filepath -- a batch JSON file ("Figures")
+	 * @return the preprocessor of each figure, in file order
+	 */
+	public List<Preprocessor> preprocess(String filepath)
+	{
+		List<Future<Preprocessor>> tasks = new ArrayList<Future<Preprocessor>>();
+		InputFacade.extractFigures(filepath, (figure) -> tasks.add(submit(figure)));
+
+		return join(tasks);
+	}
+
+	/**
+	 * The work on one figure (run by a worker).
+	 */
+	protected Preprocessor preprocess(FigureNode figure)
+	{
+		if (_cache != null) return _cache.preprocess(figure);
+
+		Map.Entry<PointDatabase, Set<Segment>> pair = InputFacade.toGeometryRepresentation(figure);
+
+		return new Preprocessor(pair.getKey(), pair.getValue());
+	}
+
+	private Future<Preprocessor> submit(FigureNode figure)
+	{
+		return _pool.submit(() -> preprocess(figure));
+	}
+
+	/**
+	 * Wait for the tasks in order; a failure of a task is rethrown (the first, in input order).
+	 */
+	private static List<Preprocessor> join(List<Future<Preprocessor>> tasks)
+	{
+		List<Preprocessor> results = new ArrayList<Preprocessor>(tasks.size());
+
+		try
+		{
+			for (Future<Preprocessor> task : tasks) results.add(task.get());
+		}
+		catch (InterruptedException e)
+		{
+			tasks.forEach((task) -> task.cancel(true));
+			Thread.currentThread().interrupt();
+
+			throw new IllegalStateException("interrupted while preprocessing a batch", e);
+		}
+		catch (ExecutionException e)
+		{
+			tasks.forEach((task) -> task.cancel(true));
+
+			if (e.getCause() instanceof RuntimeException) throw (RuntimeException)e.getCause();
+			throw new IllegalStateException(e.getCause());
+		}
+
+		return results;
+	}
+}
@@ -0,0 +1,364 @@
+package preprocessor;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+import preprocessor.delegates.CollinearGrouping;
+import preprocessor.delegates.LineKey;
+import utilities.math.MathUtilities;
+
+/**
+ * A segment database (key == value) that stores only the collinear chains of
+ * the figure rather than every segment:
+ *
+ *                A-------B-------C------D
+ *
+ * is stored as the ordered points [A, B, C, D]; its six segments AB, AC, AD, BC,
+ * BD, CD are generated on demand. A chain of k points thus costs O(k) memory
+ * instead of O(k^2) Segment objects.
+ *
+ * Lookups hash the line of the segment to its chains and binary search each
+ * endpoint along the chain. The map itself is read-only; chains of a line are
+ * replaced through replaceChains().
+ *
+ * Note: every pair of points in a chain is a segment; for (degenerate) overlapping
+ * collinear given segments this includes the pieces between their endpoints.
+ */
+public class LazySegmentDatabase extends AbstractMap<Segment, Segment>
+{
+	/**
+	 * The ordered points of one chain, located along the chain's direction:
+	 * point i lies at  origin + _offsets[i] * direction
+	 */
+	protected static class Chain
+	{
+		final Point[] _points;
+		final double[] _offsets;
+		final double _originX, _originY;
+		final double _directionX, _directionY;
+
+		Chain(Collection<Segment> group)
+		{
+			Segment first = group.iterator().next();
+			_originX = first.getPoint1().getX();
+			_originY = first.getPoint1().getY();
+
+			double dx = first.getPoint2().getX() - _originX;
+			double dy = first.getPoint2().getY() - _originY;
+			double length = Math.hypot(dx, dy);
+
+			// point in the direction of increasing (lexicographic) order
+			double sign = (dx > MathUtilities.EPSILON || (dx >= -MathUtilities.EPSILON && dy > 0)) ? 1 : -1;
+			_directionX = sign * dx / length;
+			_directionY = sign * dy / length;
+
+			List<Point> points = new ArrayList<Point>();
+			for (Segment segment : group)
+			{
+				points.add(segment.getPoint1());
+				points.add(segment.getPoint2());
+			}
+			points.sort((p, q) -> Double.compare(offset(p), offset(q)));
+
+			// drop the repeated shared vertices
+			List<Point> distinct = new ArrayList<Point>();
+			for (Point point : points)
+			{
+				if (distinct.isEmpty() || !distinct.get(distinct.size() - 1).equals(point)) distinct.add(point);
+			}
+
+			_points = distinct.toArray(new Point[0]);
+			_offsets = new double[_points.length];
+			for (int i = 0; i < _points.length; i++) _offsets[i] = offset(_points[i]);
+		}
+
+		double offset(Point p)
+		{
+			return (p.getX() - _originX) * _directionX + (p.getY() - _originY) * _directionY;
+		}
+
+		/**
+		 * @return the index of the chain point equal to p; -1 if p is not in this chain
+		 */
+		int indexOf(Point p)
+		{
+			int index = Arrays.binarySearch(_offsets, offset(p));
+			if (index < 0) index = -index - 1;
+
+			// the binary search lands next to any point within EPSILON
+			for (int i = Math.max(0, index - 1); i <= Math.min(_points.length - 1, index); i++)
+			{
+				if (_points[i].equals(p)) return i;
+			}
+
+			return -1;
+		}
+
+		long segmentCount() { return (long)_points.length * (_points.length - 1) / 2; }
+	}
+
+	protected final Map<LineKey, List<Chain>> _chainsByLine;
+	protected long _size;
+	protected long _minimalSize;
+
+	public LazySegmentDatabase()
+	{
+		_chainsByLine = new LinkedHashMap<LineKey, List<Chain>>();
+	}
+
+	/**
+	 * @param groups -- minimal segments grouped into collinear, contiguous groups
+	 */
+	public LazySegmentDatabase(Collection<? extends Collection<Segment>> groups)
+	{
+		this();
+
+		for (Collection<Segment> group : groups)
+		{
+			LineKey key = CollinearGrouping.findKey(LineKey.of(group.iterator().next()), _chainsByLine);
+
+			addChain(_chainsByLine.computeIfAbsent(key, (k) -> new ArrayList<Chain>()), new Chain(group));
+		}
+	}
+
+	/**
+	 * Replace some chains of a line.
+	 *
+	 * @param key -- the key of the line (as bucketed by CollinearGrouping)
+	 * @param old -- the groups of the chains replaced (a chain is found by a segment of its group)
+	 * @param groups -- the minimal segments of the new chains grouped into contiguous groups
+	 */
+	public void replaceChains(LineKey key, Collection<? extends Collection<Segment>> old,
+			                  Collection<? extends Collection<Segment>> groups)
+	{
+		List<Chain> chains = _chainsByLine.get(key);
+
+		for (Collection<Segment> group : old)
+		{
+			Location location = locate(chains, group.iterator().next());
+			if (location == null) continue;
+
+			chains.remove(location._chain);
+			_size -= location._chain.segmentCount();
+			_minimalSize -= location._chain._points.length - 1;
+		}
+
+		if (chains != null && chains.isEmpty()) _chainsByLine.remove(key);
+
+		for (Collection<Segment> group : groups)
+		{
+			addChain(_chainsByLine.computeIfAbsent(key, (k) -> new ArrayList<Chain>()), new Chain(group));
+		}
+	}
+
+	private void addChain(List<Chain> chains, Chain chain)
+	{
+		chains.add(chain);
+
+		_size += chain.segmentCount();
+		_minimalSize += chain._points.length - 1;
+	}
+
+	private static int clamp(long size) { return (int)Math.min(Integer.MAX_VALUE, size); }
+
+	/**
+	 * The position of a segment within a chain: (chain[i], chain[j]) with i < j
+	 */
+	protected static class Location
+	{
+		final Chain _chain;
+		final int _i;
+		final int _j;
+
+		Location(Chain chain, int i, int j)
+		{
+			_chain = chain;
+			_i = Math.min(i, j);
+			_j = Math.max(i, j);
+		}
+
+		Segment toSegment() { return new Segment(_chain._points[_i], _chain._points[_j]); }
+	}
+
+	/**
+	 * @return the position of the segment among the chains; null if the segment is not in the database
+	 */
+	protected Location locate(Segment segment)
+	{
+		LineKey key = LineKey.of(segment);
+
+		Location found = locate(_chainsByLine.get(key), segment);
+		if (found != null) return found;
+
+		for (LineKey neighbor : key.neighbors())
+		{
+			found = locate(_chainsByLine.get(neighbor), segment);
+			if (found != null) return found;
+		}
+
+		return null;
+	}
+
+	private Location locate(List<Chain> chains, Segment segment)
+	{
+		if (chains == null) return null;
+
+		for (Chain chain : chains)
+		{
+			int i = chain.indexOf(segment.getPoint1());
+			if (i < 0) continue;
+
+			int j = chain.indexOf(segment.getPoint2());
+			if (j < 0 || i == j) continue;
+
+			return new Location(chain, i, j);
+		}
+
+		return null;
+	}
+
+	@Override
+	public boolean containsKey(Object key)
+	{
+		if (!(key instanceof Segment)) return false;
+
+		return locate((Segment)key) != null;
+	}
+
+	@Override
+	public Segment get(Object key)
+	{
+		if (!(key instanceof Segment)) return null;
+
+		Location location = locate((Segment)key);
+
+		return location == null ? null : location.toSegment();
+	}
+
+	@Override
+	public int size() { return clamp(_size); }
+
+	@Override
+	public Set<Map.Entry<Segment, Segment>> entrySet()
+	{
+		return new AbstractSet<Map.Entry<Segment, Segment>>()
+		{
+			@Override
+			public Iterator<Map.Entry<Segment, Segment>> iterator()
+			{
+				Iterator<Segment> segments = new SubsegmentIterator(1);
+
+				return new Iterator<Map.Entry<Segment, Segment>>()
+				{
+					public boolean hasNext() { return segments.hasNext(); }
+
+					public Map.Entry<Segment, Segment> next()
+					{
+						Segment segment = segments.next();
+						return new AbstractMap.SimpleImmutableEntry<Segment, Segment>(segment, segment);
+					}
+				};
+			}
+
+			@Override
+			public int size() { return clamp(_size); }
+		};
+	}
+
+	/**
+	 * @return a view of the non-minimal segments: those spanning at least two consecutive chain points
+	 */
+	public Set<Segment> nonMinimalSegments()
+	{
+		return new AbstractSet<Segment>()
+		{
+			@Override
+			public Iterator<Segment> iterator() { return new SubsegmentIterator(2); }
+
+			@Override
+			public boolean contains(Object o)
+			{
+				if (!(o instanceof Segment)) return false;
+
+				Location location = locate((Segment)o);
+				return location != null && location._j - location._i >= 2;
+			}
+
+			@Override
+			public int size() { return clamp(_size - _minimalSize); }
+		};
+	}
+
+	/**
+	 * Generates the segments (chain[i], chain[j]) with j - i >= minimum span, chain by chain.
+	 */
+	private class SubsegmentIterator implements Iterator<Segment>
+	{
+		private final List<Chain> _chains;
+		private final int _minimumSpan;
+		private int _chain;
+		private int _i;
+		private int _j;
+
+		SubsegmentIterator(int minimumSpan)
+		{
+			_chains = new ArrayList<Chain>();
+			_chainsByLine.values().forEach(_chains::addAll);
+
+			_minimumSpan = minimumSpan;
+			_chain = 0;
+			_i = 0;
+			_j = minimumSpan;
+			advance();
+		}
+
+		/**
+		 * Move (chain, i, j) forward to the next valid position (if the current one is not).
+		 */
+		private void advance()
+		{
+			while (_chain < _chains.size())
+			{
+				Point[] points = _chains.get(_chain)._points;
+
+				if (_j < points.length) return;
+
+				_i++;
+				_j = _i + _minimumSpan;
+
+				if (_j >= points.length)
+				{
+					_chain++;
+					_i = 0;
+					_j = _minimumSpan;
+				}
+			}
+		}
+
+		public boolean hasNext() { return _chain < _chains.size(); }
+
+		public Segment next()
+		{
+			if (!hasNext()) throw new NoSuchElementException();
+
+			Point[] points = _chains.get(_chain)._points;
+			Segment segment = new Segment(points[_i], points[_j]);
+
+			_j++;
+			advance();
+
+			return segment;
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package preprocessor;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+import geometry_objects.points.OffHeapPointStore;
+import utilities.memory.OffHeapArena;
+
+/**
+ * A SegmentTable whose ids live off the heap, in blocks of the arena of its point store.
+ *
+ * The ids are kept in chunks of CHUNK entries:
+ *
+ *     chunk c:  id1(c * CHUNK), id2(c * CHUNK), id1(c * CHUNK + 1), id2(c * CHUNK + 1), ...
+ *
+ * so growing the table allocates new chunks and never copies. Once the arena is
+ * closed, the table is unusable (an access throws IllegalStateException).
+ */
+public class OffHeapSegmentTable extends SegmentTable
+{
+	private static final int CHUNK_SHIFT = 14;
+	private static final int CHUNK = 1 << CHUNK_SHIFT;
+	private static final int CHUNK_MASK = CHUNK - 1;
+
+	protected final OffHeapArena _arena;
+
+	// the arena handles of the chunks
+	protected int[] _chunks;
+	protected int _chunkCount;
+
+	public OffHeapSegmentTable(OffHeapPointStore points)
+	{
+		super(points);
+
+		_arena = points.getArena();
+		_chunks = new int[4];
+
+		// (no on-heap ids)
+		_ids = null;
+	}
+
+	@Override
+	protected int id1(int entry) { return chunk(entry).get(2 * (entry & CHUNK_MASK)); }
+
+	@Override
+	protected int id2(int entry) { return chunk(entry).get(2 * (entry & CHUNK_MASK) + 1); }
+
+	@Override
+	protected void setIds(int entry, int id1, int id2)
+	{
+		IntBuffer chunk = chunk(entry);
+
+		chunk.put(2 * (entry & CHUNK_MASK), id1);
+		chunk.put(2 * (entry & CHUNK_MASK) + 1, id2);
+	}
+
+	private IntBuffer chunk(int entry)
+	{
+		return _arena.ints(_chunks[entry >>> CHUNK_SHIFT]);
+	}
+
+	@Override
+	protected int capacity() { return _chunkCount * CHUNK; }
+
+	@Override
+	protected void growIds(int capacity)
+	{
+		while ((long)_chunkCount * CHUNK < capacity)
+		{
+			if (_chunkCount == _chunks.length) _chunks = Arrays.copyOf(_chunks, 2 * _chunks.length);
+
+			_chunks[_chunkCount++] = _arena.allocateInts(2 * CHUNK);
+		}
+	}
+}
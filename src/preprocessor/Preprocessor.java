@@ -1,20 +1,34 @@
 package preprocessor;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.SortedSet;
 
+import geometry_objects.points.OffHeapPointStore;
 import geometry_objects.points.Point;
 import geometry_objects.points.PointDatabase;
+import geometry_objects.points.PointIndex;
+import geometry_objects.points.PointNamingFactory;
+import geometry_objects.points.PointProbe;
+import geometry_objects.points.PointRegistry;
+import geometry_objects.points.PointStore;
+import preprocessor.delegates.CollinearGrouping;
+import preprocessor.delegates.CrossingIndex;
 import preprocessor.delegates.ImplicitPointPreprocessor;
-import utilities.math.MathUtilities;
+import preprocessor.delegates.LineKey;
+import preprocessor.delegates.SegmentCrossing;
+import preprocessor.delegates.SegmentPointIncidence;
+import geometry_objects.delegates.intersections.IntersectionDelegate;
 import geometry_objects.Segment;
+import utilities.math.MathUtilities;
+import utilities.memory.OffHeapArena;
 
 public class Preprocessor
 {
@@ -30,6 +44,10 @@ public class Preprocessor
 	// at implicit points.
 	protected Set<Point> _implicitPoints;
 
+	// For each given segment, the implicit points found in its interior
+	// (recorded while the implicit points are computed).
+	protected SegmentPointIncidence _incidence;
+
 	// The set of implicitly defined segments resulting from implicit points.
 	protected Set<Segment> _implicitSegments;
 
@@ -47,10 +65,154 @@ public class Preprocessor
 	protected Map<Segment, Segment> _segmentDatabase;
 	public Map<Segment, Segment> getAllSegments() { return _segmentDatabase; }
 
+	// If set, the segment database (and the non-minimal segments) are read-only
+	// views generated from the collinear chains of minimal segments.
+	protected boolean _lazySegments;
+
+	// If set, analyze() interns every point: each point of the figure is a single instance
+	// registered with _registry (so equal points are the same instance; the ids stay in _registry)
+	protected boolean _internPoints;
+	protected PointRegistry _registry;
+
+	// If set, the segments are kept in a compact SegmentTable: the minimal segments are its
+	// entries [0, _minimalEnd), the non-minimal segments the entries from _minimalEnd on, and
+	// the segment database is a view of the whole table (the segments are views created on access)
+	protected boolean _compactSegments;
+	protected SegmentTable _segmentTable;
+	protected int _minimalEnd;
+	public SegmentTable getSegmentTable() { return _segmentTable; }
+	public int getMinimalEnd() { return _minimalEnd; }
+
+	// If set (compact mode), the segment tables live off the heap, in blocks of this arena
+	protected OffHeapArena _arena;
+
+	// The endpoints of the segments of the tables (shared by the tables)
+	protected PointStore _segmentPoints;
+
+	// A spatial index over the minimal segments; built on first use (and again after an edit)
+	protected SegmentRTree _segmentIndex;
+
+	/**
+	 * @return an R-tree over the minimal segments for point-stabbing, window and crossing queries
+	 */
+	public SegmentRTree getSegmentIndex()
+	{
+		if (_segmentIndex == null) _segmentIndex = new SegmentRTree(_allMinimalSegments);
+
+		return _segmentIndex;
+	}
+
+	//
+	// Incremental editing (addSegment, removeSegment, addPoint, removePoint);
+	// built from the analyzed figure on the first edit.
+	//
+	// Every crossing among the given segments, including those at given points
+	protected CrossingIndex _crossings;
+
+	// Names the implicit points created by edits
+	protected PointNamingFactory _namer;
+
+	// The minimal segments each given segment is split into
+	protected Map<Segment, List<Segment>> _pieces;
+
+	// The number of given segments producing each minimal (resp. implicit) segment
+	protected Map<Segment, Integer> _minimalCounts;
+	protected Map<Segment, Integer> _implicitCounts;
+
+	// The number of given segments ending at each point
+	protected Map<Point, Integer> _endpointCounts;
+
+	// The minimal segments of each line by vertex; the number of pairs of minimal segments
+	// (of a common collinear group) spanning each non-minimal segment
+	protected Map<LineKey, Map<Point, List<Segment>>> _minimalByLine;
+	protected Map<Segment, Integer> _nonMinimalCounts;
+
+	// The given segments for the crossing queries of edits: an R-tree, plus the segments
+	// added (resp. removed) since it was built
+	protected SegmentRTree _givenIndex;
+	protected Set<Segment> _givenAdded;
+	protected Set<Segment> _givenRemoved;
+
+	/**
+	 * Where the segments are kept: as Segment objects in hashed collections (HEAP), in
+	 * compact SegmentTables of pairs of point ids (COMPACT), or in such tables off the heap
+	 * (OFF_HEAP; see Options.storage(OffHeapArena))
+	 */
+	public enum Storage { HEAP, COMPACT, OFF_HEAP }
+
+	/**
+	 * The options of a Preprocessor (by default: none set, HEAP storage), e.g.
+	 *
+	 *     new Preprocessor(points, segments, new Preprocessor.Options().lazySegments().storage(Storage.COMPACT))
+	 */
+	public static class Options
+	{
+		protected boolean _lazySegments;
+		protected boolean _internPoints;
+		protected Storage _storage = Storage.HEAP;
+		protected OffHeapArena _arena;
+
+		/**
+		 * getAllSegments() is a lazy view over the collinear chains rather than a
+		 * materialized map of every segment
+		 */
+		public Options lazySegments()
+		{
+			_lazySegments = true;
+			return this;
+		}
+
+		/**
+		 * The points of the figure are interned (see PointRegistry): the stored points of the
+		 * database, the endpoints of the segments and the implicit points are single, registered instances
+		 */
+		public Options internPoints()
+		{
+			_internPoints = true;
+			return this;
+		}
+
+		/**
+		 * @param storage -- HEAP or COMPACT (with lazySegments, COMPACT keeps the minimal and
+		 *                   implicit segments only); OFF_HEAP takes an arena: storage(OffHeapArena)
+		 */
+		public Options storage(Storage storage)
+		{
+			if (storage == Storage.OFF_HEAP) throw new IllegalArgumentException("off-heap storage needs an arena");
+
+			_storage = storage;
+			_arena = null;
+			return this;
+		}
+
+		/**
+		 * @param arena -- the segment tables (as with COMPACT) are stored off the heap, in blocks
+		 *                 of the arena; closing the arena releases them all at once (the
+		 *                 preprocessor is then unusable)
+		 */
+		public Options storage(OffHeapArena arena)
+		{
+			if (arena == null) throw new IllegalArgumentException("no arena");
+
+			_storage = Storage.OFF_HEAP;
+			_arena = arena;
+			return this;
+		}
+	}
+
 	public Preprocessor(PointDatabase points, Set<Segment> segments)
+	{
+		this(points, segments, new Options());
+	}
+
+	public Preprocessor(PointDatabase points, Set<Segment> segments, Options options)
 	{
 		_pointDatabase  = points;
 		_givenSegments = segments;
+		_lazySegments = options._lazySegments;
+		_internPoints = options._internPoints;
+		_compactSegments = options._storage != Storage.HEAP;
+		_arena = options._arena;
 		
 		_segmentDatabase = new HashMap<Segment, Segment>();
 		
@@ -62,13 +224,53 @@ public class Preprocessor
 		analyze();
 	}
 
+	/**
+	 * A preprocessor of a figure analyzed before (see PreprocessorCache): the results
+	 * are taken as they are and analyze() is not run.
+	 */
+	Preprocessor(PointDatabase points, Set<Segment> segments, Set<Point> implicitPoints, Set<Segment> implicitSegments,
+			     Set<Segment> allMinimalSegments, Set<Segment> nonMinimalSegments)
+	{
+		_pointDatabase  = points;
+		_givenSegments = segments;
+
+		_implicitPoints = implicitPoints;
+		_implicitSegments = implicitSegments;
+		_allMinimalSegments = allMinimalSegments;
+		_nonMinimalSegments = nonMinimalSegments;
+
+		_segmentDatabase = new HashMap<Segment, Segment>();
+		_allMinimalSegments.forEach((segment) -> _segmentDatabase.put(segment, segment));
+		_nonMinimalSegments.forEach((segment) -> _segmentDatabase.put(segment, segment));
+	}
+
 	/**
 	 * Invoke the precomputation procedure.
 	 */
 	public void analyze()
 	{
-		// Implicit Points
-		_implicitPoints = ImplicitPointPreprocessor.compute(_pointDatabase, _givenSegments.stream().toList());
+		_segmentIndex = null;
+
+		// the incremental state (if any) describes the previous analysis: rebuilt on the next edit
+		_crossings = null;
+		_namer = null;
+		_pieces = null;
+		_minimalCounts = null;
+		_implicitCounts = null;
+		_endpointCounts = null;
+		_minimalByLine = null;
+		_nonMinimalCounts = null;
+		_givenIndex = null;
+
+		if (_internPoints) internGivenPoints();
+
+		// Implicit Points (and the given segments on which each lies)
+		_incidence = new SegmentPointIncidence();
+		_implicitPoints = ImplicitPointPreprocessor.compute(_pointDatabase, _givenSegments.stream().toList(),
+				                                            ImplicitPointPreprocessor.Strategy.SWEEP_LINE, _incidence);
+
+		// (the implicit points are new, so each is registered as is)
+		if (_internPoints) _implicitPoints.forEach((point) -> _registry.intern(point));
 
 		// Implicit Segments attributed to implicit points
 		_implicitSegments = computeImplicitBaseSegments(_implicitPoints);
@@ -78,6 +280,24 @@ public class Preprocessor
 		//     * implicitSegmen
 		_allMinimalSegments = identifyAllMinimalSegments(_implicitPoints, _givenSegments, _implicitSegments);
 
+		// Lazy mode: only the ordered points of each collinear chain are stored
+		if (_lazySegments)
+		{
+			LazySegmentDatabase database = new LazySegmentDatabase(CollinearGrouping.group(_allMinimalSegments));
+			_nonMinimalSegments = database.nonMinimalSegments();
+			_segmentDatabase = database;
+
+			if (_compactSegments) tabulateSegments();
+			return;
+		}
+
+		// Compact mode: the non-minimal segments are appended to the table group by group
+		if (_compactSegments)
+		{
+			tabulateSegments();
+			return;
+		}
+
 		// Construct all segments inductively from the base segments
 		_nonMinimalSegments = constructAllNonMinimalSegments(_allMinimalSegments);
 
@@ -86,15 +306,84 @@ public class Preprocessor
 		_nonMinimalSegments.forEach((segment) -> _segmentDatabase.put(segment, segment));
 	}
 
+	/**
+	 * Move the implicit and minimal segments into tables; unless the segments are lazy,
+	 * construct the non-minimal segments into the table of the minimal segments.
+	 */
+	private void tabulateSegments()
+	{
+		Set<Segment> minimalSegments = _allMinimalSegments;
+
+		_segmentTable = newSegmentTable();
+		minimalSegments.forEach((segment) -> _segmentTable.add(segment));
+		_minimalEnd = _segmentTable.count();
+		_allMinimalSegments = _segmentTable.range(0, _minimalEnd);
+
+		SegmentSet implicitSegments = newSegmentTable().from(0);
+		implicitSegments.addAll(_implicitSegments);
+		_implicitSegments = implicitSegments;
+
+		if (_lazySegments) return;
+
+		_nonMinimalSegments = constructAllNonMinimalSegments(minimalSegments, _segmentTable.from(_minimalEnd));
+		_segmentDatabase = _segmentTable.from(0).asMap();
+	}
+
+	/**
+	 * @return an empty table (off the heap if there is an arena) over the shared store of endpoints
+	 */
+	private SegmentTable newSegmentTable()
+	{
+		if (_arena != null)
+		{
+			if (_segmentPoints == null) _segmentPoints = new OffHeapPointStore(_arena);
+
+			return new OffHeapSegmentTable((OffHeapPointStore)_segmentPoints);
+		}
+
+		if (_segmentPoints == null) _segmentPoints = new PointStore();
+
+		return new SegmentTable(_segmentPoints);
+	}
+
+	/**
+	 * Register the stored points of the database and rebuild the given segments on those instances.
+	 */
+	private void internGivenPoints()
+	{
+		_registry = new PointRegistry();
+
+		_pointDatabase.getPoints().forEach((point) -> _registry.intern(point));
+
+		Set<Segment> segments = new LinkedHashSet<Segment>();
+		for (Segment segment : _givenSegments)
+		{
+			Point p1 = _registry.intern(segment.getPoint1());
+			Point p2 = _registry.intern(segment.getPoint2());
+
+			segments.add(p1 == segment.getPoint1() && p2 == segment.getPoint2() ? segment : new Segment(p1, p2));
+		}
+		_givenSegments = segments;
+	}
+
+	/**
+	 * @param implicitPoints
+	 * @return whether the recorded incidences describe the specified implicit points
+	 */
+	private boolean hasIncidencesFor(Set<Point> implicitPoints) {
+		if(_incidence == null) return false;
+		return implicitPoints == _implicitPoints || implicitPoints.equals(_implicitPoints);
+	}
+
 	/**
 	 * gets all the point from a set that are intersection points for a specified segment
 	 * @param segment
-	 * @param implicitPoints
+	 * @param implicitPoints -- sorted; only the points in the x-span of the segment are tested
 	 * @return the midpoints
 	 */
-	private Set<Point> getIntersectionPoints(Segment segment, Set<Point> implicitPoints) {
+	private Set<Point> getIntersectionPoints(Segment segment, PointIndex implicitPoints) {
 		Set<Point> midPoints = new LinkedHashSet<Point>();
-		for(Point point : implicitPoints) {
+		for(Point point : inXSpan(segment, implicitPoints)) {
 			if(segment.pointLiesBetweenEndpoints(point)) {
 				midPoints.add(point);
 			}
@@ -102,13 +391,22 @@ public class Preprocessor
 		return midPoints;
 	}
 
+	/**
+	 * @return the indexed points whose x lies within the x-span of the segment
+	 *         (padded, as the tolerant tests accept points slightly beyond an endpoint)
+	 */
+	private static List<Point> inXSpan(Segment segment, PointIndex points) {
+		double margin = 2 * MathUtilities.EPSILON;
+		return points.inXRange(segment.minX() - margin, segment.maxX() + margin);
+	}
+
 	/**
 	 * splits a specified segment on specified points
 	 * @param segment
 	 * @param midPoints
 	 * @return set of broken down segments
 	 */
-	private Set<Segment> breakSegmentOnPoints(Segment segment, Set<Point> midPoints) {
+	private Set<Segment> breakSegmentOnPoints(Segment segment, Collection<Point> midPoints) {
 		Set<Segment> implicitSegments = new LinkedHashSet<Segment>();
 		List<Point> points = new ArrayList<Point>(midPoints);
 		points.add(segment.getPoint1());
@@ -124,11 +422,13 @@ public class Preprocessor
 	 * finds and splits a given segment on an overlapping point if one exists
 	 * @param segment
 	 * @param implicitPoints
+	 * @param useIncidence whether to take the midpoints from the recorded incidences
 	 * @return set from broken down segment
 	 */
-	private Set<Segment> computeImplicitSegmentBreaksIfExists(Segment segment, Set<Point> implicitPoints) {
+	private Set<Segment> computeImplicitSegmentBreaksIfExists(Segment segment, PointIndex implicitPoints, boolean useIncidence) {
 		Set<Segment> implicitSegments = new LinkedHashSet<Segment>();
-		Set<Point> midPoints = getIntersectionPoints(segment, implicitPoints);
+		Collection<Point> midPoints = useIncidence ? _incidence.getOrderedPoints(segment)
+				                                   : getIntersectionPoints(segment, implicitPoints);
 		if(midPoints.size() != 0) {
 			implicitSegments.addAll(breakSegmentOnPoints(segment, midPoints));
 		}
@@ -142,8 +442,10 @@ public class Preprocessor
 	 */
 	protected Set<Segment> computeImplicitBaseSegments(Set<Point> implicitPoints) {
 		Set<Segment> implicitSegments = new LinkedHashSet<Segment>();
+		boolean useIncidence = hasIncidencesFor(implicitPoints);
+		PointIndex index = useIncidence ? null : new PointIndex(implicitPoints);
 		for(Segment segment: _givenSegments) {
-			implicitSegments.addAll(computeImplicitSegmentBreaksIfExists(segment, implicitPoints));
+			implicitSegments.addAll(computeImplicitSegmentBreaksIfExists(segment, index, useIncidence));
 		}
 		return implicitSegments;
 	}
@@ -151,11 +453,11 @@ public class Preprocessor
 	/**
 	 * determines whether is segment has a point that lies between its end points
 	 * @param segment
-	 * @param implicitPoints
+	 * @param implicitPoints -- sorted; only the points in the x-span of the segment are tested
 	 * @return whether the segment is minimal
 	 */
-	private boolean isMinimal(Segment segment, Set<Point> implicitPoints) {
-		for (Point point : implicitPoints) {
+	private boolean isMinimal(Segment segment, PointIndex implicitPoints) {
+		for (Point point : inXSpan(segment, implicitPoints)) {
 			if (segment.pointLiesBetweenEndpoints(point)) {
 				return false;
 			}
@@ -172,8 +474,10 @@ public class Preprocessor
 	 */
 	protected Set<Segment> identifyAllMinimalSegments(Set<Point> implicitPoints, Set<Segment> givenSegments, Set<Segment> implicitSegments) {
 		Set<Segment> allMinimalSegments = new LinkedHashSet<Segment>();
+		boolean useIncidence = givenSegments.equals(_givenSegments) && hasIncidencesFor(implicitPoints);
+		PointIndex index = useIncidence ? null : new PointIndex(implicitPoints);
 		for (Segment segment : givenSegments) {
-			if (isMinimal(segment, implicitPoints)) {
+			if (useIncidence ? _incidence.isEmpty(segment) : isMinimal(segment, index)) {
 				allMinimalSegments.add(segment);
 			}
 		}
@@ -181,92 +485,6 @@ public class Preprocessor
 		return allMinimalSegments;
 	}
 	
-	/**
-	 * gets the midpoint for a segment
-	 * @param segment
-	 * @return the midpoint
-	 */
-	private Point getMidpoint(Segment segment) {
-		Point point1 = segment.getPoint1();
-		Point point2 = segment.getPoint2();
-		double avrX = (point1.getX() + point2.getX()) / 2;
-		double avrY = (point1.getY() + point2.getY()) / 2;
-		return new Point(avrX, avrY);
-	}
-	
-	/**
-	 * gets the midpoints for a of the segments associated with the segment
-	 * @param allMinimalSegments
-	 * @return a mapping from midpoint to segment
-	 */
-	private Map<Point, Segment> getMidPointsAssociatedWithSegments(Set<Segment> allMinimalSegments) {
-		Map<Point, Segment> SegmentMidPoints = new HashMap<Point, Segment>();
-		for(Segment segment: allMinimalSegments) {
-			SegmentMidPoints.put(getMidpoint(segment), segment);
-		}
-		return SegmentMidPoints;
-	}
-	
-	/**
-	 * Sorts the segments based on their midpoints
-	 * @param allMinimalSegments
-	 * @return list of sorted segments
-	 */
-	private List<Segment> sortSegments(Set<Segment> allMinimalSegments) {
-		List<Segment> sortedSegment = new ArrayList<Segment>();
-		Map<Point, Segment> SegmentMidPoints = getMidPointsAssociatedWithSegments(allMinimalSegments);
-		List<Point> midPoints = new ArrayList<Point>(SegmentMidPoints.keySet());
-		
-		midPoints.sort(Comparator.naturalOrder());
-		
-		for(Point midPoint: midPoints) {
-			sortedSegment.add(SegmentMidPoints.get(midPoint));
-		}
-		return sortedSegment;
-	}
-
-	/**
-	 * gets the segment group that the segment belongs in.
-	 * A segment belongs in a group if it has the same slope as the rest of the group
-	 * and shares a vertex with at least one group member.
-	 * @param segment
-	 * @param groupedSegments
-	 * @return the proper group or -1
-	 */
-	private int getBelongingGroup(Segment segment, ArrayList<ArrayList<Segment>> groupedSegments) {
-		for(int i=0; i<groupedSegments.size(); i++) {
-			ArrayList<Segment> group = groupedSegments.get(i);
-			if(MathUtilities.doubleEquals(group.get(0).slope(), segment.slope())) {
-				for(Segment other: group) {
-					if(segment.sharedVertex(other) != null)
-						return i;
-				}
-			}
-		}
-		return -1;
-	}
-
-	/**
-	 * groups segments in to bins such that each group has the same slope and is contiguous
-	 * @param sortedSegments
-	 * @return grouped segments
-	 */
-	private ArrayList<ArrayList<Segment>> contructGroupedSegments(List<Segment> sortedSegments) {
-		ArrayList<ArrayList<Segment>> groupedSegments = new ArrayList<ArrayList<Segment>>();
-		for(Segment segment: sortedSegments) {
-			int belongsTo = getBelongingGroup(segment, groupedSegments);
-			if(belongsTo >= 0) {
-				groupedSegments.get(belongsTo).add(segment);
-			}
-			else {
-				ArrayList<Segment> newGroup = new ArrayList<Segment>();
-				newGroup.add(segment);
-				groupedSegments.add(newGroup);
-			}
-		}
-		return groupedSegments;
-	}
-
 	/**
 	 * merges specified segments together.
 	 * @param segment1
@@ -304,12 +522,557 @@ public class Preprocessor
 	 * @return set of non-minimal segments
 	 */
 	protected Set<Segment> constructAllNonMinimalSegments(Set<Segment> allMinimalSegments) {
-		List<Segment> sortedSegments = sortSegments(allMinimalSegments);
-		Set<Segment> nonMinimalSegments = new LinkedHashSet<Segment>();
-		ArrayList<ArrayList<Segment>> groupedSegments = contructGroupedSegments(sortedSegments);
+		return constructAllNonMinimalSegments(allMinimalSegments, new LinkedHashSet<Segment>());
+	}
+
+	/**
+	 * Constructs the non-minimal segments into a given set (one collinear group at a time)
+	 * @param allMinimalSegments
+	 * @param nonMinimalSegments
+	 * @return the given set
+	 */
+	private Set<Segment> constructAllNonMinimalSegments(Set<Segment> allMinimalSegments, Set<Segment> nonMinimalSegments) {
+		ArrayList<ArrayList<Segment>> groupedSegments = CollinearGrouping.group(allMinimalSegments);
 		for(ArrayList<Segment> group: groupedSegments) {
 			nonMinimalSegments.addAll(mergeGroup(group));
 		}
 		return nonMinimalSegments;
 	}
+
+	/**
+	 * Add a segment to the figure, updating the analysis in place: only the new segment is
+	 * intersected with the existing segments it meets and only the lines it touches are regrouped.
+	 * An endpoint not yet in the point database is added to it (see addPoint).
+	 *
+	 * @param segment -- a segment of non-zero length
+	 * @return false if the segment was already in the figure
+	 */
+	public boolean addSegment(Segment segment)
+	{
+		ensureIncremental();
+
+		// (a segment with an endpoint not in the database is not a given segment)
+		for (Point endpoint : new Point[] { segment.getPoint1(), segment.getPoint2() })
+		{
+			if (_pointDatabase.getPoint(endpoint) == null) addPoint(endpoint.getName(), endpoint.getX(), endpoint.getY());
+		}
+
+		segment = onStoredPoints(segment);
+
+		if (_givenSegments.contains(segment)) return false;
+
+		Set<Segment> affected = new LinkedHashSet<Segment>();
+		affected.add(segment);
+
+		for (Segment other : givenCrossings(segment))
+		{
+			Point intersection = IntersectionDelegate.segmentIntersection(segment, other);
+
+			Point crossing = _crossings.getCrossing(intersection);
+			if (crossing == null) crossing = _pointDatabase.getPoint(intersection);
+			if (crossing == null)
+			{
+				crossing = _namer.generate(intersection.getX(), intersection.getY());
+				_implicitPoints.add(crossing);
+			}
+
+			// the other segment is split anew only at a new implicit point
+			if (!_crossings.getPoints(other).contains(crossing) && _implicitPoints.contains(crossing)) affected.add(other);
+
+			_crossings.add(segment, other, crossing);
+		}
+
+		_givenSegments.add(segment);
+		if (!_givenRemoved.remove(segment)) _givenAdded.add(segment);
+		countEndpoints(segment, 1);
+
+		update(affected);
+
+		return true;
+	}
+
+	/**
+	 * Remove a given segment from the figure, updating the analysis in place; implicit
+	 * points no longer produced by a pair of crossing segments disappear.
+	 *
+	 * @return false if the segment was not a given segment
+	 */
+	public boolean removeSegment(Segment segment)
+	{
+		ensureIncremental();
+
+		segment = onStoredPoints(segment);
+
+		if (!_givenSegments.remove(segment)) return false;
+
+		if (_givenIndex != null && !_givenAdded.remove(segment)) _givenRemoved.add(segment);
+		countEndpoints(segment, -1);
+
+		Set<Segment> affected = new LinkedHashSet<Segment>();
+		affected.add(segment);
+
+		for (Map.Entry<Point, Set<Segment>> vanished : _crossings.removeSegment(segment).entrySet())
+		{
+			if (_implicitPoints.remove(vanished.getKey())) affected.addAll(vanished.getValue());
+		}
+
+		update(affected);
+
+		return true;
+	}
+
+	/**
+	 * Add a (given) point to the figure; at an implicit point, the given point takes its place
+	 * and the segments crossing there are no longer split.
+	 *
+	 * Point edits are made in the point database passed to the constructor: the database is
+	 * shared with the caller (unlike the given segments, which edits copy once; see ensureIncremental).
+	 *
+	 * @return the point database entry for the point
+	 */
+	public Point addPoint(String name, double x, double y)
+	{
+		ensureIncremental();
+
+		_pointDatabase.put(name, x, y);
+		Point point = _pointDatabase.getPoint(x, y);
+
+		Point crossing = _crossings.getCrossing(point);
+		if (crossing != null && _implicitPoints.remove(crossing))
+		{
+			_crossings.replacePoint(crossing, point);
+			update(new LinkedHashSet<Segment>(_crossings.getSegments(point)));
+		}
+
+		return point;
+	}
+
+	/**
+	 * Remove a (given) point from the figure; if segments cross at the point, it becomes
+	 * an implicit point (with a generated name). The point is removed from the shared
+	 * point database (see addPoint).
+	 *
+	 * @return false if the point is not in the database or is the endpoint of a given segment
+	 */
+	public boolean removePoint(Point point)
+	{
+		ensureIncremental();
+
+		Point stored = _pointDatabase.getPoint(point);
+		if (stored == null || _endpointCounts.containsKey(stored)) return false;
+
+		_pointDatabase.remove(stored);
+
+		Point crossing = _crossings.getCrossing(stored);
+		if (crossing != null)
+		{
+			Point implicit = _namer.generate(crossing.getX(), crossing.getY());
+			_crossings.replacePoint(crossing, implicit);
+			_implicitPoints.add(implicit);
+
+			update(new LinkedHashSet<Segment>(_crossings.getSegments(implicit)));
+		}
+
+		return true;
+	}
+
+	/**
+	 * Build the incremental state from the analyzed figure; this (once) costs about as much as analyze().
+	 */
+	private void ensureIncremental()
+	{
+		if (_crossings != null) return;
+
+		// segment edits must not leak into the caller's set (point edits are made in the
+		// shared database, see addPoint); the recorded incidences become stale
+		Set<Segment> givenSegments = new LinkedHashSet<Segment>();
+		_givenSegments.forEach((segment) -> givenSegments.add(onStoredPoints(segment)));
+		_givenSegments = givenSegments;
+		_incidence = null;
+
+		_crossings = new CrossingIndex();
+		_namer = new PointNamingFactory();
+
+		Map<Point, Point> implicitPoints = new HashMap<Point, Point>();
+		_implicitPoints.forEach((point) -> implicitPoints.put(point, point));
+
+		List<Segment> given = new ArrayList<Segment>(_givenSegments);
+		long names = 0;
+		for (SegmentCrossing crossing : ImplicitPointPreprocessor.findCrossings(given, ImplicitPointPreprocessor.Strategy.SWEEP_LINE))
+		{
+			Point point = _pointDatabase.getPoint(crossing.getPoint());
+
+			if (point == null) names++;
+
+			if (point == null) point = _crossings.getCrossing(crossing.getPoint());
+			if (point == null) point = PointProbe.get(implicitPoints, crossing.getPoint());
+			if (point == null) point = crossing.getPoint();
+
+			_crossings.add(given.get(crossing.getFirst()), given.get(crossing.getSecond()), point);
+		}
+
+		// continue the name sequence used for the implicit points
+		_namer.reserveNames(names);
+
+		_endpointCounts = new HashMap<Point, Integer>();
+		_givenSegments.forEach((segment) -> countEndpoints(segment, 1));
+
+		_pieces = new HashMap<Segment, List<Segment>>();
+		_minimalCounts = new HashMap<Segment, Integer>();
+		_implicitCounts = new HashMap<Segment, Integer>();
+		_minimalByLine = new LinkedHashMap<LineKey, Map<Point, List<Segment>>>();
+		_nonMinimalCounts = new HashMap<Segment, Integer>();
+
+		if (_compactSegments)
+		{
+			// the ranges of the analysis do not survive edits: each set gets a table of its own
+			_segmentTable = null;
+			_minimalEnd = 0;
+			_implicitSegments = newSegmentTable().from(0);
+			_allMinimalSegments = newSegmentTable().from(0);
+		}
+		else
+		{
+			_implicitSegments.clear();
+			_allMinimalSegments.clear();
+		}
+
+		if (_lazySegments)
+		{
+			LazySegmentDatabase database = new LazySegmentDatabase();
+			_nonMinimalSegments = database.nonMinimalSegments();
+			_segmentDatabase = database;
+		}
+		else if (_compactSegments)
+		{
+			_nonMinimalSegments = newSegmentTable().from(0);
+			_segmentDatabase = newSegmentTable().from(0).asMap();
+		}
+		else
+		{
+			_nonMinimalSegments.clear();
+			_segmentDatabase.clear();
+		}
+
+		update(new ArrayList<Segment>(_givenSegments));
+	}
+
+	/**
+	 * @return the given segments crossing the segment (as IntersectionDelegate decides)
+	 */
+	private List<Segment> givenCrossings(Segment segment)
+	{
+		// rebuilt once the edits since outnumber sqrt(n): the rebuilds and the scans of the
+		// recent edits then both cost o(n) per query (amortized)
+		if (_givenIndex == null || _givenAdded.size() + _givenRemoved.size() > 16 + Math.sqrt(_givenIndex.size()))
+		{
+			_givenIndex = new SegmentRTree(_givenSegments);
+			_givenAdded = new LinkedHashSet<Segment>();
+			_givenRemoved = new HashSet<Segment>();
+		}
+
+		List<Segment> crossings = _givenIndex.crossings(segment);
+		crossings.removeAll(_givenRemoved);
+
+		for (Segment added : _givenAdded)
+		{
+			if (IntersectionDelegate.segmentIntersection(segment, added) != null) crossings.add(added);
+		}
+
+		return crossings;
+	}
+
+	/**
+	 * @return the segment on the stored database points equal to its endpoints (the segment itself
+	 *         if those are its endpoints already): equal given segments are then built on the same
+	 *         point objects, hence hash alike (equal points may hash to adjacent cells; see Point)
+	 */
+	private Segment onStoredPoints(Segment segment)
+	{
+		Point p1 = _pointDatabase.getPoint(segment.getPoint1());
+		Point p2 = _pointDatabase.getPoint(segment.getPoint2());
+
+		if (p1 == null) p1 = segment.getPoint1();
+		if (p2 == null) p2 = segment.getPoint2();
+
+		return p1 == segment.getPoint1() && p2 == segment.getPoint2() ? segment : new Segment(p1, p2);
+	}
+
+	private void countEndpoints(Segment segment, int delta)
+	{
+		// (the endpoints of the given segments are stored database points; see onStoredPoints)
+		for (Point endpoint : new Point[] { segment.getPoint1(), segment.getPoint2() })
+		{
+			_endpointCounts.merge(endpoint, delta, (count, d) -> count + d == 0 ? null : count + d);
+		}
+	}
+
+	/**
+	 * Split each affected segment anew (or drop it, once removed) and regroup the lines touched.
+	 */
+	private void update(Collection<Segment> affected)
+	{
+		_segmentIndex = null;
+
+		Map<LineKey, LineEdit> lines = new LinkedHashMap<LineKey, LineEdit>();
+
+		for (Segment segment : affected)
+		{
+			repartition(segment, lines);
+		}
+
+		for (Map.Entry<LineKey, LineEdit> line : lines.entrySet())
+		{
+			regroup(line.getKey(), line.getValue());
+		}
+	}
+
+	/**
+	 * Replace the minimal segments a given segment is split into.
+	 *
+	 * @param lines -- collects the lines whose minimal segments changed (with the changes)
+	 */
+	private void repartition(Segment segment, Map<LineKey, LineEdit> lines)
+	{
+		List<Segment> old = _pieces.remove(segment);
+		if (old != null)
+		{
+			for (Segment piece : old) release(piece, old.size() > 1, lines);
+		}
+
+		if (!_givenSegments.contains(segment)) return;
+
+		List<Point> midPoints = new ArrayList<Point>();
+		for (Point point : _crossings.getPoints(segment))
+		{
+			if (_implicitPoints.contains(point)) midPoints.add(point);
+		}
+
+		List<Segment> pieces = midPoints.isEmpty() ? List.of(segment)
+				                                   : new ArrayList<Segment>(breakSegmentOnPoints(segment, midPoints));
+		_pieces.put(segment, pieces);
+
+		for (Segment piece : pieces) retain(piece, pieces.size() > 1, lines);
+	}
+
+	private void retain(Segment piece, boolean implicit, Map<LineKey, LineEdit> lines)
+	{
+		if (implicit && _implicitCounts.merge(piece, 1, Integer::sum) == 1) _implicitSegments.add(piece);
+
+		if (_minimalCounts.merge(piece, 1, Integer::sum) > 1) return;
+
+		_allMinimalSegments.add(piece);
+		if (!_lazySegments) _segmentDatabase.put(piece, piece);
+
+		LineKey line = CollinearGrouping.findKey(LineKey.of(piece), _minimalByLine);
+		Map<Point, List<Segment>> minimal = _minimalByLine.computeIfAbsent(line, (k) -> new HashMap<Point, List<Segment>>());
+		for (Point vertex : new Point[] { piece.getPoint1(), piece.getPoint2() })
+		{
+			minimal.computeIfAbsent(vertex, (v) -> new ArrayList<Segment>(2)).add(piece);
+		}
+
+		LineEdit edit = lines.computeIfAbsent(line, (k) -> new LineEdit());
+		if (!edit._removed.remove(piece)) edit._added.add(piece);
+	}
+
+	private void release(Segment piece, boolean implicit, Map<LineKey, LineEdit> lines)
+	{
+		if (implicit && _implicitCounts.merge(piece, -1, (count, d) -> count + d == 0 ? null : count + d) == null)
+		{
+			_implicitSegments.remove(piece);
+		}
+
+		if (_minimalCounts.merge(piece, -1, (count, d) -> count + d == 0 ? null : count + d) != null) return;
+
+		_allMinimalSegments.remove(piece);
+		if (!_lazySegments && !_nonMinimalSegments.contains(piece)) _segmentDatabase.remove(piece);
+
+		LineKey line = CollinearGrouping.findKey(LineKey.of(piece), _minimalByLine);
+		Map<Point, List<Segment>> minimal = _minimalByLine.get(line);
+		for (Point vertex : new Point[] { piece.getPoint1(), piece.getPoint2() })
+		{
+			List<Segment> at = minimal.get(vertex);
+			at.remove(piece);
+			if (at.isEmpty()) minimal.remove(vertex);
+		}
+
+		LineEdit edit = lines.computeIfAbsent(line, (k) -> new LineEdit());
+		if (!edit._added.remove(piece)) edit._removed.add(piece);
+	}
+
+	/**
+	 * The minimal segments added to (resp. removed from) a line by one update
+	 */
+	private static class LineEdit
+	{
+		final Set<Segment> _added = new LinkedHashSet<Segment>();
+		final Set<Segment> _removed = new LinkedHashSet<Segment>();
+	}
+
+	/**
+	 * Update the non-minimal segments of one line: only those spanning a pair of minimal
+	 * segments that joined (or left) a common group, e.g., the segments ending at a vertex
+	 * inserted into a group (and the segment split there). Only the groups the edit touched
+	 * are visited, before and after the edit; the rest of the line is left alone.
+	 *
+	 * @param edit -- the minimal segments added to and removed from the line
+	 */
+	private void regroup(LineKey line, LineEdit edit)
+	{
+		Map<Point, List<Segment>> minimal = _minimalByLine.get(line);
+
+		// the groups now holding an added segment or a vertex of a removed one
+		Map<Point, List<Segment>> removed = new HashMap<Point, List<Segment>>();
+		List<Segment> seeds = new ArrayList<Segment>(edit._added);
+		for (Segment piece : edit._removed)
+		{
+			for (Point vertex : new Point[] { piece.getPoint1(), piece.getPoint2() })
+			{
+				removed.computeIfAbsent(vertex, (v) -> new ArrayList<Segment>(2)).add(piece);
+				seeds.addAll(minimal.getOrDefault(vertex, List.of()));
+			}
+		}
+		List<ArrayList<Segment>> groups = groupsOf(seeds, minimal, Set.of(), Map.of());
+
+		// the groups before the edit holding a removed segment or a segment of those groups
+		List<Segment> oldSeeds = new ArrayList<Segment>(edit._removed);
+		for (ArrayList<Segment> group : groups)
+		{
+			for (Segment piece : group)
+			{
+				if (!edit._added.contains(piece)) oldSeeds.add(piece);
+			}
+		}
+		List<ArrayList<Segment>> oldGroups = groupsOf(oldSeeds, minimal, edit._added, removed);
+
+		if (minimal.isEmpty()) _minimalByLine.remove(line);
+
+		if (_lazySegments)
+		{
+			((LazySegmentDatabase)_segmentDatabase).replaceChains(line, oldGroups, groups);
+			return;
+		}
+
+		Map<Segment, Integer> changes = new LinkedHashMap<Segment, Integer>();
+		countChangedPairs(oldGroups, groupIndices(groups), -1, changes);
+		countChangedPairs(groups, groupIndices(oldGroups), 1, changes);
+
+		for (Map.Entry<Segment, Integer> change : changes.entrySet())
+		{
+			Segment segment = change.getKey();
+			int before = _nonMinimalCounts.getOrDefault(segment, 0);
+			int after = before + change.getValue();
+
+			if (after == 0) _nonMinimalCounts.remove(segment);
+			else _nonMinimalCounts.put(segment, after);
+
+			if (before == 0 && after > 0)
+			{
+				_nonMinimalSegments.add(segment);
+				_segmentDatabase.put(segment, segment);
+			}
+			else if (before > 0 && after == 0)
+			{
+				_nonMinimalSegments.remove(segment);
+				if (!_allMinimalSegments.contains(segment)) _segmentDatabase.remove(segment);
+			}
+		}
+	}
+
+	/**
+	 * @param byVertex -- the segments at each vertex, less the excluded, plus those of extra
+	 * @return the groups (linked by shared vertices) of the seeds
+	 */
+	private static List<ArrayList<Segment>> groupsOf(List<Segment> seeds, Map<Point, List<Segment>> byVertex,
+			                                         Set<Segment> excluded, Map<Point, List<Segment>> extra)
+	{
+		List<ArrayList<Segment>> groups = new ArrayList<ArrayList<Segment>>();
+		Set<Segment> seen = new HashSet<Segment>();
+
+		for (Segment seed : seeds)
+		{
+			if (!seen.add(seed)) continue;
+
+			ArrayList<Segment> group = new ArrayList<Segment>();
+			group.add(seed);
+
+			// (a breadth-first search: the group is the queue)
+			for (int k = 0; k < group.size(); k++)
+			{
+				for (Point vertex : new Point[] { group.get(k).getPoint1(), group.get(k).getPoint2() })
+				{
+					for (Map<Point, List<Segment>> segments : List.of(byVertex, extra))
+					{
+						for (Segment next : segments.getOrDefault(vertex, List.of()))
+						{
+							if (!excluded.contains(next) && seen.add(next)) group.add(next);
+						}
+					}
+				}
+			}
+
+			groups.add(group);
+		}
+
+		return groups;
+	}
+
+	/**
+	 * @return the index of the group of each segment
+	 */
+	private static Map<Segment, Integer> groupIndices(List<ArrayList<Segment>> groups)
+	{
+		Map<Segment, Integer> indices = new HashMap<Segment, Integer>();
+		for (int g = 0; g < groups.size(); g++)
+		{
+			for (Segment segment : groups.get(g)) indices.put(segment, g);
+		}
+
+		return indices;
+	}
+
+	/**
+	 * Count (by delta) the segment spanned by each pair of segments of a common group
+	 * that are not of a common group of the other grouping.
+	 *
+	 * @param other -- the group index (in the other grouping) of each segment in it
+	 */
+	private void countChangedPairs(List<ArrayList<Segment>> groups, Map<Segment, Integer> other, int delta,
+			                       Map<Segment, Integer> changes)
+	{
+		for (ArrayList<Segment> group : groups)
+		{
+			// the segments of the group by their group in the other grouping (-1: not in it)
+			Map<Integer, List<Segment>> parts = new LinkedHashMap<Integer, List<Segment>>();
+			for (Segment segment : group)
+			{
+				parts.computeIfAbsent(other.getOrDefault(segment, -1), (g) -> new ArrayList<Segment>()).add(segment);
+			}
+
+			if (parts.size() == 1 && !parts.containsKey(-1)) continue;
+
+			List<List<Segment>> partList = new ArrayList<List<Segment>>(parts.values());
+			for (int i = 0; i < partList.size(); i++)
+			{
+				List<Segment> part = partList.get(i);
+
+				// pairs within a part are unchanged, except among segments not in the other grouping
+				if (parts.get(-1) == part)
+				{
+					for (int a = 0; a < part.size() - 1; a++)
+					{
+						for (int b = a + 1; b < part.size(); b++) changes.merge(mergeSegments(part.get(a), part.get(b)), delta, Integer::sum);
+					}
+				}
+
+				for (int j = i + 1; j < partList.size(); j++)
+				{
+					for (Segment first : part)
+					{
+						for (Segment second : partList.get(j)) changes.merge(mergeSegments(first, second), delta, Integer::sum);
+					}
+				}
+			}
+		}
+	}
 }
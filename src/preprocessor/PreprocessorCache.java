@@ -0,0 +1,456 @@
+package preprocessor;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import geometry_objects.Segment;
+import geometry_objects.points.GeneratedPoint;
+import geometry_objects.points.Point;
+import geometry_objects.points.PointDatabase;
+import geometry_objects.points.PointProbe;
+import input.InputFacade;
+import input.components.FigureNode;
+import input.components.point.PointNode;
+import input.components.segment.SegmentNode;
+
+/**
+ * A persistent cache of Preprocessor results, in a directory: one file per figure,
+ * named by a content hash of the figure (see key), holding its implicit points and its
+ * implicit, minimal and non-minimal segments. On a hit the preprocessor is built from
+ * the file; on a miss it is analyzed and the file is written.
+ *
+ * The key is a SHA-256 digest of the points and segments of the figure in a canonical
+ * (sorted) order: figures differing only in formatting, order or description share an
+ * entry. An entry of another version (VERSION) is a miss, and is replaced.
+ *
+ * The entries are kept within a size limit (in bytes), the least recently used evicted
+ * first; the use of an entry is recorded in its modification time, so the order persists
+ * from one cache to the next over the same directory.
+ */
+public class PreprocessorCache
+{
+	// "GPRE"
+	private static final int MAGIC = 0x47505245;
+
+	// the version of the entries: changed whenever the analysis or the entry layout changes
+	public static final short VERSION = 1;
+
+	private static final String SUFFIX = ".pre";
+
+	// the kinds of points in an entry
+	private static final byte NAMED = 0;
+	private static final byte GENERATED = 1;
+
+	protected final Path _directory;
+	protected final long _maxBytes;
+
+	// key --> size of the entry, least recently used first
+	protected final LinkedHashMap<String, Long> _entries;
+	protected long _bytes;
+
+	protected int _hits;
+	protected int _misses;
+
+	/**
+	 * @param directory -- where the entries are kept (created if need be)
+	 * @param maxBytes -- the size limit of the entries, in total
+	 */
+	public PreprocessorCache(Path directory, long maxBytes)
+	{
+		_directory = directory;
+		_maxBytes = maxBytes;
+		_entries = new LinkedHashMap<String, Long>(16, 0.75f, true);
+
+		try
+		{
+			Files.createDirectories(directory);
+
+			// the entries there already, least recently used first
+			List<Path> files;
+			try (Stream<Path> listing = Files.list(directory))
+			{
+				files = listing.filter((file) -> file.getFileName().toString().endsWith(SUFFIX)).toList();
+			}
+
+			List<Map.Entry<Path, FileTime>> used = new ArrayList<Map.Entry<Path, FileTime>>();
+			for (Path file : files) used.add(Map.entry(file, Files.getLastModifiedTime(file)));
+			used.sort(Map.Entry.comparingByValue());
+
+			for (Map.Entry<Path, FileTime> entry : used)
+			{
+				String name = entry.getKey().getFileName().toString();
+				long size = Files.size(entry.getKey());
+
+				_entries.put(name.substring(0, name.length() - SUFFIX.length()), size);
+				_bytes += size;
+			}
+		}
+		catch (IOException e) { throw new UncheckedIOException("cannot open the cache " + directory, e); }
+
+		evict();
+	}
+
+	public synchronized int getHits() { return _hits; }
+	public synchronized int getMisses() { return _misses; }
+
+	/**
+	 * @return the number of bytes of the entries
+	 */
+	public synchronized long size() { return _bytes; }
+
+	public synchronized boolean contains(FigureNode figure) { return _entries.containsKey(key(figure)); }
+
+	/**
+	 * @return the preprocessor of the figure: loaded from its entry, or analyzed (and stored)
+	 */
+	public Preprocessor preprocess(FigureNode figure)
+	{
+		String key = key(figure);
+		Map.Entry<PointDatabase, Set<Segment>> pair = InputFacade.toGeometryRepresentation(figure);
+
+		Preprocessor loaded = load(key, pair.getKey(), pair.getValue());
+		if (loaded != null) return loaded;
+
+		Preprocessor analyzed = new Preprocessor(pair.getKey(), pair.getValue());
+		store(key, analyzed);
+
+		return analyzed;
+	}
+
+	/**
+	 * Remove every entry.
+	 */
+	public synchronized void clear()
+	{
+		for (String key : new ArrayList<String>(_entries.keySet())) delete(key);
+	}
+
+	/**
+	 * @return the hexadecimal SHA-256 digest of the points (name and coordinates) and segments
+	 *         (coordinates of the endpoints) of the figure, each in sorted order
+	 */
+	public static String key(FigureNode figure)
+	{
+		List<PointNode> points = new ArrayList<PointNode>(figure.getPointsDatabase().getPoints());
+		points.sort(Comparator.comparingDouble((PointNode point) -> canonical(point.getX()))
+				              .thenComparingDouble((PointNode point) -> canonical(point.getY()))
+				              .thenComparing(PointNode::getName));
+
+		// each segment as (x1, y1, x2, y2), its endpoints in order
+		List<double[]> segments = new ArrayList<double[]>();
+		for (SegmentNode segment : figure.getSegments().asUniqueSegmentList())
+		{
+			double[] p = { canonical(segment.getPoint1().getX()), canonical(segment.getPoint1().getY()) };
+			double[] q = { canonical(segment.getPoint2().getX()), canonical(segment.getPoint2().getY()) };
+			if (compare(p, q) > 0)
+			{
+				double[] swap = p;
+				p = q;
+				q = swap;
+			}
+			segments.add(new double[] { p[0], p[1], q[0], q[1] });
+		}
+		segments.sort(PreprocessorCache::compare);
+
+		MessageDigest digest;
+		try { digest = MessageDigest.getInstance("SHA-256"); }
+		catch (NoSuchAlgorithmException e) { throw new IllegalStateException(e); }
+
+		ByteBuffer buffer = ByteBuffer.allocate(32);
+
+		buffer.putInt(points.size()).flip();
+		digest.update(buffer);
+		for (PointNode point : points)
+		{
+			byte[] name = point.getName().getBytes(StandardCharsets.UTF_8);
+
+			buffer.clear();
+			buffer.putInt(name.length).flip();
+			digest.update(buffer);
+			digest.update(name);
+
+			buffer.clear();
+			buffer.putDouble(canonical(point.getX())).putDouble(canonical(point.getY())).flip();
+			digest.update(buffer);
+		}
+
+		buffer.clear();
+		buffer.putInt(segments.size()).flip();
+		digest.update(buffer);
+		for (double[] segment : segments)
+		{
+			buffer.clear();
+			for (double coordinate : segment) buffer.putDouble(coordinate);
+			digest.update(buffer.flip());
+		}
+
+		StringBuilder hex = new StringBuilder();
+		for (byte b : digest.digest()) hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+
+		return hex.toString();
+	}
+
+	private static int compare(double[] a, double[] b)
+	{
+		for (int k = 0; k < a.length; k++)
+		{
+			int c = Double.compare(a[k], b[k]);
+			if (c != 0) return c;
+		}
+
+		return 0;
+	}
+
+	// -0.0 and 0.0 hash alike
+	private static double canonical(double coordinate) { return coordinate == 0 ? 0.0 : coordinate; }
+
+	/**
+	 * @return the preprocessor of an entry; null if there is no (readable) entry of this version
+	 *
+	 * Only the lookup of the entry and the bookkeeping hold the lock of the cache, not the reading.
+	 */
+	private Preprocessor load(String key, PointDatabase points, Set<Segment> segments)
+	{
+		Long bytes;
+		synchronized (this)
+		{
+			bytes = _entries.get(key);
+			if (bytes == null)
+			{
+				_misses++;
+				return null;
+			}
+		}
+
+		Path file = file(key);
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file))))
+		{
+			if (in.readInt() != MAGIC || in.readShort() != VERSION || !in.readUTF().equals(key))
+			{
+				throw new IOException("not an entry of this version: " + file);
+			}
+
+			// (a point takes at least 19 bytes: a kind, a name of length 0, x and y)
+			int size = in.readInt();
+			if (size < 0 || size > Files.size(file) / 19) throw new IOException("damaged entry: " + file);
+
+			Point[] table = new Point[size];
+			for (int id = 0; id < table.length; id++)
+			{
+				byte kind = in.readByte();
+				if (kind != NAMED && kind != GENERATED) throw new IOException("damaged entry: " + file);
+
+				String name = kind == NAMED ? in.readUTF() : null;
+				long index = kind == GENERATED ? in.readLong() : 0;
+				double x = in.readDouble();
+				double y = in.readDouble();
+
+				table[id] = kind == GENERATED ? new GeneratedPoint(index, x, y) : new Point(name, x, y);
+			}
+
+			Set<Point> implicitPoints = new LinkedHashSet<Point>();
+			for (int count = in.readInt(); count > 0; count--) implicitPoints.add(point(in, table));
+
+			Set<Segment> implicitSegments = readSegments(in, table);
+			Set<Segment> minimalSegments = readSegments(in, table);
+			Set<Segment> nonMinimalSegments = readSegments(in, table);
+
+			synchronized (this)
+			{
+				// (an entry evicted meanwhile was still read whole)
+				if (_entries.get(key) != null) Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+				_hits++;
+			}
+
+			return new Preprocessor(points, segments, implicitPoints, implicitSegments, minimalSegments, nonMinimalSegments);
+		}
+		catch (IOException e)
+		{
+			// a damaged (or vanished) entry is a miss (an entry stored anew meanwhile, at another size, stays)
+			synchronized (this)
+			{
+				if (bytes.equals(_entries.get(key))) delete(key);
+				_misses++;
+			}
+			return null;
+		}
+	}
+
+	private static Set<Segment> readSegments(DataInputStream in, Point[] table) throws IOException
+	{
+		Set<Segment> segments = new LinkedHashSet<Segment>();
+		for (int count = in.readInt(); count > 0; count--) segments.add(new Segment(point(in, table), point(in, table)));
+
+		return segments;
+	}
+
+	/**
+	 * @return the point of the table with the id read next
+	 */
+	private static Point point(DataInputStream in, Point[] table) throws IOException
+	{
+		int id = in.readInt();
+		if (id < 0 || id >= table.length) throw new IOException("damaged entry: point " + id + " of " + table.length);
+
+		return table[id];
+	}
+
+	/**
+	 * Write the entry of an analyzed figure (through a temporary file, so a reader never
+	 * sees a partial entry), then evict down to the size limit. Only the move of the file
+	 * into place and the bookkeeping hold the lock of the cache, not the writing.
+	 */
+	private void store(String key, Preprocessor preprocessor)
+	{
+		// every point of the results, once (a segment endpoint and an implicit point may be the same)
+		Map<Point, Integer> ids = new HashMap<Point, Integer>();
+		List<Point> table = new ArrayList<Point>();
+
+		List<Set<Segment>> sets = List.of(preprocessor._implicitSegments, preprocessor._allMinimalSegments, preprocessor._nonMinimalSegments);
+
+		preprocessor._implicitPoints.forEach((point) -> id(point, ids, table));
+		for (Set<Segment> set : sets)
+		{
+			for (Segment segment : set)
+			{
+				id(segment.getPoint1(), ids, table);
+				id(segment.getPoint2(), ids, table);
+			}
+		}
+
+		Path file = file(key);
+		Path temporary = null;
+		try
+		{
+			temporary = Files.createTempFile(_directory, key, ".tmp");
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary))))
+			{
+				out.writeInt(MAGIC);
+				out.writeShort(VERSION);
+				out.writeUTF(key);
+
+				out.writeInt(table.size());
+				for (Point point : table)
+				{
+					if (point instanceof GeneratedPoint)
+					{
+						out.writeByte(GENERATED);
+						out.writeLong(((GeneratedPoint)point).getNameIndex());
+					}
+					else
+					{
+						out.writeByte(NAMED);
+						out.writeUTF(point.getName());
+					}
+					out.writeDouble(point.getX());
+					out.writeDouble(point.getY());
+				}
+
+				out.writeInt(preprocessor._implicitPoints.size());
+				for (Point point : preprocessor._implicitPoints) out.writeInt(id(point, ids, table));
+
+				for (Set<Segment> set : sets)
+				{
+					out.writeInt(set.size());
+					for (Segment segment : set)
+					{
+						out.writeInt(id(segment.getPoint1(), ids, table));
+						out.writeInt(id(segment.getPoint2(), ids, table));
+					}
+				}
+			}
+			long size = Files.size(temporary);
+
+			synchronized (this)
+			{
+				Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				temporary = null;
+
+				Long replaced = _entries.put(key, size);
+				_bytes += size - (replaced == null ? 0 : replaced);
+
+				evict();
+			}
+		}
+		catch (IOException e) { throw new UncheckedIOException("cannot write the cache entry " + file, e); }
+		finally
+		{
+			// (a write that failed leaves no temporary file behind)
+			if (temporary != null)
+			{
+				try { Files.deleteIfExists(temporary); }
+				catch (IOException e) { }
+			}
+		}
+	}
+
+	/**
+	 * @return the id of the point: of an equal point met before, else the next one
+	 *         (the lookup is tolerant, as two equal points may hash to adjacent cells)
+	 */
+	private static int id(Point point, Map<Point, Integer> ids, List<Point> table)
+	{
+		Integer id = PointProbe.get(ids, point);
+		if (id != null) return id;
+
+		ids.put(point, table.size());
+		table.add(point);
+
+		return table.size() - 1;
+	}
+
+	/**
+	 * Delete the least recently used entries until the entries are within the size limit.
+	 */
+	private synchronized void evict()
+	{
+		// (iterated without get, which would reorder the entries)
+		Iterator<Map.Entry<String, Long>> entries = _entries.entrySet().iterator();
+		while (_bytes > _maxBytes && entries.hasNext())
+		{
+			Map.Entry<String, Long> entry = entries.next();
+
+			_bytes -= entry.getValue();
+			entries.remove();
+			deleteFile(entry.getKey());
+		}
+	}
+
+	private void delete(String key)
+	{
+		Long size = _entries.remove(key);
+		if (size != null) _bytes -= size;
+
+		deleteFile(key);
+	}
+
+	private void deleteFile(String key)
+	{
+		try { Files.deleteIfExists(file(key)); }
+		catch (IOException e) { throw new UncheckedIOException("cannot delete the cache entry " + file(key), e); }
+	}
+
+	private Path file(String key) { return _directory.resolve(key + SUFFIX); }
+}
@@ -0,0 +1,278 @@
+package preprocessor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+
+import geometry_objects.Segment;
+import geometry_objects.delegates.intersections.IntersectionDelegate;
+import geometry_objects.points.Point;
+import utilities.math.MathUtilities;
+
+/**
+ * A static, bulk-loaded R-tree over segments, packed with Sort-Tile-Recursive (STR):
+ * the entries of each level are sorted by x into sqrt(n / M) vertical slices, each
+ * slice is sorted by y, and consecutive runs of M entries become the nodes of the
+ * level above.
+ *
+ * The tree is stored level by level in flat arrays; level 0 holds the segments.
+ * Every bounding box is padded by EPSILON so the (tolerant) geometric tests of the
+ * queries never miss a candidate.
+ */
+public class SegmentRTree
+{
+	protected static final int NODE_CAPACITY = 16;
+
+	// the segments in (STR) leaf order
+	protected final Segment[] _segments;
+
+	// _boxes[level][4k .. 4k + 3]: minX, minY, maxX, maxY of entry k at the level
+	protected final double[][] _boxes;
+
+	// for levels >= 1, node k covers entries [_first[level][k], _first[level][k] + _count[level][k]) of the level below
+	protected final int[][] _first;
+	protected final int[][] _count;
+
+	public SegmentRTree(Collection<Segment> segments)
+	{
+		Segment[] unordered = segments.toArray(new Segment[0]);
+
+		double[] boxes = new double[4 * unordered.length];
+		for (int k = 0; k < unordered.length; k++) setBox(boxes, k, unordered[k]);
+
+		int[] order = strOrder(boxes, unordered.length);
+
+		_segments = new Segment[unordered.length];
+		for (int k = 0; k < order.length; k++) _segments[k] = unordered[order[k]];
+
+		List<double[]> levelBoxes = new ArrayList<double[]>();
+		List<int[]> levelFirst = new ArrayList<int[]>();
+		List<int[]> levelCount = new ArrayList<int[]>();
+
+		levelBoxes.add(permuteBoxes(boxes, order));
+		levelFirst.add(null);
+		levelCount.add(null);
+
+		// pack each level into the next until a single root remains
+		for (int n = unordered.length; n > 1; n = (n + NODE_CAPACITY - 1) / NODE_CAPACITY)
+		{
+			double[] below = levelBoxes.get(levelBoxes.size() - 1);
+
+			int parents = (n + NODE_CAPACITY - 1) / NODE_CAPACITY;
+			double[] parentBoxes = new double[4 * parents];
+			int[] first = new int[parents];
+			int[] count = new int[parents];
+
+			for (int p = 0; p < parents; p++)
+			{
+				first[p] = p * NODE_CAPACITY;
+				count[p] = Math.min(NODE_CAPACITY, n - first[p]);
+				unionBox(below, first[p], count[p], parentBoxes, p);
+			}
+
+			order = strOrder(parentBoxes, parents);
+
+			levelBoxes.add(permuteBoxes(parentBoxes, order));
+			levelFirst.add(permute(first, order));
+			levelCount.add(permute(count, order));
+		}
+
+		_boxes = levelBoxes.toArray(new double[0][]);
+		_first = levelFirst.toArray(new int[0][]);
+		_count = levelCount.toArray(new int[0][]);
+	}
+
+	public int size() { return _segments.length; }
+
+	/**
+	 * Point-stabbing query.
+	 *
+	 * @return the segments containing the point (endpoints included)
+	 */
+	public List<Segment> segmentsThrough(Point point)
+	{
+		return query(point.getX(), point.getY(), point.getX(), point.getY(),
+				     (segment) -> segment.pointLiesOnSegment(point));
+	}
+
+	/**
+	 * Window query.
+	 *
+	 * @return the segments with at least one point inside the (closed) rectangle
+	 */
+	public List<Segment> segmentsInWindow(double minX, double minY, double maxX, double maxY)
+	{
+		return query(minX, minY, maxX, maxY, (segment) -> intersectsWindow(segment, minX, minY, maxX, maxY));
+	}
+
+	/**
+	 * Segment-crossing query.
+	 *
+	 * @return the segments intersecting the given segment
+	 */
+	public List<Segment> crossings(Segment segment)
+	{
+		double[] box = new double[4];
+		setBox(box, 0, segment);
+
+		return query(box[0], box[1], box[2], box[3],
+				     (candidate) -> IntersectionDelegate.segmentIntersection(segment, candidate) != null);
+	}
+
+	/**
+	 * Collect the accepted segments among those whose box overlaps the query box.
+	 */
+	protected List<Segment> query(double minX, double minY, double maxX, double maxY, Predicate<Segment> accept)
+	{
+		List<Segment> found = new ArrayList<Segment>();
+		if (_segments.length == 0) return found;
+
+		int top = _boxes.length - 1;
+
+		// pending (level, index) entries to visit
+		int[] levels = new int[8 * _boxes.length * NODE_CAPACITY];
+		int[] indices = new int[levels.length];
+		int pending = 0;
+
+		levels[pending] = top;
+		indices[pending++] = 0;
+
+		while (pending > 0)
+		{
+			pending--;
+			int level = levels[pending];
+			int index = indices[pending];
+
+			if (!overlaps(_boxes[level], index, minX, minY, maxX, maxY)) continue;
+
+			if (level == 0)
+			{
+				if (accept.test(_segments[index])) found.add(_segments[index]);
+				continue;
+			}
+
+			int first = _first[level][index];
+			int count = _count[level][index];
+
+			if (pending + count > levels.length)
+			{
+				levels = Arrays.copyOf(levels, 2 * (pending + count));
+				indices = Arrays.copyOf(indices, levels.length);
+			}
+
+			for (int k = first; k < first + count; k++)
+			{
+				levels[pending] = level - 1;
+				indices[pending++] = k;
+			}
+		}
+
+		return found;
+	}
+
+	/**
+	 * Liang-Barsky clipping of the segment against the (EPSILON-padded) rectangle.
+	 */
+	private static boolean intersectsWindow(Segment segment, double minX, double minY, double maxX, double maxY)
+	{
+		double x = segment.getPoint1().getX();
+		double y = segment.getPoint1().getY();
+		double dx = segment.getPoint2().getX() - x;
+		double dy = segment.getPoint2().getY() - y;
+
+		double[] p = { -dx, dx, -dy, dy };
+		double[] q = { x - (minX - MathUtilities.EPSILON), (maxX + MathUtilities.EPSILON) - x,
+				       y - (minY - MathUtilities.EPSILON), (maxY + MathUtilities.EPSILON) - y };
+
+		double enter = 0;
+		double exit = 1;
+		for (int k = 0; k < 4; k++)
+		{
+			if (p[k] == 0)
+			{
+				if (q[k] < 0) return false;
+				continue;
+			}
+
+			double t = q[k] / p[k];
+			if (p[k] < 0) enter = Math.max(enter, t);
+			else exit = Math.min(exit, t);
+		}
+
+		return enter <= exit;
+	}
+
+	private static boolean overlaps(double[] boxes, int k, double minX, double minY, double maxX, double maxY)
+	{
+		return boxes[4 * k] <= maxX && minX <= boxes[4 * k + 2] &&
+			   boxes[4 * k + 1] <= maxY && minY <= boxes[4 * k + 3];
+	}
+
+	private static void setBox(double[] boxes, int k, Segment segment)
+	{
+		boxes[4 * k]     = segment.minX() - MathUtilities.EPSILON;
+		boxes[4 * k + 1] = segment.minY() - MathUtilities.EPSILON;
+		boxes[4 * k + 2] = segment.maxX() + MathUtilities.EPSILON;
+		boxes[4 * k + 3] = segment.maxY() + MathUtilities.EPSILON;
+	}
+
+	private static void unionBox(double[] boxes, int first, int count, double[] union, int k)
+	{
+		union[4 * k]     = Double.POSITIVE_INFINITY;
+		union[4 * k + 1] = Double.POSITIVE_INFINITY;
+		union[4 * k + 2] = Double.NEGATIVE_INFINITY;
+		union[4 * k + 3] = Double.NEGATIVE_INFINITY;
+
+		for (int i = first; i < first + count; i++)
+		{
+			union[4 * k]     = Math.min(union[4 * k], boxes[4 * i]);
+			union[4 * k + 1] = Math.min(union[4 * k + 1], boxes[4 * i + 1]);
+			union[4 * k + 2] = Math.max(union[4 * k + 2], boxes[4 * i + 2]);
+			union[4 * k + 3] = Math.max(union[4 * k + 3], boxes[4 * i + 3]);
+		}
+	}
+
+	/**
+	 * @return the Sort-Tile-Recursive order of the n boxes
+	 */
+	private static int[] strOrder(double[] boxes, int n)
+	{
+		Integer[] order = new Integer[n];
+		for (int k = 0; k < n; k++) order[k] = k;
+
+		Arrays.sort(order, (i, j) -> Double.compare(boxes[4 * i] + boxes[4 * i + 2], boxes[4 * j] + boxes[4 * j + 2]));
+
+		int nodes = (n + NODE_CAPACITY - 1) / NODE_CAPACITY;
+		int slices = (int)Math.ceil(Math.sqrt(nodes));
+		int sliceSize = slices * NODE_CAPACITY;
+
+		for (int start = 0; start < n; start += sliceSize)
+		{
+			Arrays.sort(order, start, Math.min(n, start + sliceSize),
+					    (i, j) -> Double.compare(boxes[4 * i + 1] + boxes[4 * i + 3], boxes[4 * j + 1] + boxes[4 * j + 3]));
+		}
+
+		int[] result = new int[n];
+		for (int k = 0; k < n; k++) result[k] = order[k];
+
+		return result;
+	}
+
+	private static double[] permuteBoxes(double[] boxes, int[] order)
+	{
+		double[] permuted = new double[boxes.length];
+		for (int k = 0; k < order.length; k++) System.arraycopy(boxes, 4 * order[k], permuted, 4 * k, 4);
+
+		return permuted;
+	}
+
+	private static int[] permute(int[] values, int[] order)
+	{
+		int[] permuted = new int[values.length];
+		for (int k = 0; k < order.length; k++) permuted[k] = values[order[k]];
+
+		return permuted;
+	}
+}
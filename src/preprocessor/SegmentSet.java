@@ -0,0 +1,238 @@
+package preprocessor;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import geometry_objects.Segment;
+
+/**
+ * A set view of the entries [from, to) of a SegmentTable; the segments are views
+ * created on access, in entry (insertion) order.
+ *
+ * An open view (to is OPEN) extends to the end of the table: adding to it appends to
+ * the table. A closed view is fixed (it may not be added to). The size of a view other
+ * than the whole table counts the removals made through the view.
+ */
+public class SegmentSet extends AbstractSet<Segment>
+{
+	public static final int OPEN = -1;
+
+	protected final SegmentTable _table;
+	protected final int _from;
+	protected final int _to;
+
+	protected int _size;
+
+	public SegmentSet(SegmentTable table, int from, int to)
+	{
+		_table = table;
+		_from = from;
+		_to = to;
+
+		for (int entry = from; entry < end(); entry++)
+		{
+			if (!table.isRemoved(entry)) _size++;
+		}
+	}
+
+	public SegmentTable getTable() { return _table; }
+
+	/**
+	 * @return the range of the view: entries from() .. to() - 1
+	 */
+	public int from() { return _from; }
+	public int to() { return end(); }
+
+	private int end() { return _to == OPEN ? _table.count() : _to; }
+
+	private boolean isWholeTable() { return _from == 0 && _to == OPEN; }
+
+	@Override
+	public int size() { return isWholeTable() ? _table.size() : _size; }
+
+	/**
+	 * A segment of the table outside the view is not added again.
+	 */
+	@Override
+	public boolean add(Segment segment)
+	{
+		if (_to != OPEN) throw new UnsupportedOperationException("a closed range of a segment table");
+
+		if (_table.add(segment) < 0) return false;
+
+		_size++;
+		return true;
+	}
+
+	@Override
+	public boolean contains(Object o)
+	{
+		return o instanceof Segment && find((Segment)o) >= 0;
+	}
+
+	/**
+	 * @return the stored segment (a view) equal to the given one; null if there is none
+	 */
+	public Segment get(Segment segment)
+	{
+		int entry = find(segment);
+
+		return entry < 0 ? null : _table.segment(entry);
+	}
+
+	@Override
+	public boolean remove(Object o)
+	{
+		if (!(o instanceof Segment)) return false;
+
+		int entry = find((Segment)o);
+		if (entry < 0) return false;
+
+		removeEntry(entry);
+
+		return true;
+	}
+
+	private void removeEntry(int entry)
+	{
+		_table.remove(entry);
+		_size--;
+	}
+
+	/**
+	 * Clearing the whole table keeps its storage (for reuse).
+	 */
+	@Override
+	public void clear()
+	{
+		if (!isWholeTable())
+		{
+			super.clear();
+			return;
+		}
+
+		_table.clear();
+		_size = 0;
+	}
+
+	/**
+	 * @return the entry of a segment in the view; -1 if it is not in the view
+	 */
+	private int find(Segment segment)
+	{
+		int entry = _table.find(segment);
+
+		return entry >= _from && entry < end() ? entry : -1;
+	}
+
+	@Override
+	public Iterator<Segment> iterator()
+	{
+		return new Iterator<Segment>()
+		{
+			private int _next = advance(_from);
+			private int _last = -1;
+
+			private int advance(int entry)
+			{
+				while (entry < end() && _table.isRemoved(entry)) entry++;
+				return entry;
+			}
+
+			public boolean hasNext() { return _next < end(); }
+
+			public Segment next()
+			{
+				if (!hasNext()) throw new NoSuchElementException();
+
+				_last = _next;
+				_next = advance(_next + 1);
+
+				return _table.segment(_last);
+			}
+
+			public void remove()
+			{
+				if (_last < 0) throw new IllegalStateException();
+
+				removeEntry(_last);
+				_last = -1;
+			}
+		};
+	}
+
+	/**
+	 * @return a segment database (key == value) view of the set
+	 */
+	public Map<Segment, Segment> asMap()
+	{
+		return new AbstractMap<Segment, Segment>()
+		{
+			@Override
+			public int size() { return SegmentSet.this.size(); }
+
+			@Override
+			public boolean containsKey(Object key) { return contains(key); }
+
+			@Override
+			public Segment get(Object key) { return key instanceof Segment ? SegmentSet.this.get((Segment)key) : null; }
+
+			@Override
+			public Segment put(Segment key, Segment value)
+			{
+				Segment previous = SegmentSet.this.get(key);
+				if (previous == null) add(value);
+
+				return previous;
+			}
+
+			@Override
+			public Segment remove(Object key)
+			{
+				Segment previous = get(key);
+				if (previous != null) SegmentSet.this.remove(previous);
+
+				return previous;
+			}
+
+			@Override
+			public void clear() { SegmentSet.this.clear(); }
+
+			@Override
+			public Set<Segment> keySet() { return SegmentSet.this; }
+
+			@Override
+			public Set<Map.Entry<Segment, Segment>> entrySet()
+			{
+				return new AbstractSet<Map.Entry<Segment, Segment>>()
+				{
+					@Override
+					public Iterator<Map.Entry<Segment, Segment>> iterator()
+					{
+						Iterator<Segment> segments = SegmentSet.this.iterator();
+
+						return new Iterator<Map.Entry<Segment, Segment>>()
+						{
+							public boolean hasNext() { return segments.hasNext(); }
+
+							public Map.Entry<Segment, Segment> next()
+							{
+								Segment segment = segments.next();
+								return new AbstractMap.SimpleImmutableEntry<Segment, Segment>(segment, segment);
+							}
+
+							public void remove() { segments.remove(); }
+						};
+					}
+
+					@Override
+					public int size() { return SegmentSet.this.size(); }
+				};
+			}
+		};
+	}
+}
@@ -0,0 +1,269 @@
+package preprocessor;
+
+import java.util.Arrays;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+import geometry_objects.points.PointStore;
+
+/**
+ * A compact table of segments: entry e is the pair of ids (indices in a PointStore) of
+ * the endpoints of a segment, kept in a primitive array:
+ *
+ *     _ids:  id1(0), id2(0), id1(1), id2(1), ...
+ *
+ * Lookup is an open-addressed (linear probing) map keyed on the unordered id pair as a
+ * long (the lower id in the high bits); its slots hold entry indices. A removed entry
+ * keeps its place (its first id becomes REMOVED), so entries never move: a run of
+ * entries [from, to) is a stable range, and a SegmentSet is a view of such a range.
+ *
+ * Points are added to the point store as segments are added; several tables may share
+ * a store (an endpoint then has the same id in each).
+ */
+public class SegmentTable
+{
+	private static final int INITIAL_CAPACITY = 16;
+	private static final int INITIAL_TABLE = 32;
+
+	// an empty slot; occupied slots hold (entry + 1)
+	private static final int EMPTY = 0;
+
+	// the first id of a removed entry
+	protected static final int REMOVED = -1;
+
+	protected final PointStore _points;
+
+	protected int[] _ids;
+
+	// the number of entries used (including removed segments)
+	protected int _count;
+	protected int _size;
+
+	protected int[] _table;
+
+	public SegmentTable(PointStore points)
+	{
+		_points = points;
+
+		_ids = new int[2 * INITIAL_CAPACITY];
+		_table = new int[INITIAL_TABLE];
+	}
+
+	public PointStore getPoints() { return _points; }
+
+	/**
+	 * @return the number of entries used: the entries are 0 .. count() - 1 (some may be removed)
+	 */
+	public int count() { return _count; }
+
+	/**
+	 * @return the number of segments in the table
+	 */
+	public int size() { return _size; }
+
+	/**
+	 * Append a segment (if it is not in the table).
+	 *
+	 * @return the entry of the new segment; -1 if the table has the segment
+	 */
+	public int add(Segment segment)
+	{
+		int id1 = id(segment.getPoint1());
+		int id2 = id(segment.getPoint2());
+
+		if (find(id1, id2) >= 0) return -1;
+
+		int entry = _count++;
+		if (entry == capacity()) growIds(Math.max(2 * entry, INITIAL_CAPACITY));
+
+		setIds(entry, id1, id2);
+		_size++;
+
+		// keep the load factor at most 1/2
+		if (2 * _size > _table.length) rehash(2 * _table.length);
+		else insert(entry);
+
+		return entry;
+	}
+
+	/**
+	 * @return the entry of a segment; -1 if it is not in the table
+	 */
+	public int find(Segment segment)
+	{
+		int id1 = _points.indexOf(segment.getPoint1().getX(), segment.getPoint1().getY());
+		if (id1 < 0) return -1;
+
+		int id2 = _points.indexOf(segment.getPoint2().getX(), segment.getPoint2().getY());
+		if (id2 < 0) return -1;
+
+		return find(id1, id2);
+	}
+
+	/**
+	 * @return the entry of the segment between two points (by id); -1 if it is not in the table
+	 */
+	public int find(int id1, int id2)
+	{
+		long key = key(id1, id2);
+		int mask = _table.length - 1;
+
+		for (int slot = hash(key) & mask; _table[slot] != EMPTY; slot = (slot + 1) & mask)
+		{
+			if (key(_table[slot] - 1) == key) return _table[slot] - 1;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Remove the segment of an entry (the entry keeps its place).
+	 */
+	public void remove(int entry)
+	{
+		deleteSlot(entry);
+
+		setIds(entry, REMOVED, id2(entry));
+		_size--;
+	}
+
+	public boolean isRemoved(int entry) { return id1(entry) == REMOVED; }
+
+	/**
+	 * @return the id of an endpoint of the segment of an entry
+	 */
+	public int point1(int entry) { return id1(entry); }
+	public int point2(int entry) { return id2(entry); }
+
+	/**
+	 * @return a view of the segment of an entry
+	 */
+	public Segment segment(int entry)
+	{
+		return new Segment(_points.view(id1(entry)), _points.view(id2(entry)));
+	}
+
+	/**
+	 * The storage allocated is kept (and reused).
+	 */
+	public void clear()
+	{
+		_count = 0;
+		_size = 0;
+		_table = new int[INITIAL_TABLE];
+	}
+
+	/**
+	 * @return a view of the entries [from, to)
+	 */
+	public SegmentSet range(int from, int to) { return new SegmentSet(this, from, to); }
+
+	/**
+	 * @return a view of the entries from 'from' on, including any segment added later
+	 */
+	public SegmentSet from(int from) { return new SegmentSet(this, from, SegmentSet.OPEN); }
+
+	/**
+	 * @return the id of a point in the store (added if it is not there)
+	 */
+	private int id(Point point)
+	{
+		int id = _points.indexOf(point.getX(), point.getY());
+
+		return id >= 0 ? id : _points.add(point);
+	}
+
+	//
+	// The id storage: an on-heap array
+	//
+	protected int id1(int entry) { return _ids[2 * entry]; }
+	protected int id2(int entry) { return _ids[2 * entry + 1]; }
+
+	protected void setIds(int entry, int id1, int id2)
+	{
+		_ids[2 * entry] = id1;
+		_ids[2 * entry + 1] = id2;
+	}
+
+	/**
+	 * @return the number of entries with room allocated
+	 */
+	protected int capacity() { return _ids.length / 2; }
+
+	/**
+	 * Make room for (at least) capacity entries, keeping the stored ids.
+	 */
+	protected void growIds(int capacity)
+	{
+		_ids = Arrays.copyOf(_ids, 2 * capacity);
+	}
+
+	/**
+	 * @return the key of an unordered id pair: the lower id in the high bits
+	 */
+	private static long key(int id1, int id2)
+	{
+		return ((long)Math.min(id1, id2) << 32) | Math.max(id1, id2);
+	}
+
+	private long key(int entry) { return key(id1(entry), id2(entry)); }
+
+	private static int hash(long key)
+	{
+		// the 64-bit finalizer of MurmurHash3
+		key ^= key >>> 33;
+		key *= 0xFF51AFD7ED558CCDL;
+		key ^= key >>> 33;
+		key *= 0xC4CEB9FE1A85EC53L;
+		key ^= key >>> 33;
+
+		return (int)key;
+	}
+
+	private void insert(int entry)
+	{
+		int mask = _table.length - 1;
+
+		int slot = hash(key(entry)) & mask;
+		while (_table[slot] != EMPTY) slot = (slot + 1) & mask;
+
+		_table[slot] = entry + 1;
+	}
+
+	private void rehash(int capacity)
+	{
+		_table = new int[capacity];
+
+		for (int entry = 0; entry < _count; entry++)
+		{
+			if (!isRemoved(entry)) insert(entry);
+		}
+	}
+
+	/**
+	 * Remove the slot holding the entry; later slots of the probe run shift back
+	 * so no lookup stops early at the hole (as in PointStore).
+	 */
+	private void deleteSlot(int entry)
+	{
+		int mask = _table.length - 1;
+
+		int hole = hash(key(entry)) & mask;
+		while (_table[hole] != entry + 1) hole = (hole + 1) & mask;
+
+		for (int slot = (hole + 1) & mask; _table[slot] != EMPTY; slot = (slot + 1) & mask)
+		{
+			int home = hash(key(_table[slot] - 1)) & mask;
+
+			// the entry may move into the hole if its home is not cyclically within (hole, slot]
+			boolean movable = hole <= slot ? (home <= hole || home > slot) : (home <= hole && home > slot);
+			if (movable)
+			{
+				_table[hole] = _table[slot];
+				hole = slot;
+			}
+		}
+
+		_table[hole] = EMPTY;
+	}
+}
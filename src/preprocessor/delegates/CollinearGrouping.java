@@ -0,0 +1,120 @@
+package preprocessor.delegates;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+
+/**
+ * Groups minimal segments into maximal runs of collinear, contiguous segments:
+ *
+ *      A-------B-------C       D-------E
+ *
+ * AB and BC form one group; DE (same line, no shared vertex) forms another.
+ *
+ * Segments are first hashed into buckets by the LineKey of their line; within a
+ * bucket, segments sharing a vertex are joined with a union-find. The whole
+ * grouping is (expected) linear in the number of segments.
+ */
+public class CollinearGrouping
+{
+	/**
+	 * @param segments -- minimal segments
+	 * @return the groups of collinear segments linked by shared vertices
+	 */
+	public static ArrayList<ArrayList<Segment>> group(Collection<Segment> segments)
+	{
+		ArrayList<ArrayList<Segment>> groups = new ArrayList<ArrayList<Segment>>();
+
+		for (List<Segment> bucket : bucketByLine(segments).values())
+		{
+			groups.addAll(groupBySharedVertex(bucket));
+		}
+
+		return groups;
+	}
+
+	/**
+	 * @param segments -- segments of non-zero length
+	 * @return the segments bucketed by the line containing them (in order of first appearance)
+	 */
+	public static Map<LineKey, List<Segment>> bucketByLine(Collection<Segment> segments)
+	{
+		Map<LineKey, List<Segment>> buckets = new LinkedHashMap<LineKey, List<Segment>>();
+
+		for (Segment segment : segments)
+		{
+			buckets.computeIfAbsent(findKey(LineKey.of(segment), buckets), (k) -> new ArrayList<Segment>()).add(segment);
+		}
+
+		return buckets;
+	}
+
+	/**
+	 * @return the key of an existing bucket at (or adjacent to) the given key; the key itself if none exists
+	 */
+	public static LineKey findKey(LineKey key, Map<LineKey, ?> buckets)
+	{
+		if (buckets.containsKey(key)) return key;
+
+		for (LineKey neighbor : key.neighbors())
+		{
+			if (buckets.containsKey(neighbor)) return neighbor;
+		}
+
+		return key;
+	}
+
+	/**
+	 * @param bucket -- collinear segments
+	 * @return the segments partitioned into groups connected by shared vertices
+	 */
+	public static List<ArrayList<Segment>> groupBySharedVertex(List<Segment> bucket)
+	{
+		int[] parent = new int[bucket.size()];
+		for (int i = 0; i < parent.length; i++) parent[i] = i;
+
+		// the first segment seen at each vertex
+		Map<Point, Integer> vertices = new HashMap<Point, Integer>();
+
+		for (int i = 0; i < bucket.size(); i++)
+		{
+			for (Point vertex : new Point[] { bucket.get(i).getPoint1(), bucket.get(i).getPoint2() })
+			{
+				Integer other = vertices.putIfAbsent(vertex, i);
+				if (other != null) union(parent, i, other);
+			}
+		}
+
+		Map<Integer, ArrayList<Segment>> components = new LinkedHashMap<Integer, ArrayList<Segment>>();
+		for (int i = 0; i < bucket.size(); i++)
+		{
+			components.computeIfAbsent(find(parent, i), (r) -> new ArrayList<Segment>()).add(bucket.get(i));
+		}
+
+		return new ArrayList<ArrayList<Segment>>(components.values());
+	}
+
+	private static int find(int[] parent, int i)
+	{
+		while (parent[i] != i)
+		{
+			parent[i] = parent[parent[i]];
+			i = parent[i];
+		}
+		return i;
+	}
+
+	private static void union(int[] parent, int i, int j)
+	{
+		int ri = find(parent, i);
+		int rj = find(parent, j);
+
+		if (ri != rj) parent[Math.max(ri, rj)] = Math.min(ri, rj);
+	}
+}
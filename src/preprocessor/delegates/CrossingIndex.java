@@ -0,0 +1,166 @@
+package preprocessor.delegates;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import geometry_objects.Segment;
+import geometry_objects.delegates.intersections.IntersectionDelegate;
+import geometry_objects.points.Point;
+import geometry_objects.points.PointProbe;
+
+/**
+ * A two-way index of the crossings among given segments:
+ *    point   --> the segments crossing (in their interior) at that point
+ *    segment --> the crossing points in its interior
+ *
+ * Unlike SegmentPointIncidence, crossings at given (explicit) points are
+ * recorded as well; they matter once such a point is removed from the figure.
+ * The index supports adding and removing segments one at a time.
+ */
+public class CrossingIndex
+{
+	protected Map<Point, Set<Segment>> _segmentsAt;
+	protected Map<Segment, Set<Point>> _pointsOn;
+
+	public CrossingIndex()
+	{
+		_segmentsAt = new LinkedHashMap<Point, Set<Segment>>();
+		_pointsOn = new HashMap<Segment, Set<Point>>();
+	}
+
+	/**
+	 * @param point -- a point
+	 * @return the crossing point (object) in the index equal to the given point; null if there is none
+	 *         (the points are keys: they are looked up tolerantly, see PointProbe)
+	 */
+	public Point getCrossing(Point point)
+	{
+		Set<Segment> segments = PointProbe.get(_segmentsAt, point);
+		if (segments == null) return null;
+
+		// the key object itself; a HashMap offers no direct way to acquire it
+		for (Point crossing : _pointsOn.get(segments.iterator().next()))
+		{
+			if (crossing.equals(point)) return crossing;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Record that the two segments cross at the point.
+	 *
+	 * @return true if the point was not already recorded on both segments
+	 */
+	public boolean add(Segment first, Segment second, Point point)
+	{
+		Set<Segment> segments = _segmentsAt.computeIfAbsent(point, (p) -> new LinkedHashSet<Segment>());
+
+		boolean added = segments.add(first);
+		added = segments.add(second) || added;
+
+		_pointsOn.computeIfAbsent(first, (s) -> new LinkedHashSet<Point>()).add(point);
+		_pointsOn.computeIfAbsent(second, (s) -> new LinkedHashSet<Point>()).add(point);
+
+		return added;
+	}
+
+	/**
+	 * @return the crossing points in the interior of the segment
+	 */
+	public Set<Point> getPoints(Segment segment)
+	{
+		Set<Point> points = _pointsOn.get(segment);
+
+		return points == null ? Collections.emptySet() : points;
+	}
+
+	/**
+	 * @return the segments crossing at the point
+	 */
+	public Set<Segment> getSegments(Point point)
+	{
+		Set<Segment> segments = PointProbe.get(_segmentsAt, point);
+
+		return segments == null ? Collections.emptySet() : segments;
+	}
+
+	/**
+	 * Remove a segment (and all of its crossings) from the index.
+	 *
+	 * @param segment -- a segment in the index
+	 * @return each crossing point that no longer exists (no two remaining segments cross there)
+	 *         mapped to the segments that used to cross there
+	 */
+	public Map<Point, Set<Segment>> removeSegment(Segment segment)
+	{
+		Map<Point, Set<Segment>> vanished = new LinkedHashMap<Point, Set<Segment>>();
+
+		Set<Point> points = _pointsOn.remove(segment);
+		if (points == null) return vanished;
+
+		for (Point point : points)
+		{
+			Set<Segment> segments = _segmentsAt.get(point);
+			segments.remove(segment);
+
+			if (hasCrossingPair(segments)) continue;
+
+			for (Segment other : segments)
+			{
+				Set<Point> otherPoints = _pointsOn.get(other);
+				otherPoints.remove(point);
+				if (otherPoints.isEmpty()) _pointsOn.remove(other);
+			}
+
+			_segmentsAt.remove(point);
+			vanished.put(point, segments);
+		}
+
+		return vanished;
+	}
+
+	/**
+	 * Substitute one object for an equal point throughout the index.
+	 */
+	public void replacePoint(Point old, Point replacement)
+	{
+		Set<Segment> segments = _segmentsAt.remove(old);
+		if (segments == null) return;
+
+		_segmentsAt.put(replacement, segments);
+
+		for (Segment segment : segments)
+		{
+			Set<Point> points = _pointsOn.get(segment);
+			points.remove(old);
+			points.add(replacement);
+		}
+	}
+
+	/**
+	 * @return true if some pair of the segments still crosses (collinear segments do not)
+	 */
+	private static boolean hasCrossingPair(Set<Segment> segments)
+	{
+		List<Segment> list = new ArrayList<Segment>(segments);
+
+		for (int i = 0; i < list.size() - 1; i++)
+		{
+			for (int j = i + 1; j < list.size(); j++)
+			{
+				if (IntersectionDelegate.segmentIntersection(list.get(i), list.get(j)) != null) return true;
+			}
+		}
+
+		return false;
+	}
+
+	public int size() { return _segmentsAt.size(); }
+}
@@ -1,7 +1,10 @@
 package preprocessor.delegates;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import geometry_objects.Segment;
@@ -9,34 +12,164 @@ import geometry_objects.delegates.intersections.IntersectionDelegate;
 import geometry_objects.points.Point;
 import geometry_objects.points.PointDatabase;
 import geometry_objects.points.PointNamingFactory;
+import geometry_objects.points.PointProbe;
 
 public class ImplicitPointPreprocessor
 {
+	/**
+	 * The means by which candidate pairs of segments are found
+	 *    SWEEP_LINE   -- Bentley-Ottmann sweep; O((n + k) log n)
+	 *    UNIFORM_GRID -- only pairs sharing a cell of a uniform grid
+	 *    ALL_PAIRS    -- every pair of segments
+	 *    PARALLEL     -- every pair of segments, split across the common ForkJoinPool
+	 */
+	public enum Strategy { SWEEP_LINE, UNIFORM_GRID, ALL_PAIRS, PARALLEL }
+
 	/**
 	 * It is possible that some of the defined segments intersect
 	 * and points that are not named; we need to capture those
 	 * points and name them.
-	 * 
+	 *
 	 * Algorithm:
-	 *    check for intersection between all segments
+	 *    sweep the segments (Bentley-Ottmann) to find all crossings,
+	 *    then name the new points in the order all pairs would be visited
 	 */
 	public static Set<Point> compute(PointDatabase givenPoints, List<Segment> givenSegments)
 	{
-		Set<Point> implicitPoints = new LinkedHashSet<Point>();
-		PointNamingFactory namer = new PointNamingFactory();
-		
+		return compute(givenPoints, givenSegments, Strategy.SWEEP_LINE);
+	}
+
+	/**
+	 * @param strategy -- the means by which crossings are found; all strategies
+	 *                    produce identical (identically named) points
+	 */
+	public static Set<Point> compute(PointDatabase givenPoints, List<Segment> givenSegments, Strategy strategy)
+	{
+		return nameCrossings(givenPoints, findCrossings(givenSegments, strategy));
+	}
+
+	/**
+	 * @param incidence -- populated with the implicit points lying in the interior of each given segment
+	 */
+	public static Set<Point> compute(PointDatabase givenPoints, List<Segment> givenSegments,
+			                         Strategy strategy, SegmentPointIncidence incidence)
+	{
+		List<SegmentCrossing> crossings = findCrossings(givenSegments, strategy);
+		List<Point> named = new ArrayList<Point>();
+		Set<Point> implicitPoints = nameCrossings(givenPoints, crossings, named);
+
+		recordIncidences(givenSegments, crossings, named, incidence);
+
+		return implicitPoints;
+	}
+
+	/**
+	 * @return all crossings of the given segments sorted by (first, second) segment index
+	 */
+	public static List<SegmentCrossing> findCrossings(List<Segment> givenSegments, Strategy strategy)
+	{
+		switch (strategy)
+		{
+			case UNIFORM_GRID: return new UniformGridBroadPhase(givenSegments).findCrossings();
+			case ALL_PAIRS:    return findCrossingsAllPairs(givenSegments);
+			case PARALLEL:     return ParallelPairIntersector.findCrossings(givenSegments);
+			default:           return SweepLineIntersector.findCrossings(givenSegments);
+		}
+	}
+
+	/**
+	 * Reference implementation: check for intersection between all segments.
+	 *
+	 * @param givenSegments -- a list of segments
+	 * @return all crossings sorted by (first, second) segment index
+	 */
+	static List<SegmentCrossing> findCrossingsAllPairs(List<Segment> givenSegments)
+	{
+		List<SegmentCrossing> crossings = new ArrayList<SegmentCrossing>();
+
 		// Iterate through all combinations of segments
         for(int i=0; i<givenSegments.size()-1; i++) {
         	for(int j=i+1; j<givenSegments.size(); j++) {
         		Point intersect = IntersectionDelegate.segmentIntersection(	givenSegments.get(i),
         																	givenSegments.get(j));
-        		if(intersect != null && givenPoints.getPoint(intersect) == null) {
-        			implicitPoints.add(new Point(namer.getCurrentName(), intersect.getX(), intersect.getY()));
-        		}
+        		if(intersect != null) crossings.add(new SegmentCrossing(i, j, intersect));
             }
         }
-		
+
+		return crossings;
+	}
+
+	/**
+	 * Names the crossings that are not already given points; names are
+	 * generated in the order of the given (sorted) crossings.
+	 *
+	 * Naming happens only here, after all crossings are merged, so the names
+	 * do not depend on how (or on how many threads) the crossings were found.
+	 * A crossing at an existing implicit point is dropped by the set but still
+	 * consumes a name, exactly as in the original all-pairs loop.
+	 *
+	 * @param givenPoints -- the explicit points of the figure
+	 * @param crossings -- crossings sorted by (first, second) segment index
+	 * @return the set of implicit points
+	 */
+	static Set<Point> nameCrossings(PointDatabase givenPoints, List<SegmentCrossing> crossings)
+	{
+		return nameCrossings(givenPoints, crossings, null);
+	}
+
+	/**
+	 * @param named -- if not null, collects the implicit point (the object in the returned set)
+	 *                 of each crossing, in order; null for a crossing at a given point
+	 */
+	private static Set<Point> nameCrossings(PointDatabase givenPoints, List<SegmentCrossing> crossings, List<Point> named)
+	{
+		Set<Point> implicitPoints = new LinkedHashSet<Point>();
+		PointNamingFactory namer = new PointNamingFactory();
+
+		// the implicit point kept at each location (looked up tolerantly: equal points may hash to adjacent cells)
+		Map<Point, Point> kept = new HashMap<Point, Point>();
+
+		for (SegmentCrossing crossing : crossings)
+		{
+			Point point = null;
+
+			Point intersect = crossing.getPoint();
+			if(givenPoints.getPoint(intersect) == null) {
+				point = namer.generate(intersect.getX(), intersect.getY());
+
+				Point existing = PointProbe.get(kept, point);
+				if (existing == null)
+				{
+					kept.put(point, point);
+					implicitPoints.add(point);
+				}
+				else point = existing;
+			}
+
+			if (named != null) named.add(point);
+		}
+
 		return implicitPoints;
 	}
 
+	/**
+	 * Each crossing at an implicit point lies in the interior of both crossing segments;
+	 * record the (named) implicit point with each of them.
+	 *
+	 * @param named -- the implicit point of each crossing, as nameCrossings chose it
+	 */
+	private static void recordIncidences(List<Segment> givenSegments, List<SegmentCrossing> crossings,
+			                             List<Point> named, SegmentPointIncidence incidence)
+	{
+		for (int k = 0; k < crossings.size(); k++)
+		{
+			SegmentCrossing crossing = crossings.get(k);
+
+			Point point = named.get(k);
+			if (point == null) continue;
+
+			incidence.add(givenSegments.get(crossing.getFirst()), point);
+			incidence.add(givenSegments.get(crossing.getSecond()), point);
+		}
+	}
 }
@@ -0,0 +1,109 @@
+package preprocessor.delegates;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+import utilities.math.MathUtilities;
+
+/**
+ * A canonical, hashable description of the (infinite) line through a segment.
+ *
+ * The line  ax + by = c  is normalized so that (a, b) is a unit vector pointing
+ * into the upper half-plane (or along the positive x-axis); each coefficient is
+ * then quantized to a multiple of EPSILON. Collinear segments therefore share a
+ * key, with no slope computation (and no special case for vertical lines).
+ *
+ * Values falling on either side of a quantization boundary can land in adjacent
+ * keys; see neighbors().
+ */
+public class LineKey
+{
+	protected final long _a;
+	protected final long _b;
+	protected final long _c;
+
+	protected LineKey(long a, long b, long c)
+	{
+		_a = a;
+		_b = b;
+		_c = c;
+	}
+
+	/**
+	 * @param segment -- a segment of non-zero length
+	 * @return the key of the line containing the segment
+	 */
+	public static LineKey of(Segment segment)
+	{
+		Point p1 = segment.getPoint1();
+
+		// the normal of the (precomputed) direction
+		double a = segment.dy();
+		double b = -segment.dx();
+		double length = segment.length();
+
+		a /= length;
+		b /= length;
+
+		long qa = quantize(a);
+		if (qa < 0 || (qa == 0 && b < 0))
+		{
+			a = -a;
+			b = -b;
+			qa = -qa;
+		}
+
+		return new LineKey(qa, quantize(b), quantize(a * p1.getX() + b * p1.getY()));
+	}
+
+	private static long quantize(double value)
+	{
+		return Math.round(value / MathUtilities.EPSILON);
+	}
+
+	/**
+	 * @return the 26 keys differing from this key by one quantum in at least one coefficient
+	 */
+	public LineKey[] neighbors()
+	{
+		LineKey[] neighbors = new LineKey[26];
+
+		int n = 0;
+		for (int da = -1; da <= 1; da++)
+		{
+			for (int db = -1; db <= 1; db++)
+			{
+				for (int dc = -1; dc <= 1; dc++)
+				{
+					if (da != 0 || db != 0 || dc != 0) neighbors[n++] = new LineKey(_a + da, _b + db, _c + dc);
+				}
+			}
+		}
+
+		return neighbors;
+	}
+
+	@Override
+	public boolean equals(Object obj)
+	{
+		if (!(obj instanceof LineKey)) return false;
+
+		LineKey that = (LineKey)obj;
+
+		return _a == that._a && _b == that._b && _c == that._c;
+	}
+
+	@Override
+	public int hashCode()
+	{
+		long h = _a * 0x9E3779B97F4A7C15L + _b;
+		h = h * 0x9E3779B97F4A7C15L + _c;
+
+		return (int)(h ^ (h >>> 32));
+	}
+
+	@Override
+	public String toString()
+	{
+		return "LineKey(" + _a + ", " + _b + ", " + _c + ")";
+	}
+}
@@ -0,0 +1,130 @@
+package preprocessor.delegates;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import geometry_objects.Segment;
+import geometry_objects.delegates.intersections.IntersectionDelegate;
+import geometry_objects.points.Point;
+
+/**
+ * Tests every pair of segments for intersection on a ForkJoinPool.
+ *
+ * The (i, j) pair space is split into contiguous ranges of rows i, each
+ * holding about the same number of pairs. Each task returns its crossings
+ * in (i, j) order; concatenating the results of the left and right halves
+ * therefore keeps that order without any sorting. No names are generated
+ * here, so the result does not depend on the number of cores.
+ */
+public class ParallelPairIntersector
+{
+	// Below this many pairs a task tests its pairs directly
+	private static final long SEQUENTIAL_THRESHOLD = 1 << 12;
+
+	/**
+	 * @param segments -- a list of segments
+	 * @return all pairs of segments (by index) whose interiors intersect (on the common pool);
+	 *         sorted by (first, second) index
+	 */
+	public static List<SegmentCrossing> findCrossings(List<Segment> segments)
+	{
+		return findCrossings(segments, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * @param segments -- a list of segments
+	 * @param pool -- the pool on which to test the pairs
+	 * @return all pairs of segments (by index) whose interiors intersect;
+	 *         sorted by (first, second) index
+	 */
+	public static List<SegmentCrossing> findCrossings(List<Segment> segments, ForkJoinPool pool)
+	{
+		if (segments.size() < 2) return new ArrayList<SegmentCrossing>();
+
+		return pool.invoke(new PairRangeTask(segments, 0, segments.size() - 1));
+	}
+
+	/**
+	 * Tests pairs (i, j) with lo <= i < hi and i < j.
+	 */
+	private static class PairRangeTask extends RecursiveTask<List<SegmentCrossing>>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final List<Segment> _segments;
+		private final int _lo;
+		private final int _hi;
+
+		PairRangeTask(List<Segment> segments, int lo, int hi)
+		{
+			_segments = segments;
+			_lo = lo;
+			_hi = hi;
+		}
+
+		/**
+		 * @return the number of pairs in rows [lo, hi)
+		 */
+		private long pairs(int lo, int hi)
+		{
+			int n = _segments.size();
+
+			// row i holds n - 1 - i pairs
+			return (long)(hi - lo) * (2L * n - lo - hi - 1) / 2;
+		}
+
+		@Override
+		protected List<SegmentCrossing> compute()
+		{
+			if (_hi - _lo <= 1 || pairs(_lo, _hi) <= SEQUENTIAL_THRESHOLD) return computeDirectly();
+
+			int mid = balancedSplit();
+
+			PairRangeTask left = new PairRangeTask(_segments, _lo, mid);
+			PairRangeTask right = new PairRangeTask(_segments, mid, _hi);
+
+			left.fork();
+			List<SegmentCrossing> crossings = new ArrayList<SegmentCrossing>(right.compute());
+			crossings.addAll(0, left.join());
+
+			return crossings;
+		}
+
+		/**
+		 * @return the row splitting [lo, hi) into two ranges of about the same number of pairs
+		 */
+		private int balancedSplit()
+		{
+			long half = pairs(_lo, _hi) / 2;
+
+			int lo = _lo + 1;
+			int hi = _hi - 1;
+			while (lo < hi)
+			{
+				int mid = (lo + hi) >>> 1;
+				if (pairs(_lo, mid) < half) lo = mid + 1;
+				else hi = mid;
+			}
+
+			return lo;
+		}
+
+		private List<SegmentCrossing> computeDirectly()
+		{
+			List<SegmentCrossing> crossings = new ArrayList<SegmentCrossing>();
+
+			for (int i = _lo; i < _hi; i++)
+			{
+				for (int j = i + 1; j < _segments.size(); j++)
+				{
+					Point inter = IntersectionDelegate.segmentIntersection(_segments.get(i), _segments.get(j));
+					if (inter != null) crossings.add(new SegmentCrossing(i, j, inter));
+				}
+			}
+
+			return crossings;
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package preprocessor.delegates;
+
+import geometry_objects.points.Point;
+
+/**
+ * A single crossing between two given segments: the indices of the
+ * two segments (in the given-segment list) and the point at which
+ * their interiors intersect.
+ *
+ * Crossings are ordered by (first, second) index; this is exactly the
+ * order in which the all-pairs loop would encounter them.
+ */
+public class SegmentCrossing implements Comparable<SegmentCrossing>
+{
+	protected final int _first;
+	protected final int _second;
+	protected final Point _point;
+
+	public int getFirst() { return _first; }
+	public int getSecond() { return _second; }
+	public Point getPoint() { return _point; }
+
+	/**
+	 * @param i -- index of one segment
+	 * @param j -- index of the other segment
+	 * @param point -- the intersection of the two segments
+	 */
+	public SegmentCrossing(int i, int j, Point point)
+	{
+		_first = Math.min(i, j);
+		_second = Math.max(i, j);
+		_point = point;
+	}
+
+	@Override
+	public int compareTo(SegmentCrossing that)
+	{
+		if (_first != that._first) return Integer.compare(_first, that._first);
+
+		return Integer.compare(_second, that._second);
+	}
+
+	@Override
+	public String toString()
+	{
+		return "(" + _first + ", " + _second + ") " + _point;
+	}
+}
@@ -0,0 +1,67 @@
+package preprocessor.delegates;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+
+/**
+ * Records, for each given segment, the implicit points found in its interior
+ * while intersecting the segments; the preprocessor can then split a segment
+ * using only its own points rather than checking every implicit point.
+ */
+public class SegmentPointIncidence
+{
+	protected Map<Segment, List<Point>> _incidences;
+
+	public SegmentPointIncidence()
+	{
+		_incidences = new HashMap<Segment, List<Point>>();
+	}
+
+	/**
+	 * Record that the point lies in the interior of the segment.
+	 */
+	public void add(Segment segment, Point point)
+	{
+		_incidences.computeIfAbsent(segment, (s) -> new ArrayList<Point>()).add(point);
+	}
+
+	/**
+	 * @param segment -- a given segment
+	 * @return true if no recorded point lies in the interior of the segment
+	 */
+	public boolean isEmpty(Segment segment)
+	{
+		return !_incidences.containsKey(segment);
+	}
+
+	/**
+	 * @param segment -- a given segment
+	 * @return the distinct points in the interior of the segment, lexicographically sorted
+	 *         (an empty list if there are none)
+	 */
+	public List<Point> getOrderedPoints(Segment segment)
+	{
+		List<Point> points = _incidences.get(segment);
+
+		if (points == null) return Collections.emptyList();
+
+		Collections.sort(points);
+
+		// a segment crossing several others at the same point records that point repeatedly
+		List<Point> distinct = new ArrayList<Point>(points.size());
+		for (Point point : points)
+		{
+			if (distinct.isEmpty() || !distinct.get(distinct.size() - 1).equals(point)) distinct.add(point);
+		}
+
+		return distinct;
+	}
+
+	public int size() { return _incidences.size(); }
+}
@@ -0,0 +1,558 @@
+package preprocessor.delegates;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import geometry_objects.Segment;
+import geometry_objects.delegates.intersections.IntersectionDelegate;
+import geometry_objects.points.Point;
+import utilities.math.analytic_geometry.OrientationPredicates;
+
+/**
+ * A Bentley-Ottmann style sweep over a list of segments reporting every
+ * pair of segments whose interiors cross.
+ *
+ * A vertical sweep line moves left to right (lexicographically) across
+ * the event points: segment endpoints and discovered crossings. The status
+ * structure holds the segments currently cut by the sweep line, ordered
+ * bottom to top; only segments that become adjacent in the status are ever
+ * tested against each other. The run time is O((n + k) log n) for n
+ * segments and k crossings.
+ *
+ * Every decision of the sweep (the order of two events, the order of two segments
+ * along the sweep line, whether two segments cross) is exact: it is made in floating
+ * point when the result is clear of the rounding error, and otherwise with BigDecimal
+ * (as in OrientationPredicates). A crossing event is the exact (rational) crossing
+ * point, so events are merged only where they coincide and the status order is never
+ * inconsistent: the sweep meets every pair of segments whose interiors cross at a point.
+ *
+ * The sweep only nominates candidate pairs, each once; the final decision (and the
+ * intersection point itself) always comes from IntersectionDelegate. Its tolerant test
+ * accepts only pairs crossing away from their endpoints, which the exact sweep all
+ * nominates, so the results are identical to testing every pair.
+ */
+public class SweepLineIntersector
+{
+	// the unit roundoff, 2^-53
+	private static final double U = Math.ulp(1.0) / 2;
+
+	/**
+	 * A point of the sweep: a segment endpoint, or the crossing of two segments.
+	 *
+	 * The coordinates are approximated in floating point (an endpoint exactly; a crossing
+	 * within the error bounds errX, errY). The exact coordinates xn/d, yn/d (d > 0) are
+	 * computed only when a comparison is too close to call.
+	 */
+	private static class SweepPoint implements Comparable<SweepPoint>
+	{
+		final double _x;
+		final double _y;
+		final double _errX;
+		final double _errY;
+
+		// the crossing segments (null for an endpoint)
+		final SweepEntry _a;
+		final SweepEntry _b;
+
+		BigDecimal _xn;
+		BigDecimal _yn;
+		BigDecimal _d;
+
+		SweepPoint(Point point)
+		{
+			_x = point.getX();
+			_y = point.getY();
+			_errX = 0;
+			_errY = 0;
+			_a = null;
+			_b = null;
+		}
+
+		/**
+		 * The crossing of the lines of two segments (which properly cross):
+		 * a1 + t (a2 - a1), t = (w x s) / (r x s) with r = a2 - a1, s = b2 - b1, w = b1 - a1.
+		 */
+		SweepPoint(SweepEntry a, SweepEntry b)
+		{
+			_a = a;
+			_b = b;
+
+			double ax = a._left.getX(), ay = a._left.getY();
+			double rx = a._right.getX() - ax, ry = a._right.getY() - ay;
+			double sx = b._right.getX() - b._left.getX(), sy = b._right.getY() - b._left.getY();
+			double wx = b._left.getX() - ax, wy = b._left.getY() - ay;
+
+			double denominator = rx * sy - ry * sx;
+			double numerator = wx * sy - wy * sx;
+
+			// (each product is of two rounded differences)
+			double denominatorError = 8 * U * (Math.abs(rx * sy) + Math.abs(ry * sx));
+			double numeratorError = 8 * U * (Math.abs(wx * sy) + Math.abs(wy * sx));
+
+			double t = numerator / denominator;
+			_x = ax + t * rx;
+			_y = ay + t * ry;
+
+			if (!(Math.abs(denominator) > 2 * denominatorError) || !Double.isFinite(t))
+			{
+				// (nearly) parallel in floating point: every comparison is exact
+				_errX = Double.POSITIVE_INFINITY;
+				_errY = Double.POSITIVE_INFINITY;
+				return;
+			}
+
+			double errT = (numeratorError + Math.abs(t) * denominatorError) / (Math.abs(denominator) - denominatorError) + U * Math.abs(t);
+
+			_errX = Math.abs(rx) * errT * (1 + 4 * U) + 4 * U * (Math.abs(ax) + 2 * Math.abs(t * rx));
+			_errY = Math.abs(ry) * errT * (1 + 4 * U) + 4 * U * (Math.abs(ay) + 2 * Math.abs(t * ry));
+		}
+
+		boolean isExact() { return _errX == 0 && _errY == 0; }
+
+		void computeExact()
+		{
+			if (_d != null) return;
+
+			if (_a == null)
+			{
+				_xn = exact(_x);
+				_yn = exact(_y);
+				_d = BigDecimal.ONE;
+				return;
+			}
+
+			BigDecimal ax = _a.exactLeftX(), ay = _a.exactLeftY();
+			BigDecimal rx = _a.exactDx(), ry = _a.exactDy();
+			BigDecimal sx = _b.exactDx(), sy = _b.exactDy();
+			BigDecimal wx = _b.exactLeftX().subtract(ax), wy = _b.exactLeftY().subtract(ay);
+
+			BigDecimal denominator = rx.multiply(sy).subtract(ry.multiply(sx));
+			BigDecimal numerator = wx.multiply(sy).subtract(wy.multiply(sx));
+
+			BigDecimal xn = ax.multiply(denominator).add(numerator.multiply(rx));
+			BigDecimal yn = ay.multiply(denominator).add(numerator.multiply(ry));
+
+			if (denominator.signum() < 0)
+			{
+				denominator = denominator.negate();
+				xn = xn.negate();
+				yn = yn.negate();
+			}
+
+			_xn = xn;
+			_yn = yn;
+			_d = denominator;
+		}
+
+		/**
+		 * Lexicographic order (x, then y).
+		 */
+		@Override
+		public int compareTo(SweepPoint that)
+		{
+			if (this == that) return 0;
+
+			if (this.isExact() && that.isExact())
+			{
+				if (_x != that._x) return _x < that._x ? -1 : 1;
+				if (_y != that._y) return _y < that._y ? -1 : 1;
+				return 0;
+			}
+
+			double dx = _x - that._x;
+			if (Math.abs(dx) > (_errX + that._errX) * (1 + 4 * U)) return dx < 0 ? -1 : 1;
+
+			this.computeExact();
+			that.computeExact();
+
+			int c = _xn.multiply(that._d).compareTo(that._xn.multiply(_d));
+			if (c != 0) return c;
+
+			double dy = _y - that._y;
+			if (Math.abs(dy) > (_errY + that._errY) * (1 + 4 * U)) return dy < 0 ? -1 : 1;
+
+			return _yn.multiply(that._d).compareTo(that._yn.multiply(_d));
+		}
+	}
+
+	/**
+	 * A segment as seen by the sweep: oriented from its left (first swept) endpoint
+	 * to its right endpoint. Probes are zero-width entries used to bracket the
+	 * run of status segments passing through the current event point.
+	 */
+	private static class SweepEntry
+	{
+		final int _index;
+		final Segment _segment;
+		final Point _left;
+		final Point _right;
+		final SweepPoint _rightEvent;
+		final boolean _vertical;
+		final double _dx;
+		final double _dy;
+		final double _slope;
+		final int _probeSide;
+
+		// the exact coordinates (computed when needed)
+		private BigDecimal _exactLeftX;
+		private BigDecimal _exactLeftY;
+		private BigDecimal _exactDx;
+		private BigDecimal _exactDy;
+
+		SweepEntry(int index, Segment segment, Point left, Point right, SweepPoint rightEvent)
+		{
+			_index = index;
+			_segment = segment;
+			_left = left;
+			_right = right;
+			_rightEvent = rightEvent;
+			_vertical = left.getX() == right.getX();
+			_dx = right.getX() - left.getX();
+			_dy = right.getY() - left.getY();
+			_slope = _vertical ? Double.POSITIVE_INFINITY : _dy / _dx;
+			_probeSide = 0;
+		}
+
+		SweepEntry(int probeSide)
+		{
+			_index = -1;
+			_segment = null;
+			_left = null;
+			_right = null;
+			_rightEvent = null;
+			_vertical = false;
+			_dx = 0;
+			_dy = 0;
+			_slope = 0;
+			_probeSide = probeSide;
+		}
+
+		boolean isProbe() { return _probeSide != 0; }
+
+		BigDecimal exactLeftX()
+		{
+			if (_exactLeftX == null) _exactLeftX = exact(_left.getX());
+			return _exactLeftX;
+		}
+
+		BigDecimal exactLeftY()
+		{
+			if (_exactLeftY == null) _exactLeftY = exact(_left.getY());
+			return _exactLeftY;
+		}
+
+		BigDecimal exactDx()
+		{
+			if (_exactDx == null) _exactDx = exact(_right.getX()).subtract(exactLeftX());
+			return _exactDx;
+		}
+
+		BigDecimal exactDy()
+		{
+			if (_exactDy == null) _exactDy = exact(_right.getY()).subtract(exactLeftY());
+			return _exactDy;
+		}
+	}
+
+	// The current event point (location of the sweep line)
+	private SweepPoint _event;
+
+	private final TreeMap<SweepPoint, List<SweepEntry>> _events;
+	private final TreeSet<SweepEntry> _status;
+
+	private final SweepEntry _lowProbe;
+	private final SweepEntry _highProbe;
+
+	private final List<SegmentCrossing> _crossings;
+
+	// the pairs of segments (by index) tested for a crossing: each pair is decided once
+	private final Set<Long> _tested;
+
+	private SweepLineIntersector()
+	{
+		_events = new TreeMap<SweepPoint, List<SweepEntry>>();
+		_status = new TreeSet<SweepEntry>(this::compareInStatus);
+
+		_lowProbe = new SweepEntry(-1);
+		_highProbe = new SweepEntry(1);
+
+		_crossings = new ArrayList<SegmentCrossing>();
+		_tested = new HashSet<Long>();
+	}
+
+	/**
+	 * @param segments -- a list of segments
+	 * @return all pairs of segments (by index) whose interiors intersect;
+	 *         sorted by (first, second) index
+	 */
+	public static List<SegmentCrossing> findCrossings(List<Segment> segments)
+	{
+		SweepLineIntersector sweep = new SweepLineIntersector();
+
+		sweep.initializeEvents(segments);
+		sweep.sweep();
+
+		Collections.sort(sweep._crossings);
+
+		return sweep._crossings;
+	}
+
+	/**
+	 * Seed the event queue with every segment endpoint; left endpoints carry the
+	 * segments that begin there.
+	 */
+	private void initializeEvents(List<Segment> segments)
+	{
+		for (int i = 0; i < segments.size(); i++)
+		{
+			Segment segment = segments.get(i);
+			SweepPoint p1 = new SweepPoint(segment.getPoint1());
+			SweepPoint p2 = new SweepPoint(segment.getPoint2());
+
+			int order = p1.compareTo(p2);
+
+			// degenerate segments have no interior to cross
+			if (order == 0) continue;
+
+			SweepPoint left = order < 0 ? p1 : p2;
+			SweepPoint right = order < 0 ? p2 : p1;
+
+			SweepEntry entry = order < 0 ? new SweepEntry(i, segment, segment.getPoint1(), segment.getPoint2(), right)
+					                     : new SweepEntry(i, segment, segment.getPoint2(), segment.getPoint1(), right);
+
+			_events.computeIfAbsent(left, (p) -> new ArrayList<SweepEntry>()).add(entry);
+			_events.computeIfAbsent(right, (p) -> new ArrayList<SweepEntry>());
+		}
+	}
+
+	private void sweep()
+	{
+		while (!_events.isEmpty())
+		{
+			Map.Entry<SweepPoint, List<SweepEntry>> event = _events.pollFirstEntry();
+
+			handleEvent(event.getKey(), event.getValue());
+		}
+	}
+
+	/**
+	 * Process one event point p:
+	 *    (1) remove every status segment passing through p
+	 *    (2) report crossings among those that contain p in their interior
+	 *    (3) reinsert the ones that continue past p along with segments beginning at p
+	 *    (4) test the newly adjacent pairs for future crossings
+	 */
+	private void handleEvent(SweepPoint p, List<SweepEntry> starting)
+	{
+		_event = p;
+
+		NavigableSet<SweepEntry> through = _status.subSet(_lowProbe, true, _highProbe, true);
+		List<SweepEntry> interior = new ArrayList<SweepEntry>();
+		for (SweepEntry entry : through)
+		{
+			if (entry._rightEvent.compareTo(p) != 0) interior.add(entry);
+		}
+		through.clear();
+
+		reportCrossings(interior);
+
+		List<SweepEntry> continuing = new ArrayList<SweepEntry>(interior);
+		continuing.addAll(starting);
+		_status.addAll(continuing);
+
+		if (continuing.isEmpty())
+		{
+			checkForEvent(_status.lower(_lowProbe), _status.higher(_highProbe));
+			return;
+		}
+
+		continuing.sort(this::compareInStatus);
+		SweepEntry lowest = continuing.get(0);
+		SweepEntry highest = continuing.get(continuing.size() - 1);
+
+		// the pairs made adjacent at p: the reordered run (whose segments meet only at p)
+		// with its neighbors on either side
+		checkForEvent(_status.lower(lowest), lowest);
+		checkForEvent(highest, _status.higher(highest));
+	}
+
+	/**
+	 * Every pair of segments whose interiors contain the event point is a candidate crossing.
+	 */
+	private void reportCrossings(List<SweepEntry> interior)
+	{
+		for (int i = 0; i < interior.size() - 1; i++)
+		{
+			for (int j = i + 1; j < interior.size(); j++)
+			{
+				report(interior.get(i), interior.get(j));
+			}
+		}
+	}
+
+	/**
+	 * Decide a candidate pair (once) with IntersectionDelegate, as the all-pairs loop does.
+	 */
+	private void report(SweepEntry a, SweepEntry b)
+	{
+		long pair = ((long)Math.min(a._index, b._index) << 32) | Math.max(a._index, b._index);
+		if (!_tested.add(pair)) return;
+
+		Point inter = IntersectionDelegate.segmentIntersection(a._segment, b._segment);
+		if (inter != null) _crossings.add(new SegmentCrossing(a._index, b._index, inter));
+	}
+
+	/**
+	 * If the two (adjacent) segments cross to the right of the sweep line,
+	 * schedule that crossing as an event.
+	 */
+	private void checkForEvent(SweepEntry below, SweepEntry above)
+	{
+		if (below == null || above == null) return;
+
+		if (!properlyCross(below, above)) return;
+
+		SweepPoint crossing = new SweepPoint(below, above);
+		if (crossing.compareTo(_event) > 0)
+		{
+			_events.computeIfAbsent(crossing, (pt) -> new ArrayList<SweepEntry>());
+		}
+	}
+
+	/**
+	 * @return true if the interiors of the segments cross at a single point (exactly)
+	 */
+	private static boolean properlyCross(SweepEntry a, SweepEntry b)
+	{
+		int side1 = OrientationPredicates.orientation(a._left, a._right, b._left);
+		int side2 = OrientationPredicates.orientation(a._left, a._right, b._right);
+		if (side1 * side2 >= 0) return false;
+
+		int side3 = OrientationPredicates.orientation(b._left, b._right, a._left);
+		int side4 = OrientationPredicates.orientation(b._left, b._right, a._right);
+
+		return side3 * side4 < 0;
+	}
+
+	/**
+	 * @return true if the entry is cut by the sweep line exactly at the event point:
+	 *         probes, vertical segments and the crossing segments defining the event
+	 */
+	private boolean atEvent(SweepEntry entry)
+	{
+		return entry.isProbe() || entry._vertical || entry == _event._a || entry == _event._b;
+	}
+
+	/**
+	 * @return the (approximate) y-coordinate at which the entry is cut by the sweep line
+	 */
+	private double sweepY(SweepEntry entry)
+	{
+		if (atEvent(entry)) return _event._y;
+
+		// exact at the endpoints
+		if (_event.isExact() && _event._x == entry._left.getX()) return entry._left.getY();
+		if (_event.isExact() && _event._x == entry._right.getX()) return entry._right.getY();
+
+		return entry._left.getY() + (_event._x - entry._left.getX()) * entry._slope;
+	}
+
+	/**
+	 * @return a bound on the error of sweepY(entry)
+	 */
+	private double sweepYError(SweepEntry entry)
+	{
+		if (atEvent(entry)) return _event._errY;
+
+		if (_event.isExact() && (_event._x == entry._left.getX() || _event._x == entry._right.getX())) return 0;
+
+		if (_event._errX == Double.POSITIVE_INFINITY) return Double.POSITIVE_INFINITY;
+
+		double slope = Math.abs(entry._slope);
+
+		return slope * _event._errX * (1 + 8 * U) + 16 * U * (Math.abs(entry._left.getY()) + Math.abs(_event._x - entry._left.getX()) * slope);
+	}
+
+	/**
+	 * @return the exact y-coordinate at which the entry is cut by the sweep line, as
+	 *         { numerator, denominator } (denominator > 0)
+	 */
+	private BigDecimal[] exactSweepY(SweepEntry entry)
+	{
+		_event.computeExact();
+
+		if (atEvent(entry)) return new BigDecimal[] { _event._yn, _event._d };
+
+		// y = ly + (xn / d - lx) dy / dx
+		BigDecimal dx = entry.exactDx();
+		BigDecimal numerator = entry.exactLeftY().multiply(dx).multiply(_event._d)
+				                    .add(_event._xn.subtract(entry.exactLeftX().multiply(_event._d)).multiply(entry.exactDy()));
+
+		return new BigDecimal[] { numerator, dx.multiply(_event._d) };
+	}
+
+	/**
+	 * Status order: bottom to top along the sweep line; segments meeting at the
+	 * sweep line are ordered as they are immediately to the right of it (by slope).
+	 */
+	private int compareInStatus(SweepEntry a, SweepEntry b)
+	{
+		if (a == b) return 0;
+
+		int c = compareSweepY(a, b);
+		if (c != 0) return c;
+
+		if (a.isProbe()) return a._probeSide;
+		if (b.isProbe()) return -b._probeSide;
+
+		c = compareSlopes(a, b);
+		if (c != 0) return c;
+
+		return Integer.compare(a._index, b._index);
+	}
+
+	private int compareSweepY(SweepEntry a, SweepEntry b)
+	{
+		if (atEvent(a) && atEvent(b)) return 0;
+
+		double ya = sweepY(a);
+		double yb = sweepY(b);
+		double error = sweepYError(a) + sweepYError(b);
+
+		double difference = ya - yb;
+		if (error == 0) return difference < 0 ? -1 : (difference > 0 ? 1 : 0);
+		if (Math.abs(difference) > error * (1 + 4 * U)) return difference < 0 ? -1 : 1;
+
+		BigDecimal[] exactA = exactSweepY(a);
+		BigDecimal[] exactB = exactSweepY(b);
+
+		return exactA[0].multiply(exactB[1]).compareTo(exactB[0].multiply(exactA[1]));
+	}
+
+	/**
+	 * Compare slopes (a vertical segment is steepest).
+	 */
+	private static int compareSlopes(SweepEntry a, SweepEntry b)
+	{
+		if (a._vertical || b._vertical) return Boolean.compare(a._vertical, b._vertical);
+
+		// dy_a / dx_a  vs  dy_b / dx_b  with dx > 0
+		double left = a._dy * b._dx;
+		double right = b._dy * a._dx;
+		double determinant = left - right;
+
+		if (Math.abs(determinant) > 8 * U * (Math.abs(left) + Math.abs(right))) return determinant < 0 ? -1 : 1;
+
+		return a.exactDy().multiply(b.exactDx()).compareTo(b.exactDy().multiply(a.exactDx()));
+	}
+
+	private static BigDecimal exact(double value) { return new BigDecimal(value); }
+}
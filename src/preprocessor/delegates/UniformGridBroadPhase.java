@@ -0,0 +1,216 @@
+package preprocessor.delegates;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import geometry_objects.Segment;
+import geometry_objects.delegates.intersections.IntersectionDelegate;
+import geometry_objects.points.Point;
+import utilities.math.MathUtilities;
+
+/**
+ * A uniform-grid broad phase for segment-segment intersection.
+ *
+ * The bounding box of each segment is bucketed into the cells of a grid
+ * laid over the extent of the figure (roughly sqrt(n) x sqrt(n) cells).
+ * Only pairs of segments sharing a cell are handed to the exact
+ * intersection test; all other pairs cannot intersect.
+ *
+ * A pair of segments sharing several cells is only reported once: in the cell
+ * containing the lower-left corner of the overlap of their bounding boxes.
+ */
+public class UniformGridBroadPhase
+{
+	protected final List<Segment> _segments;
+
+	// Bounding boxes (padded by EPSILON) indexed by segment
+	protected final double[] _minX;
+	protected final double[] _minY;
+	protected final double[] _maxX;
+	protected final double[] _maxY;
+
+	// Grid geometry
+	protected double _originX;
+	protected double _originY;
+	protected double _cellWidth;
+	protected double _cellHeight;
+	protected int _columns;
+	protected int _rows;
+
+	//
+	// Compressed cell contents: the segments in cell c are
+	// _cellSegments[_cellStart[c]] .. _cellSegments[_cellStart[c + 1] - 1]
+	//
+	protected int[] _cellStart;
+	protected int[] _cellSegments;
+
+	// Number of pairs handed to the exact test
+	protected long _candidates;
+
+	public long getCandidateCount() { return _candidates; }
+	public long getPairCount() { return (long)_segments.size() * (_segments.size() - 1) / 2; }
+	public int getColumns() { return _columns; }
+	public int getRows() { return _rows; }
+
+	/**
+	 * @return the fraction of all pairs that survived the broad phase (0 when there are no pairs)
+	 */
+	public double getCandidateRatio()
+	{
+		long pairs = getPairCount();
+
+		return pairs == 0 ? 0 : (double)_candidates / pairs;
+	}
+
+	public UniformGridBroadPhase(List<Segment> segments)
+	{
+		_segments = segments;
+
+		int n = segments.size();
+		_minX = new double[n];
+		_minY = new double[n];
+		_maxX = new double[n];
+		_maxY = new double[n];
+
+		computeBoundingBoxes();
+		sizeGrid();
+		bucketSegments();
+	}
+
+	private void computeBoundingBoxes()
+	{
+		for (int i = 0; i < _segments.size(); i++)
+		{
+			Point p1 = _segments.get(i).getPoint1();
+			Point p2 = _segments.get(i).getPoint2();
+
+			_minX[i] = Math.min(p1.getX(), p2.getX()) - MathUtilities.EPSILON;
+			_minY[i] = Math.min(p1.getY(), p2.getY()) - MathUtilities.EPSILON;
+			_maxX[i] = Math.max(p1.getX(), p2.getX()) + MathUtilities.EPSILON;
+			_maxY[i] = Math.max(p1.getY(), p2.getY()) + MathUtilities.EPSILON;
+		}
+	}
+
+	/**
+	 * Lay a grid of about sqrt(n) x sqrt(n) cells over the extent of all segments.
+	 */
+	private void sizeGrid()
+	{
+		double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+
+		for (int i = 0; i < _segments.size(); i++)
+		{
+			minX = Math.min(minX, _minX[i]);
+			minY = Math.min(minY, _minY[i]);
+			maxX = Math.max(maxX, _maxX[i]);
+			maxY = Math.max(maxY, _maxY[i]);
+		}
+
+		int side = Math.max(1, (int)Math.ceil(Math.sqrt(_segments.size())));
+
+		_columns = side;
+		_rows = side;
+		_originX = _segments.isEmpty() ? 0 : minX;
+		_originY = _segments.isEmpty() ? 0 : minY;
+		_cellWidth = _segments.isEmpty() ? 1 : Math.max((maxX - minX) / _columns, MathUtilities.EPSILON);
+		_cellHeight = _segments.isEmpty() ? 1 : Math.max((maxY - minY) / _rows, MathUtilities.EPSILON);
+	}
+
+	private int column(double x) { return Math.max(0, Math.min(_columns - 1, (int)((x - _originX) / _cellWidth))); }
+	private int row(double y) { return Math.max(0, Math.min(_rows - 1, (int)((y - _originY) / _cellHeight))); }
+
+	/**
+	 * Two passes over the segments: count the segments per cell, then fill the cells.
+	 */
+	private void bucketSegments()
+	{
+		int cells = _columns * _rows;
+		_cellStart = new int[cells + 1];
+
+		for (int i = 0; i < _segments.size(); i++)
+		{
+			for (int r = row(_minY[i]); r <= row(_maxY[i]); r++)
+			{
+				for (int c = column(_minX[i]); c <= column(_maxX[i]); c++)
+				{
+					_cellStart[r * _columns + c + 1]++;
+				}
+			}
+		}
+
+		for (int c = 0; c < cells; c++) _cellStart[c + 1] += _cellStart[c];
+
+		_cellSegments = new int[_cellStart[cells]];
+		int[] fill = new int[cells];
+
+		for (int i = 0; i < _segments.size(); i++)
+		{
+			for (int r = row(_minY[i]); r <= row(_maxY[i]); r++)
+			{
+				for (int c = column(_minX[i]); c <= column(_maxX[i]); c++)
+				{
+					int cell = r * _columns + c;
+					_cellSegments[_cellStart[cell] + fill[cell]++] = i;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return true if the bounding boxes of segments i and j overlap and cell
+	 *         (r, c) is the one responsible for reporting the pair
+	 */
+	private boolean ownsPair(int i, int j, int r, int c)
+	{
+		if (_maxX[i] < _minX[j] || _maxX[j] < _minX[i]) return false;
+		if (_maxY[i] < _minY[j] || _maxY[j] < _minY[i]) return false;
+
+		return column(Math.max(_minX[i], _minX[j])) == c && row(Math.max(_minY[i], _minY[j])) == r;
+	}
+
+	/**
+	 * @return all pairs of segments (by index) whose interiors intersect;
+	 *         sorted by (first, second) index
+	 */
+	public List<SegmentCrossing> findCrossings()
+	{
+		List<SegmentCrossing> crossings = new ArrayList<SegmentCrossing>();
+		_candidates = 0;
+
+		for (int r = 0; r < _rows; r++)
+		{
+			for (int c = 0; c < _columns; c++)
+			{
+				int cell = r * _columns + c;
+
+				for (int a = _cellStart[cell]; a < _cellStart[cell + 1] - 1; a++)
+				{
+					for (int b = a + 1; b < _cellStart[cell + 1]; b++)
+					{
+						int i = _cellSegments[a];
+						int j = _cellSegments[b];
+
+						if (!ownsPair(i, j, r, c)) continue;
+
+						_candidates++;
+
+						Point inter = IntersectionDelegate.segmentIntersection(_segments.get(i), _segments.get(j));
+						if (inter != null) crossings.add(new SegmentCrossing(i, j, inter));
+					}
+				}
+			}
+		}
+
+		crossings.sort(null);
+
+		return crossings;
+	}
+
+	@Override
+	public String toString()
+	{
+		return _columns + "x" + _rows + " grid: " + _candidates + " candidates of " + getPairCount() +
+			   " pairs (" + String.format("%.2f", 100 * getCandidateRatio()) + "%)";
+	}
+}
@@ -0,0 +1,159 @@
+package utilities.io;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A Reader of a (UTF-8) file that filters all comments using    // ...
+ * as readFileFilterComments does: everything from // to the end of the line is dropped.
+ *
+ * The file is memory-mapped (a region at a time) and decoded straight into the caller's
+ * buffer, where the comments are removed in place: the file is scanned once, and neither
+ * its bytes nor its text are copied as a whole.
+ */
+public class MappedCommentFilterReader extends Reader
+{
+	// the largest region of the file mapped at once
+	private static final long REGION = 1L << 30;
+
+	private final FileChannel _channel;
+	private final long _length;
+
+	private MappedByteBuffer _region;
+	private long _regionStart;
+
+	private final CharsetDecoder _decoder;
+	private boolean _flushed;
+
+	// within a comment (up to the end of the line)
+	private boolean _inComment;
+
+	public MappedCommentFilterReader(String filepath) throws IOException
+	{
+		_channel = FileChannel.open(Path.of(filepath), StandardOpenOption.READ);
+		_length = _channel.size();
+
+		_decoder = StandardCharsets.UTF_8.newDecoder()
+				                         .onMalformedInput(CodingErrorAction.REPLACE)
+				                         .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+		map(0);
+	}
+
+	private void map(long start) throws IOException
+	{
+		_regionStart = start;
+		_region = _channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(REGION, _length - start));
+	}
+
+	@Override
+	public int read(char[] buffer, int offset, int length) throws IOException
+	{
+		if (length == 0) return 0;
+
+		while (true)
+		{
+			int count = decode(buffer, offset, length);
+			if (count < 0) return -1;
+
+			int kept = filter(buffer, offset, offset + count);
+			if (kept > 0) return kept;
+		}
+	}
+
+	/**
+	 * Remove the comments from buffer[offset .. end) in place.
+	 *
+	 * @return the number of characters kept (from offset)
+	 */
+	private int filter(char[] buffer, int offset, int end) throws IOException
+	{
+		int to = offset;
+
+		for (int from = offset; from < end; from++)
+		{
+			char c = buffer[from];
+
+			if (_inComment)
+			{
+				if (c != '\n') continue;
+				_inComment = false;
+			}
+			else if (c == '/')
+			{
+				// (a '/' ending the buffer: the next byte of the file decides)
+				int next = from + 1 < end ? buffer[from + 1] : peek();
+				if (next == '/')
+				{
+					_inComment = true;
+					continue;
+				}
+			}
+
+			buffer[to++] = c;
+		}
+
+		return to - offset;
+	}
+
+	/**
+	 * @return the next byte of the file (not consumed); -1 at the end of the file
+	 */
+	private int peek() throws IOException
+	{
+		if (!_region.hasRemaining())
+		{
+			if (_regionStart + _region.capacity() == _length) return -1;
+
+			map(_regionStart + _region.position());
+		}
+
+		return _region.get(_region.position());
+	}
+
+	/**
+	 * Decode the next characters of the file into buffer[offset .. offset + length).
+	 *
+	 * @return the number of characters decoded; -1 at the end of the file
+	 */
+	private int decode(char[] buffer, int offset, int length) throws IOException
+	{
+		CharBuffer chars = CharBuffer.wrap(buffer, offset, length);
+
+		while (chars.position() == offset && !_flushed)
+		{
+			boolean last = _regionStart + _region.capacity() == _length;
+
+			CoderResult result = _decoder.decode(_region, chars, last);
+			if (result.isOverflow()) break;
+
+			// the region is used up (but for a character split across its end)
+			if (!last) map(_regionStart + _region.position());
+			else
+			{
+				_decoder.flush(chars);
+				_flushed = true;
+			}
+		}
+
+		int count = chars.position() - offset;
+
+		return count == 0 && _flushed ? -1 : count;
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		_channel.close();
+		_region = null;
+	}
+}
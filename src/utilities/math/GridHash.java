@@ -0,0 +1,62 @@
+package utilities.math;
+
+/**
+ * Hashing of points consistent (up to a neighboring cell) with equality within EPSILON.
+ *
+ * The plane is divided into square cells of side 2 * EPSILON; a coordinate pair snaps
+ * to the cell containing it. Two pairs equal within EPSILON in each coordinate lie in
+ * the same cell or in a cell adjacent on the side() of each coordinate, so a hashed
+ * lookup that misses the cell of the query needs to probe at most 3 more cells:
+ *
+ *          |          |
+ *     -----+----------+-----      a point in the upper right quarter of its cell
+ *          |       *  |           is only equal to points in this cell or in the
+ *          |          |           cells to the right, above, and above right
+ *     -----+----------+-----
+ *
+ * The hash mixes both cell coordinates packed into one long: unlike a sum of
+ * coordinate hashes, (a, b) and (b, a) do not collide.
+ */
+public class GridHash
+{
+    private static final double CELL_SIZE = 2 * MathUtilities.EPSILON;
+
+    /**
+     * @return the cell index of a coordinate
+     */
+    public static long cell(double value)
+    {
+        return Math.round(value / CELL_SIZE);
+    }
+
+    /**
+     * @return the direction (-1 or +1) of the only adjacent cell that may hold values equal to the given one
+     */
+    public static int side(double value)
+    {
+        return value / CELL_SIZE < cell(value) ? -1 : 1;
+    }
+
+    public static int hash(double x, double y)
+    {
+        return hash(cell(x), cell(y));
+    }
+
+    /**
+     * @return the hash of the cell (cellX, cellY)
+     */
+    public static int hash(long cellX, long cellY)
+    {
+        // pack the (low 32 bits of the) cell coordinates; the high bits fold in as well
+        long key = (cellX << 32) ^ (cellY & 0xFFFFFFFFL) ^ ((cellX >> 32) * 0x9E3779B97F4A7C15L) ^ (cellY >> 32);
+
+        // the 64-bit finalizer of MurmurHash3
+        key ^= key >>> 33;
+        key *= 0xFF51AFD7ED558CCDL;
+        key ^= key >>> 33;
+        key *= 0xC4CEB9FE1A85EC53L;
+        key ^= key >>> 33;
+
+        return (int)key;
+    }
+}
@@ -23,13 +23,12 @@ public class GeometryUtilities
 	 * @param B -- a point
 	 * @return true if the three points are (1) collinear and (2) M is between A and B
 	 *                                     A-------------M---------B
+	 *         (both within EPSILON; see OrientationPredicates)
 	 * Note: returns true if M is one of the endpoints
 	 */
 	public static boolean between(Point M, Point A, Point B)
 	{
-		return MathUtilities.doubleEquals(GeometryUtilities.distance(A, M) +
-                                          GeometryUtilities.distance(M, B),
-                                          GeometryUtilities.distance(A, B));
+		return OrientationPredicates.between(M, A, B);
 	}
     
     /*
@@ -0,0 +1,187 @@
+package utilities.math.analytic_geometry;
+
+import java.math.BigDecimal;
+
+import geometry_objects.points.Point;
+import utilities.math.MathUtilities;
+
+/**
+ * Geometric predicates built on the cross and dot products of coordinate differences
+ * (no square roots, no slopes).
+ *
+ * Each predicate first evaluates in floating point; only when the result is within the
+ * rounding error of the decision boundary is it re-evaluated exactly with BigDecimal.
+ * The error bound is Shewchuk's for the 2D orientation determinant.
+ */
+public class OrientationPredicates
+{
+    // (3 + 16u)u with u = 2^-53: bounds the error of the orientation determinant
+    private static final double ORIENTATION_ERROR_BOUND = (3.0 + 16.0 * Math.ulp(1.0) / 2) * Math.ulp(1.0) / 2;
+
+    // the relative error of det^2 in between(), per unit of |dx| + |dy|
+    private static final double BETWEEN_ERROR_FACTOR = 3 * ORIENTATION_ERROR_BOUND / MathUtilities.EPSILON;
+
+    // relative slack for the (few) roundings in the squared tolerance comparisons
+    private static final double TOLERANCE_SLACK = 1e-14;
+
+    private static final double EPSILON_SQUARED = MathUtilities.EPSILON * MathUtilities.EPSILON;
+
+    private static final BigDecimal EXACT_EPSILON = new BigDecimal(MathUtilities.EPSILON);
+
+    /**
+     * @return +1 if A, B, C turn counterclockwise, -1 if clockwise, 0 if exactly collinear
+     */
+    public static int orientation(Point A, Point B, Point C)
+    {
+        double left = (B.getX() - A.getX()) * (C.getY() - A.getY());
+        double right = (B.getY() - A.getY()) * (C.getX() - A.getX());
+        double det = left - right;
+
+        // (a non-finite determinant has no exact counterpart)
+        if (!Double.isFinite(det)) return (int)Math.signum(det);
+
+        if (Math.abs(det) > ORIENTATION_ERROR_BOUND * (Math.abs(left) + Math.abs(right))) return (int)Math.signum(det);
+
+        return exactCross(A, B, C).signum();
+    }
+
+    /*
+     * @return true if M lies within EPSILON of the (infinite) line through A and B
+     *         (for A and B within EPSILON of each other: if M is within EPSILON of A)
+     */
+    public static boolean collinear(Point A, Point B, Point M)
+    {
+        return collinear(A.getX(), A.getY(), B.getX(), B.getY(), M.getX(), M.getY());
+    }
+
+    /*
+     * collinear() on raw coordinates: (mx, my) is within EPSILON of the line through (ax, ay) and (bx, by)
+     */
+    public static boolean collinear(double ax, double ay, double bx, double by, double mx, double my)
+    {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+
+        if (lengthSquared < EPSILON_SQUARED) return withinEpsilon(ax, ay, mx, my);
+
+        return withinEpsilonOfLine(ax, ay, bx, by, mx, my, dx, dy, lengthSquared);
+    }
+
+    /*
+     * @return true if M is within EPSILON of the segment AB:
+     *                 A-------------M---------B
+     * Note: returns true if M is one of the endpoints
+     */
+    public static boolean between(Point M, Point A, Point B)
+    {
+        return between(M.getX(), M.getY(), A.getX(), A.getY(), B.getX(), B.getY());
+    }
+
+    /*
+     * between() on raw coordinates: (mx, my) is within EPSILON of the segment (ax, ay)--(bx, by)
+     */
+    public static boolean between(double mx, double my, double ax, double ay, double bx, double by)
+    {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double px = mx - ax;
+        double py = my - ay;
+
+        double lengthSquared = dx * dx + dy * dy;
+        double tolerance = EPSILON_SQUARED * lengthSquared;
+
+        // the projection of M onto AB (scaled by |AB|^2) lies within EPSILON * |AB| of [0, |AB|^2]
+        double dot = px * dx + py * dy;
+        double overshoot = Math.max(0, Math.max(-dot, dot - lengthSquared));
+        double spanExcess = overshoot * overshoot - tolerance;
+
+        // |AB x AM| / |AB| <= EPSILON, compared squared
+        double det = dx * py - dy * px;
+        double lineExcess = det * det - tolerance;
+
+        // Where it matters (M spans AB and lies near the tolerance), |AM| <= |dx| + |dy| + 2 EPSILON:
+        // this bounds the relative error of det^2 without computing the exact error terms
+        double band = tolerance * (BETWEEN_ERROR_FACTOR * (Math.abs(dx) + Math.abs(dy) + 2 * MathUtilities.EPSILON) + TOLERANCE_SLACK);
+
+        // A single, almost never taken, branch for the rare cases:
+        //   (1) A and B (nearly) coincide or
+        //   (2) M spans AB and det^2 is within the error band of the tolerance
+        if (lengthSquared < EPSILON_SQUARED | (spanExcess <= 0 & Math.abs(lineExcess) <= band))
+        {
+            if (lengthSquared < EPSILON_SQUARED) return px * px + py * py < EPSILON_SQUARED;
+
+            return exactlyWithinEpsilonOfLine(ax, ay, bx, by, mx, my);
+        }
+
+        // (non-short-circuit: a mispredicted branch costs more than the arithmetic)
+        return spanExcess <= 0 & lineExcess <= 0;
+    }
+
+    /*
+     * between() excluding the endpoints (as Point.equals: each coordinate within EPSILON)
+     */
+    public static boolean strictlyBetween(double mx, double my, double ax, double ay, double bx, double by)
+    {
+        if (Math.abs(mx - ax) < MathUtilities.EPSILON && Math.abs(my - ay) < MathUtilities.EPSILON) return false;
+        if (Math.abs(mx - bx) < MathUtilities.EPSILON && Math.abs(my - by) < MathUtilities.EPSILON) return false;
+
+        return between(mx, my, ax, ay, bx, by);
+    }
+
+    /*
+     * |AB x AM| / |AB| <= EPSILON, compared squared
+     */
+    private static boolean withinEpsilonOfLine(double ax, double ay, double bx, double by, double mx, double my,
+                                               double dx, double dy, double lengthSquared)
+    {
+        double left = dx * (my - ay);
+        double right = dy * (mx - ax);
+        double det = Math.abs(left - right);
+        double error = ORIENTATION_ERROR_BOUND * (Math.abs(left) + Math.abs(right));
+        double tolerance = EPSILON_SQUARED * lengthSquared;
+
+        // fast path: clearly inside or clearly outside the tolerance
+        if ((det + error) * (det + error) < tolerance * (1 - TOLERANCE_SLACK)) return true;
+        if (det > error && (det - error) * (det - error) > tolerance * (1 + TOLERANCE_SLACK)) return false;
+
+        return exactlyWithinEpsilonOfLine(ax, ay, bx, by, mx, my);
+    }
+
+    /*
+     * The exact (BigDecimal) counterpart of withinEpsilonOfLine; kept out of line so the fast paths stay small.
+     */
+    private static boolean exactlyWithinEpsilonOfLine(double ax, double ay, double bx, double by, double mx, double my)
+    {
+        // e.g., a point at infinity (the 'intersection' of parallel lines)
+        if (!(Double.isFinite(mx) && Double.isFinite(my))) return false;
+
+        BigDecimal exactDx = exact(bx).subtract(exact(ax));
+        BigDecimal exactDy = exact(by).subtract(exact(ay));
+        BigDecimal exactDet = exactDx.multiply(exact(my).subtract(exact(ay)))
+                                     .subtract(exactDy.multiply(exact(mx).subtract(exact(ax))));
+        BigDecimal exactTolerance = EXACT_EPSILON.multiply(EXACT_EPSILON)
+                                                 .multiply(exactDx.multiply(exactDx).add(exactDy.multiply(exactDy)));
+
+        return exactDet.multiply(exactDet).compareTo(exactTolerance) <= 0;
+    }
+
+    private static boolean withinEpsilon(double ax, double ay, double mx, double my)
+    {
+        double dx = mx - ax;
+        double dy = my - ay;
+
+        return dx * dx + dy * dy < EPSILON_SQUARED;
+    }
+
+    private static BigDecimal exactCross(Point A, Point B, Point C)
+    {
+        BigDecimal ax = exact(A.getX());
+        BigDecimal ay = exact(A.getY());
+
+        return exact(B.getX()).subtract(ax).multiply(exact(C.getY()).subtract(ay))
+                .subtract(exact(B.getY()).subtract(ay).multiply(exact(C.getX()).subtract(ax)));
+    }
+
+    private static BigDecimal exact(double value) { return new BigDecimal(value); }
+}
@@ -0,0 +1,146 @@
+package utilities.memory;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An arena of off-heap (direct) memory: blocks are carved out of large slabs and
+ * are all released together when the arena is closed.
+ *
+ * A block is referred to by an int handle; its buffer is obtained through the arena
+ * (doubles(handle), ints(handle)). Owners keep only the handles, so once the arena
+ * is closed nothing references the slabs and any further access fails:
+ *
+ *     try (OffHeapArena arena = new OffHeapArena())
+ *     {
+ *         int block = arena.allocateDoubles(1024);
+ *         arena.doubles(block).put(0, 3.5);
+ *     }
+ *
+ * (Java 17 has no explicit free of direct memory: a closed arena's slabs are
+ * returned when the garbage collector reclaims those few slab objects.)
+ */
+public class OffHeapArena implements AutoCloseable
+{
+    private static final int SLAB_BYTES = 1 << 20;
+
+    // blocks are aligned to the largest element (a double)
+    private static final int ALIGNMENT = Double.BYTES;
+
+    private List<ByteBuffer> _slabs;
+    private ByteBuffer _current;
+
+    // the views of the blocks, by handle
+    private Buffer[] _blocks;
+    private int _blockCount;
+
+    private long _allocated;
+
+    public OffHeapArena()
+    {
+        _slabs = new ArrayList<ByteBuffer>();
+        _blocks = new Buffer[16];
+    }
+
+    /**
+     * @return the handle of a block of count doubles (zeroed)
+     */
+    public int allocateDoubles(int count)
+    {
+        return register(allocate(Math.multiplyExact(count, Double.BYTES)).asDoubleBuffer());
+    }
+
+    /**
+     * @return the handle of a block of count ints (zeroed)
+     */
+    public int allocateInts(int count)
+    {
+        return register(allocate(Math.multiplyExact(count, Integer.BYTES)).asIntBuffer());
+    }
+
+    public DoubleBuffer doubles(int handle) { return (DoubleBuffer)block(handle); }
+
+    public IntBuffer ints(int handle) { return (IntBuffer)block(handle); }
+
+    private Buffer block(int handle)
+    {
+        // (null once closed)
+        Buffer[] blocks = _blocks;
+        if (blocks == null) ensureOpen();
+
+        return blocks[handle];
+    }
+
+    private int register(Buffer block)
+    {
+        if (_blockCount == _blocks.length) _blocks = Arrays.copyOf(_blocks, 2 * _blocks.length);
+
+        _blocks[_blockCount] = block;
+
+        return _blockCount++;
+    }
+
+    /**
+     * Carve a block out of the current slab (a block larger than a slab gets a slab of its own).
+     */
+    private ByteBuffer allocate(int bytes)
+    {
+        ensureOpen();
+
+        int aligned = (bytes + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+
+        if (aligned > SLAB_BYTES) return slice(newSlab(aligned), aligned);
+
+        if (_current == null || _current.remaining() < aligned) _current = newSlab(SLAB_BYTES);
+
+        return slice(_current, aligned);
+    }
+
+    private ByteBuffer newSlab(int bytes)
+    {
+        ByteBuffer slab = ByteBuffer.allocateDirect(bytes);
+        _slabs.add(slab);
+        _allocated += bytes;
+
+        return slab;
+    }
+
+    private static ByteBuffer slice(ByteBuffer slab, int bytes)
+    {
+        ByteBuffer block = slab.slice(slab.position(), bytes).order(ByteOrder.nativeOrder());
+        slab.position(slab.position() + bytes);
+
+        return block;
+    }
+
+    /**
+     * @return the bytes of direct memory held (the slabs, used or not)
+     */
+    public long bytesAllocated() { return _allocated; }
+
+    public boolean isOpen() { return _slabs != null; }
+
+    private void ensureOpen()
+    {
+        if (!isOpen()) throw new IllegalStateException("the arena is closed");
+    }
+
+    /**
+     * Release every block at once; the handles become invalid.
+     */
+    @Override
+    public void close()
+    {
+        _slabs = null;
+        _blocks = null;
+        _blockCount = 0;
+        _current = null;
+        _allocated = 0;
+    }
+}
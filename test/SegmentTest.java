@@ -178,4 +178,122 @@ class SegmentTest {
 		assertFalse(RP.contains(H));
 		assertFalse(RP.contains(I));
 	}
+
+	@Test
+	void isCollinearWithParallelSegmentsTest() {
+		// tests isCollinearWith(Segment that)
+		// parallel (but distinct) lines are not collinear:
+		//                         C-------D
+		//              A-------B
+		//                              E-------F
+		Segment AB = new Segment(new Point("A", 0, 0), new Point("B", 2, 1));
+		Segment CD = new Segment(new Point("C", 4, 2), new Point("D", 8, 4));
+		Segment EF = new Segment(new Point("E", 4, 1), new Point("F", 8, 3));
+
+		assertTrue(AB.isCollinearWith(CD));
+		assertTrue(CD.isCollinearWith(AB));
+		assertFalse(AB.isCollinearWith(EF));
+
+		// vertical
+		Segment GH = new Segment(new Point("G", 1, 0), new Point("H", 1, 5));
+		Segment IJ = new Segment(new Point("I", 1, 7), new Point("J", 1, 9));
+		Segment KL = new Segment(new Point("K", 1.1, 7), new Point("L", 1.1, 9));
+		assertTrue(GH.isCollinearWith(IJ));
+		assertFalse(GH.isCollinearWith(KL));
+	}
+
+	@Test
+	void pointLiesOnSegmentToleranceTest() {
+		// tests pointLiesOnSegment(Point pt) near the EPSILON tolerance
+		//              A----------------------B
+		Segment AB = new Segment(new Point("A", 0, 0), new Point("B", 10, 0));
+
+		assertTrue(AB.pointLiesOnSegment(new Point(5, 0.0000009)));
+		assertFalse(AB.pointLiesOnSegment(new Point(5, 0.0000011)));
+		assertTrue(AB.pointLiesOnSegment(new Point(10.0000009, 0)));
+		assertFalse(AB.pointLiesOnSegment(new Point(10.0000011, 0)));
+		assertFalse(AB.pointLiesBetweenEndpoints(new Point(10, 0)));
+
+		// a long, steep segment: (1/3, 0) to (1/3 + 1000, 3000); points exactly on it and just off it
+		Point C = new Point("C", 1.0 / 3, 0);
+		Point D = new Point("D", 1.0 / 3 + 1000, 3000);
+		Segment CD = new Segment(C, D);
+		for (int k = 1; k < 1000; k += 37) {
+			Point on = new Point(C.getX() + k, 3 * k);
+			assertTrue(CD.pointLiesBetweenEndpoints(on));
+			assertFalse(CD.pointLiesOnSegment(new Point(on.getX() + 0.00001, on.getY())));
+		}
+	}
+
+	@Test
+	void segmentIntersectionTest() {
+		// tests segmentIntersection(Segment that)
+		//          C     E
+		//          |     |
+		//    A-----+-----F----B
+		//          |
+		//          D              G-----H
+		Point A = new Point("A", 0, 0);
+		Point B = new Point("B", 10, 0);
+		Point C = new Point("C", 3, 4);
+		Point D = new Point("D", 3, -4);
+		Point E = new Point("E", 6, 4);
+		Point F = new Point("F", 6, 0);
+		Segment AB = new Segment(A, B);
+		Segment CD = new Segment(C, D);
+
+		// a crossing in the middle of both segments; the order of the arguments (and endpoints) does not matter
+		assertEquals(new Point(3, 0), AB.segmentIntersection(CD));
+		assertEquals(AB.segmentIntersection(CD).getX(), new Segment(D, C).segmentIntersection(new Segment(B, A)).getX());
+
+		// an endpoint on the other segment, parallel segments, and segments far apart do not cross
+		assertNull(AB.segmentIntersection(new Segment(E, F)));
+		assertNull(AB.segmentIntersection(new Segment(new Point(0, 1), new Point(10, 1))));
+		assertNull(AB.segmentIntersection(new Segment(new Point("G", 20, -4), new Point("H", 25, -4))));
+		assertNull(CD.segmentIntersection(new Segment(E, new Point(6, -4))));
+	}
+
+	@Test
+	void nearlyCollinearIntersectionTest() {
+		// collinear segments sharing an endpoint; in floating point their lines are not
+		// exactly parallel, so solving them would give a false 'crossing' near (1.8889, 0.1905)
+		Segment first = new Segment(new Point(5.0 / 3, 2.0 / 7), new Point(2, 1.0 / 7));
+		Segment second = new Segment(new Point(4.0 / 3, 3.0 / 7), new Point(2, 1.0 / 7));
+
+		assertTrue(first.isCollinearWith(second));
+		assertNull(first.segmentIntersection(second));
+		assertNull(second.segmentIntersection(first));
+	}
+
+	@Test
+	void invariantsTest() {
+		// A(1, 1) to B(4, 5): a 3-4-5 triangle
+		Segment AB = new Segment(new Point("A", 1, 1), new Point("B", 4, 5));
+
+		assertEquals(5, AB.length(), 1e-12);
+		assertEquals(4.0 / 3, AB.slope(), 1e-12);
+		assertEquals(3, AB.dx(), 1e-12);
+		assertEquals(4, AB.dy(), 1e-12);
+		assertFalse(AB.isVertical());
+		assertFalse(AB.isHorizontal());
+
+		// both endpoints satisfy  lineA x + lineB y = lineC
+		assertEquals(AB.lineC(), AB.lineA() * 1 + AB.lineB() * 1, 1e-12);
+		assertEquals(AB.lineC(), AB.lineA() * 4 + AB.lineB() * 5, 1e-12);
+
+		assertEquals(1, AB.minX(), 1e-12);
+		assertEquals(1, AB.minY(), 1e-12);
+		assertEquals(4, AB.maxX(), 1e-12);
+		assertEquals(5, AB.maxY(), 1e-12);
+
+		// vertical and horizontal segments (no exception for the vertical slope)
+		Segment CD = new Segment(new Point("C", 2, 7), new Point("D", 2, -1));
+		assertTrue(CD.isVertical());
+		assertEquals(Double.POSITIVE_INFINITY, CD.slope(), 0);
+		assertEquals(8, CD.length(), 1e-12);
+
+		Segment EF = new Segment(new Point("E", -3, 2), new Point("F", 6, 2));
+		assertTrue(EF.isHorizontal());
+		assertEquals(0, EF.slope(), 1e-12);
+	}
 }
@@ -0,0 +1,49 @@
+package geometry_objects.points;
+
+import java.util.Random;
+
+/**
+ * Throughput of a mixed workload (9 lookups per put) on one shared factory; run by hand
+ * (not part of the test suite):
+ *
+ *     java geometry_objects.points.ConcurrentPointNamingFactoryBenchmark [ops]
+ */
+public class ConcurrentPointNamingFactoryBenchmark
+{
+	public static void main(String[] args) throws Exception
+	{
+		final int ops = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+
+		PointNamingFactory sequential = new PointNamingFactory();
+		long start = System.nanoTime();
+		workload(sequential, 0, ops);
+		report("sequential", 1, ops, System.nanoTime() - start);
+
+		for (int threads : new int[] { 1, 2, 4, 8 })
+		{
+			ConcurrentPointNamingFactory factory = new ConcurrentPointNamingFactory();
+
+			start = System.nanoTime();
+			ConcurrentPointNamingFactoryTest.run(threads, (thread) -> workload(factory, thread, ops / threads));
+			report("concurrent", threads, ops, System.nanoTime() - start);
+		}
+	}
+
+	private static void workload(PointNamingFactory factory, int seed, int ops)
+	{
+		Random random = new Random(seed);
+		for (int op = 0; op < ops; op++)
+		{
+			int x = random.nextInt(300);
+			int y = random.nextInt(300);
+
+			if (op % 10 == 0) factory.put(x, y);
+			else factory.get(x, y);
+		}
+	}
+
+	private static void report(String label, int threads, int ops, long nanos)
+	{
+		System.out.printf("%-10s threads=%d  %.0f ops/ms%n", label, threads, ops / (nanos / 1e6));
+	}
+}
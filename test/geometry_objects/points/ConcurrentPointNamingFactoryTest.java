@@ -0,0 +1,160 @@
+package geometry_objects.points;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+
+import org.junit.jupiter.api.Test;
+
+class ConcurrentPointNamingFactoryTest
+{
+	private static final int THREADS = 8;
+
+	// a GRID x GRID lattice; each lattice point sits on a GridHash cell border
+	private static final int GRID = 30;
+
+	// flags per lattice point: put with a (valid or generated) name / put at all
+	private static final int NAMED = 1;
+	private static final int PUT = 2;
+
+	private static double coordinate(int g, Random random)
+	{
+		// within EPSILON / 2 of g / 2 + EPSILON: the copies of a lattice point are all equal
+		return g * 0.5 + 1e-6 + (random.nextDouble() - 0.5) * 8e-7;
+	}
+
+	private static String name(int gx, int gy) { return "P" + gx + "_" + gy; }
+
+	@Test
+	void stress_test() throws Exception
+	{
+		ConcurrentPointNamingFactory factory = new ConcurrentPointNamingFactory();
+		AtomicIntegerArray flags = new AtomicIntegerArray(GRID * GRID);
+
+		// every thread puts jittered copies of random lattice points: unnamed, named, or generated
+		run(THREADS, (thread) -> {
+			Random random = new Random(thread);
+			for (int op = 0; op < 20000; op++)
+			{
+				int gx = random.nextInt(GRID);
+				int gy = random.nextInt(GRID);
+				double x = coordinate(gx, random);
+				double y = coordinate(gy, random);
+
+				switch (random.nextInt(3))
+				{
+					case 0 -> factory.put(new Point(x, y));
+					case 1 -> { factory.put(name(gx, gy), x, y); flags.getAndUpdate(gx * GRID + gy, (f) -> f | NAMED); }
+					default -> { factory.put(x, y); flags.getAndUpdate(gx * GRID + gy, (f) -> f | NAMED); }
+				}
+				flags.getAndUpdate(gx * GRID + gy, (f) -> f | PUT);
+
+				assertNotNull(factory.get(x, y));
+			}
+		});
+
+		int expected = 0;
+		Set<String> generated = new HashSet<String>();
+		for (int gx = 0; gx < GRID; gx++)
+		{
+			for (int gy = 0; gy < GRID; gy++)
+			{
+				int f = flags.get(gx * GRID + gy);
+				Point stored = factory.get(gx * 0.5 + 1e-6, gy * 0.5 + 1e-6);
+
+				if ((f & PUT) == 0)
+				{
+					assertNull(stored);
+					continue;
+				}
+				expected++;
+
+				// one point per lattice point; named if any thread named it (a name replaces 'unnamed')
+				assertNotNull(stored);
+				assertEquals((f & NAMED) != 0, !stored.isUnnamed());
+
+				if (stored.isUnnamed()) continue;
+
+				// a generated name (possibly given to a point first put unnamed) is never handed out twice
+				if (PointNamingFactory.generatedIndex(stored.getName()) >= 0) assertTrue(generated.add(stored.getName()));
+				else assertEquals(name(gx, gy), stored.getName());
+
+				assertSame(stored, factory.get(stored.getName()));
+			}
+		}
+		assertEquals(expected, factory.size());
+		assertEquals(expected, factory.getAllPoints().size());
+
+		// remove the lattice points of even x while other threads look up the points of odd x
+		run(THREADS, (thread) -> {
+			for (int gx = thread % 2; gx < GRID; gx += 2)
+			{
+				for (int gy = 0; gy < GRID; gy++)
+				{
+					Point point = new Point(gx * 0.5 + 1e-6, gy * 0.5 + 1e-6);
+					boolean put = (flags.get(gx * GRID + gy) & PUT) != 0;
+
+					if (gx % 2 == 0) factory.remove(point);
+					else assertEquals(put, factory.contains(point));
+				}
+			}
+		});
+
+		for (Point point : factory.getAllPoints())
+		{
+			assertNotEquals(0, Math.round((point.getX() - 1e-6) / 0.5) % 2);
+			if (!point.isUnnamed()) assertSame(point, factory.get(point.getName()));
+		}
+		for (int gy = 0; gy < GRID; gy++) assertNull(factory.get(name(0, gy)));
+	}
+
+	@Test
+	void shared_database_test() throws Exception
+	{
+		PointDatabase database = new PointDatabase(new ConcurrentPointNamingFactory());
+
+		// each thread preprocesses its own band of the plane; the bands share their borders
+		run(THREADS, (thread) -> {
+			for (int x = 10 * thread; x <= 10 * (thread + 1); x++)
+			{
+				for (int y = 0; y < 10; y++) database.put("Q" + x + "_" + y, x, y);
+			}
+		});
+
+		assertEquals((10 * THREADS + 1) * 10, database.size());
+		assertEquals(database.size(), database.getIndex().size());
+		assertEquals(new Point(40, 3), database.getPoint("Q40_3"));
+	}
+
+	/**
+	 * Run the task on the given number of threads (task(k) on thread k); rethrow any failure.
+	 */
+	static void run(int threads, IntConsumer task) throws Exception
+	{
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try
+		{
+			List<Future<?>> futures = new ArrayList<Future<?>>();
+			for (int k = 0; k < threads; k++)
+			{
+				final int thread = k;
+				futures.add(executor.submit(() -> task.accept(thread)));
+			}
+
+			for (Future<?> future : futures) future.get();
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,62 @@
+package geometry_objects.points;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import geometry_objects.Segment;
+
+class PointIndexTest
+{
+	@Test
+	void x_range_test()
+	{
+		List<Point> points = new ArrayList<Point>();
+		for (int i = 0; i < 100; i++) points.add(new Point("P" + i, (i * 37) % 100, i % 5));
+
+		PointIndex index = new PointIndex(points);
+		assertEquals(100, index.size());
+
+		// lexicographic order
+		for (int i = 1; i < index.size(); i++) assertTrue(index.get(i - 1).compareTo(index.get(i)) < 0);
+
+		// the range is closed at both ends
+		List<Point> range = index.inXRange(10, 20);
+		assertEquals(11, range.size());
+		for (Point point : range) assertTrue(point.getX() >= 10 && point.getX() <= 20);
+
+		assertEquals(1, index.inXRange(42, 42).size());
+		assertTrue(index.inXRange(20, 10).isEmpty());
+		assertTrue(index.inXRange(100.5, 200).isEmpty());
+		assertEquals(100, index.inXRange(-1, 99).size());
+	}
+
+	@Test
+	void database_index_test()
+	{
+		PointDatabase database = new PointDatabase();
+		database.put("A", 0, 0);
+		database.put("B", 2, 0);
+		database.put("C", 4, 0);
+		database.put("E", 6, 6);
+		database.put("F", 12, 0);
+
+		Segment segment = new Segment(database.getPoint("A"), database.getPoint("C"));
+
+		assertEquals(segment.collectOrderedPointsOnSegment(database.getPoints()),
+				     segment.collectIndexedPointsOnSegment(database.getIndex()));
+		assertEquals(3, segment.collectIndexedPointsOnSegment(database.getIndex()).size());
+
+		// an edit invalidates the index
+		database.put("D", 3, 0);
+		assertEquals(4, segment.collectIndexedPointsOnSegment(database.getIndex()).size());
+
+		database.remove(database.getPoint("B"));
+		assertEquals(3, segment.collectIndexedPointsOnSegment(database.getIndex()).size());
+
+		assertNull(segment.collectIndexedPointsOnSegment(null));
+	}
+}
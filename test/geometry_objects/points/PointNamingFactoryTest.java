@@ -0,0 +1,65 @@
+package geometry_objects.points;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class PointNamingFactoryTest
+{
+	@Test
+	void generated_name_sequence_test()
+	{
+		PointNamingFactory factory = new PointNamingFactory();
+
+		assertEquals("*_A", factory.getCurrentName());
+		assertEquals("*_B", factory.getCurrentName());
+
+		// skip to Z; then the names double up
+		factory.reserveNames(23);
+		assertEquals("*_Z", factory.getCurrentName());
+		assertEquals("*_AA", factory.getCurrentName());
+		assertEquals("*_BB", factory.getCurrentName());
+
+		assertEquals("*_CCC", PointNamingFactory.generatedName(2 * 26 + 2));
+
+		// names parse back to their index; other names do not parse
+		for (long index = 0; index < 1000; index++)
+		{
+			assertEquals(index, PointNamingFactory.generatedIndex(PointNamingFactory.generatedName(index)));
+		}
+		assertEquals(-1, PointNamingFactory.generatedIndex("*_AB"));
+		assertEquals(-1, PointNamingFactory.generatedIndex("A"));
+		assertEquals(-1, PointNamingFactory.generatedIndex("*_"));
+		assertEquals(-1, PointNamingFactory.generatedIndex(Point.ANONYMOUS));
+	}
+
+	@Test
+	void lazy_generated_names_test()
+	{
+		for (boolean compact : new boolean[] { false, true })
+		{
+			PointNamingFactory factory = new PointNamingFactory(compact);
+
+			// the name of a far index is long: it is not rendered to store or look up the point
+			long first = factory.reserveNames(1_000_000);
+			factory.put(new GeneratedPoint(first + 999_999, 1, 2));
+			factory.put(3, 4);
+
+			Point far = factory.get(1, 2);
+			assertTrue(far.isGenerated());
+			assertEquals(1_000_000 / 26 + 1, far.getName().length() - 2);
+			assertEquals(far, factory.get(far.getName()));
+
+			Point next = factory.get(3, 4);
+			assertEquals("*_" + "O".repeat(1_000_000 / 26 + 1), next.getName());
+			assertEquals(next, factory.get(next.getName()));
+
+			// a user name of the generated form is found as well
+			factory.put("*_A", 5, 6);
+			assertEquals(new Point(5, 6), factory.get("*_A"));
+
+			factory.remove(new Point(1, 2));
+			assertNull(factory.get(PointNamingFactory.generatedName(first + 999_999)));
+		}
+	}
+}
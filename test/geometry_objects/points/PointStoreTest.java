@@ -0,0 +1,118 @@
+package geometry_objects.points;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class PointStoreTest
+{
+	@Test
+	void put_get_remove_test()
+	{
+		PointStore store = new PointStore();
+
+		// enough points to grow the arrays and the table several times
+		for (int i = 0; i < 1000; i++)
+		{
+			Point point = new Point("P" + i, i, i % 7);
+			assertNull(store.put(point, point));
+		}
+		assertEquals(1000, store.size());
+
+		// lookups are tolerant (within EPSILON in each coordinate)
+		assertEquals("P42", store.get(42 + 1e-7, 0 - 1e-7).getName());
+		assertEquals("P42", store.get(new Point(42, 0)).getName());
+		assertNull(store.get(42.5, 0));
+
+		assertEquals("P42", store.remove(new Point(42, 0)).getName());
+		assertNull(store.get(42, 0));
+		assertFalse(store.containsKey(new Point(42, 0)));
+		assertEquals(999, store.size());
+
+		// every other point is still found after the removal
+		for (int i = 0; i < 1000; i++)
+		{
+			if (i != 42) assertEquals("P" + i, store.get(i, i % 7).getName());
+		}
+	}
+
+	@Test
+	void insertion_order_test()
+	{
+		PointStore store = new PointStore();
+
+		double[][] coordinates = { { 3, 1 }, { -1, 0 }, { 0, 0 }, { 10, -4 }, { 2, 2 } };
+		for (double[] xy : coordinates)
+		{
+			Point point = new Point(xy[0], xy[1]);
+			store.put(point, point);
+		}
+		store.remove(new Point(0, 0));
+
+		List<Point> expected = new ArrayList<Point>();
+		expected.add(new Point(3, 1));
+		expected.add(new Point(-1, 0));
+		expected.add(new Point(10, -4));
+		expected.add(new Point(2, 2));
+
+		assertEquals(expected, new ArrayList<Point>(store.keySet()));
+	}
+
+	@Test
+	void naming_factory_test()
+	{
+		PointNamingFactory map = new PointNamingFactory();
+		PointNamingFactory compact = new PointNamingFactory(true);
+
+		for (PointNamingFactory factory : List.of(map, compact))
+		{
+			factory.put(0, 0);
+			factory.put("B", 1, 0);
+			factory.put(Point.ANONYMOUS, 0, 1);
+
+			// a valid name overwrites only an unnamed point
+			factory.put("A", 0, 0);
+			factory.put("C", 0, 1);
+		}
+
+		assertEquals(map.size(), compact.size());
+		assertEquals(new ArrayList<Point>(map.getAllPoints()), new ArrayList<Point>(compact.getAllPoints()));
+
+		assertEquals("*_A", compact.get(0, 0).getName());
+		assertEquals("B", compact.get(1, 0).getName());
+		assertEquals("C", compact.get(0, 1).getName());
+
+		for (Point point : map.getAllPoints())
+		{
+			assertEquals(point.getName(), compact.get(point).getName());
+		}
+	}
+
+	@Test
+	void name_lookup_test()
+	{
+		for (boolean compact : new boolean[] { false, true })
+		{
+			PointDatabase database = new PointDatabase(compact);
+
+			database.put(Point.ANONYMOUS, 0, 0);
+			database.put("B", 1, 0);
+			database.put("B", 2, 0);
+			assertNull(database.getPoint("A"));
+
+			// a rename of an unnamed point is visible to name lookups
+			database.put("A", 0, 0);
+			assertEquals(new Point(0, 0), database.getPoint("A"));
+
+			// the earliest point with a shared name; the next once it is removed
+			assertEquals(new Point(1, 0), database.getPoint("B"));
+			database.remove(new Point(1, 0));
+			assertEquals(new Point(2, 0), database.getPoint("B"));
+			database.remove(new Point(2, 0));
+			assertNull(database.getPoint("B"));
+		}
+	}
+}
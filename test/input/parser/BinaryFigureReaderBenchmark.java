@@ -0,0 +1,55 @@
+package input.parser;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import input.InputFacade;
+
+/**
+ * Load time of a large figure (see BinaryFigureReaderTest.gridJSON) from JSON
+ * (InputFacade.extractFigure) and from the binary format; run by hand (not part
+ * of the test suite):
+ *
+ *     java input.parser.BinaryFigureReaderBenchmark [n]
+ */
+public class BinaryFigureReaderBenchmark
+{
+	public static void main(String[] args) throws Exception
+	{
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 150;
+
+		Path jsonPath = Files.createTempFile("grid", ".json");
+		Path binaryPath = Files.createTempFile("grid", ".bin");
+		try
+		{
+			Files.writeString(jsonPath, BinaryFigureReaderTest.gridJSON(n));
+			InputFacade.writeBinaryFigure(InputFacade.extractFigure(jsonPath.toString()), binaryPath.toString());
+
+			long jsonNanos = Long.MAX_VALUE, binaryNanos = Long.MAX_VALUE, geometryNanos = Long.MAX_VALUE;
+
+			// the best of 5 runs
+			for (int run = 0; run < 5; run++)
+			{
+				long start = System.nanoTime();
+				InputFacade.extractFigure(jsonPath.toString());
+				jsonNanos = Math.min(jsonNanos, System.nanoTime() - start);
+
+				start = System.nanoTime();
+				InputFacade.extractBinaryFigure(binaryPath.toString());
+				binaryNanos = Math.min(binaryNanos, System.nanoTime() - start);
+
+				start = System.nanoTime();
+				InputFacade.extractBinaryGeometry(binaryPath.toString());
+				geometryNanos = Math.min(geometryNanos, System.nanoTime() - start);
+			}
+
+			System.out.printf("load       json %d bytes %.1f ms;  binary %d bytes %.1f ms (FigureNode), %.1f ms (geometry)%n",
+			                  Files.size(jsonPath), jsonNanos / 1e6, Files.size(binaryPath), binaryNanos / 1e6, geometryNanos / 1e6);
+		}
+		finally
+		{
+			Files.delete(jsonPath);
+			Files.delete(binaryPath);
+		}
+	}
+}
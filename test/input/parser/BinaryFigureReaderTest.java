@@ -0,0 +1,161 @@
+package input.parser;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import geometry_objects.Segment;
+import geometry_objects.points.PointDatabase;
+import input.InputFacade;
+import input.builder.DefaultBuilder;
+import input.builder.GeometryBuilder;
+import input.components.FigureNode;
+import input.components.point.PointNode;
+import input.exception.ParseException;
+import input.visitor.ToBinaryVisitor;
+import input.visitor.ToJSONVisitor;
+
+class BinaryFigureReaderTest
+{
+	private static final String[] FIXTURES = { "collinear_line_segments.json", "fully_connected_irregular_polygon.json", "segment_with_point.json" };
+
+	private static ByteBuffer write(FigureNode figure)
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		figure.accept(new ToBinaryVisitor(out), null);
+
+		return ByteBuffer.wrap(out.toByteArray());
+	}
+
+	@Test
+	void round_trip_test()
+	{
+		for (String fixture : FIXTURES)
+		{
+			FigureNode expected = InputFacade.extractFigure(fixture);
+			FigureNode actual = (FigureNode)new BinaryFigureReader(write(expected)).readFigure(new GeometryBuilder());
+
+			assertEquals(expected.getDescription(), actual.getDescription());
+			assertEquals(expected.getPointsDatabase().getPoints(), actual.getPointsDatabase().getPoints());
+			assertEquals(expected.getSegments(), actual.getSegments());
+			assertEquals(expected.getSegments().numUndirectedEdges(), actual.getSegments().numUndirectedEdges());
+
+			for (PointNode point : expected.getPointsDatabase().getPoints())
+			{
+				assertEquals(point.getName(), actual.getPointsDatabase().getPoint(point.getName()).getName());
+			}
+
+			// the default builder builds nothing
+			assertNull(new BinaryFigureReader(write(expected)).readFigure(new DefaultBuilder()));
+		}
+	}
+
+	@Test
+	void geometry_test()
+	{
+		for (String fixture : FIXTURES)
+		{
+			FigureNode figure = InputFacade.extractFigure(fixture);
+
+			Map.Entry<PointDatabase, Set<Segment>> expected = InputFacade.toGeometryRepresentation(figure);
+			Map.Entry<PointDatabase, Set<Segment>> actual = new BinaryFigureReader(write(figure)).readGeometry();
+
+			assertEquals(expected.getKey().getPoints(), actual.getKey().getPoints());
+			assertEquals(expected.getValue(), actual.getValue());
+		}
+	}
+
+	@Test
+	void malformed_test()
+	{
+		ByteBuffer figure = write(InputFacade.extractFigure("fully_connected_irregular_polygon.json"));
+
+		// truncated
+		for (int length : new int[] { 0, 5, 12, figure.limit() / 2, figure.limit() - 1 })
+		{
+			ByteBuffer bytes = figure.duplicate().limit(length);
+			assertThrows(ParseException.class, () -> new BinaryFigureReader(bytes).readGeometry(), "length " + length);
+		}
+
+		// not a figure; another version
+		ByteBuffer json = ByteBuffer.wrap("{ \"Figure\" : { } }".getBytes());
+		assertThrows(ParseException.class, () -> new BinaryFigureReader(json).readFigure(new GeometryBuilder()));
+
+		ByteBuffer version = figure.duplicate().putShort(4, (short)(Binary_Constants.VERSION + 1));
+		assertThrows(ParseException.class, () -> new BinaryFigureReader(version).readFigure(new GeometryBuilder()));
+	}
+
+	/**
+	 * A grid of n x n points, each joined to its right and upper neighbors, as JSON.
+	 */
+	static String gridJSON(int n)
+	{
+		StringBuilder json = new StringBuilder("{ \"Figure\" : { \"Description\" : \"a grid\", \"Points\" : [\n");
+		for (int i = 0; i < n; i++)
+		{
+			for (int j = 0; j < n; j++)
+			{
+				json.append(i + j == 0 ? "" : ",\n").append("{ \"name\" : \"P").append(i).append('_').append(j)
+				    .append("\", \"x\" : ").append(i * 1.25).append(", \"y\" : ").append(j * 0.75).append(" }");
+			}
+		}
+		json.append("],\n\"Segments\" : [\n");
+		for (int i = 0; i < n; i++)
+		{
+			for (int j = 0; j < n; j++)
+			{
+				json.append(i + j == 0 ? "" : ",\n").append("{ \"P").append(i).append('_').append(j).append("\" : [");
+				if (i + 1 < n) json.append("\"P").append(i + 1).append('_').append(j).append('"');
+				if (j + 1 < n) json.append(i + 1 < n ? ", " : "").append("\"P").append(i).append('_').append(j + 1).append('"');
+				json.append("] }");
+			}
+		}
+		json.append("] } }\n");
+
+		return json.toString();
+	}
+
+	/**
+	 * A larger figure through files: JSON, then binary (as a figure and as geometry), then JSON again.
+	 */
+	@Test
+	void file_round_trip_test() throws IOException
+	{
+		int n = 40;
+
+		Path jsonPath = Files.createTempFile("grid", ".json");
+		Path binaryPath = Files.createTempFile("grid", ".bin");
+		try
+		{
+			Files.writeString(jsonPath, gridJSON(n));
+			InputFacade.writeBinaryFigure(InputFacade.extractFigure(jsonPath.toString()), binaryPath.toString());
+
+			FigureNode fromJSON = InputFacade.extractFigure(jsonPath.toString());
+			FigureNode fromBinary = InputFacade.extractBinaryFigure(binaryPath.toString());
+			Map.Entry<PointDatabase, Set<Segment>> geometry = InputFacade.extractBinaryGeometry(binaryPath.toString());
+
+			assertEquals(fromJSON.getPointsDatabase().getPoints(), fromBinary.getPointsDatabase().getPoints());
+			assertEquals(fromJSON.getSegments(), fromBinary.getSegments());
+			assertEquals(2 * n * (n - 1), geometry.getValue().size());
+			assertTrue(Files.size(binaryPath) < Files.size(jsonPath));
+
+			// the JSON written back from the binary figure parses to the same figure
+			JSONObject unparsed = (JSONObject)fromBinary.accept(new ToJSONVisitor(), null);
+			assertEquals(fromJSON.getSegments(), ((FigureNode)new JSONParser(new GeometryBuilder()).parse(unparsed)).getSegments());
+		}
+		finally
+		{
+			Files.delete(jsonPath);
+			Files.delete(binaryPath);
+		}
+	}
+}
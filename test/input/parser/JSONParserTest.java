@@ -0,0 +1,126 @@
+package input.parser;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import input.InputFacade;
+import input.builder.DefaultBuilder;
+import input.builder.GeometryBuilder;
+import input.components.ComponentNode;
+import input.components.FigureNode;
+import input.components.point.PointNode;
+import input.exception.ParseException;
+import input.visitor.ToJSONVisitor;
+
+class JSONParserTest
+{
+	private static final String TRIANGLE =
+			"{ \"Figure\" : { \"Description\" : \"A triangle \\\"\u00e0 la\\\" apex\",\n" +
+			"  \"Points\" : [ { \"name\" : \"Apex\", \"x\" : 0.5, \"y\" : 1e1 },\n" +
+			"                 { \"y\" : -0, \"x\" : -12, \"name\" : \"B12\" },\n" +
+			"                 { \"name\" : \"C\", \"x\" : 123456789012345678, \"y\" : 0, \"color\" : [1, {\"a\" : null}] } ],\n" +
+			"  \"Segments\" : [ { \"Apex\" : [\"B12\", \"C\"] }, { \"B12\" : [\"C\"] } ] } }";
+
+	private static FigureNode parse(String json)
+	{
+		return (FigureNode)new JSONParser(new GeometryBuilder()).parse(json);
+	}
+
+	@Test
+	void multi_character_names_test()
+	{
+		FigureNode figure = parse(TRIANGLE);
+
+		assertEquals("A triangle \"\u00e0 la\" apex", figure.getDescription());
+		assertEquals(3, figure.getPointsDatabase().getPoints().size());
+
+		PointNode apex = figure.getPointsDatabase().getPoint("Apex");
+		assertEquals(0.5, apex.getX());
+		assertEquals(10.0, apex.getY());
+		assertEquals(-12.0, figure.getPointsDatabase().getPoint("B12").getX());
+		assertEquals(123456789012345678.0, figure.getPointsDatabase().getPoint("C").getX());
+
+		assertEquals(3, figure.getSegments().numUndirectedEdges());
+	}
+
+	@Test
+	void input_forms_test()
+	{
+		FigureNode expected = parse(TRIANGLE);
+
+		// a Reader, UTF-8 bytes
+		FigureNode read = (FigureNode)new JSONParser(new GeometryBuilder()).parse(new StringReader(TRIANGLE));
+		FigureNode bytes = (FigureNode)new JSONParser(new GeometryBuilder()).parse(ByteBuffer.wrap(TRIANGLE.getBytes(StandardCharsets.UTF_8)));
+
+		for (FigureNode figure : new FigureNode[] { read, bytes })
+		{
+			assertEquals(expected.getDescription(), figure.getDescription());
+			assertEquals(expected.getPointsDatabase().getPoints(), figure.getPointsDatabase().getPoints());
+			assertEquals(expected.getSegments(), figure.getSegments());
+		}
+
+		// the output of ToJSONVisitor: the segments as one object of adjacency lists
+		JSONObject unparsed = (JSONObject)expected.accept(new ToJSONVisitor(), null);
+		FigureNode reparsed = parse(unparsed.toString());
+		assertEquals(expected.getPointsDatabase().getPoints(), reparsed.getPointsDatabase().getPoints());
+		assertEquals(expected.getSegments(), reparsed.getSegments());
+		assertEquals(3, reparsed.getSegments().numUndirectedEdges());
+
+		// the segments before the points
+		FigureNode reordered = parse("{\"Figure\" : {\"Segments\" : [{\"P\" : [\"Q\"]}], \"Description\" : \"\"," +
+		                             " \"Points\" : [{\"name\" : \"P\", \"x\" : 0, \"y\" : 0}, {\"name\" : \"Q\", \"x\" : 1, \"y\" : 0}]}}");
+		assertEquals(1, reordered.getSegments().numUndirectedEdges());
+
+		// the default builder builds nothing
+		assertNull(new JSONParser(new DefaultBuilder()).parse(TRIANGLE));
+	}
+
+	@Test
+	void figures_test()
+	{
+		String body = TRIANGLE.substring(TRIANGLE.indexOf(':') + 1, TRIANGLE.lastIndexOf('}'));
+
+		List<ComponentNode> figures = new JSONParser(new GeometryBuilder()).parseFigures("{ \"Figures\" : [" + body + ", " + body + "] }");
+		assertEquals(2, figures.size());
+		for (ComponentNode figure : figures) assertEquals(3, ((FigureNode)figure).getSegments().numUndirectedEdges());
+
+		// a single figure is a batch of one
+		assertEquals(1, new JSONParser(new GeometryBuilder()).parseFigures(TRIANGLE).size());
+		assertEquals(0, new JSONParser(new GeometryBuilder()).parseFigures("{ \"Figures\" : [ ] }").size());
+		assertThrows(ParseException.class, () -> new JSONParser(new GeometryBuilder()).parseFigures("{ \"Figure\" : [ ] }"));
+	}
+
+	@Test
+	void fixtures_test()
+	{
+		FigureNode figure = InputFacade.extractFigure("fully_connected_irregular_polygon.json");
+
+		assertEquals(6, figure.getPointsDatabase().getPoints().size());
+		assertEquals(10, figure.getSegments().numUndirectedEdges());
+		assertEquals(new PointNode("C", 6, 3), figure.getPointsDatabase().getPoint("C"));
+	}
+
+	@Test
+	void malformed_test()
+	{
+		for (String json : new String[] {
+				"",
+				"{ \"Figure\" : { \"Description\" : \"x\", \"Points\" : [ ] }",
+				"{ \"Figure\" : { \"Description\" : \"x\", \"Points\" : [ ], \"Segments\" : [ ], } }",
+				"{ \"Figure\" : { \"Description\" : \"x\", \"Points\" : [ { \"name\" : \"A\", \"x\" : 1 } ], \"Segments\" : [ ] } }",
+				"{ \"Figure\" : { \"Description\" : \"x\", \"Points\" : [ ], \"Segments\" : [ { \"A\" : [\"B\"] } ] } }",
+				"{ \"Figure\" : { \"Description\" : \"x\" \"Points\" : [ ], \"Segments\" : [ ] } }",
+				"{ \"Figure\" : { \"Description\" : \"x\", \"Points\" : [ ], \"Segments\" : [ ] } } ]",
+				"{ \"Figures\" : [ ] }" })
+		{
+			assertThrows(ParseException.class, () -> parse(json), json);
+		}
+	}
+}
@@ -0,0 +1,45 @@
+package preprocessor;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Throughput of a batch (see BatchPreprocessorTest) on 1, 2, 4 workers; run by hand
+ * (not part of the test suite):
+ *
+ *     java preprocessor.BatchPreprocessorBenchmark
+ */
+public class BatchPreprocessorBenchmark
+{
+	public static void main(String[] args) throws Exception
+	{
+		Path path = BatchPreprocessorTest.writeBatch();
+		try
+		{
+			for (int threads : new int[] { 1, 2, 4 })
+			{
+				ExecutorService pool = Executors.newFixedThreadPool(threads);
+				try
+				{
+					long start = System.nanoTime();
+					List<Preprocessor> results = new BatchPreprocessor(pool).preprocess(path.toString());
+					long nanos = System.nanoTime() - start;
+
+					System.out.printf("batch      threads=%d  %d figures  %.2f figures/ms%n",
+							          threads, results.size(), results.size() / (nanos / 1e6));
+				}
+				finally
+				{
+					pool.shutdown();
+				}
+			}
+		}
+		finally
+		{
+			Files.delete(path);
+		}
+	}
+}
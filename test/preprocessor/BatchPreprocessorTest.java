@@ -0,0 +1,96 @@
+package preprocessor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+
+import geometry_objects.Segment;
+import geometry_objects.points.PointDatabase;
+import input.InputFacade;
+import input.components.FigureNode;
+
+class BatchPreprocessorTest
+{
+	private static final int FIGURES = 400;
+
+	/**
+	 * A batch of figures: figure k is a polygon of 3 + k % 7 vertices (on a circle),
+	 * each vertex connected to each other one.
+	 */
+	static Path writeBatch() throws IOException
+	{
+		StringBuilder json = new StringBuilder("// a batch of polygons\n{ \"Figures\" : [\n");
+		for (int k = 0; k < FIGURES; k++)
+		{
+			int n = 3 + k % 7;
+
+			if (k > 0) json.append(",\n");
+			json.append("  // polygon ").append(k).append('\n');
+			json.append("  { \"Description\" : \"polygon ").append(k).append("\", \"Points\" : [");
+			for (int i = 0; i < n; i++)
+			{
+				double angle = 2 * Math.PI * i / n + k;
+				json.append(i == 0 ? "" : ", ").append("{ \"name\" : \"V").append(k).append('_').append(i)
+				    .append("\", \"x\" : ").append(10 * Math.cos(angle)).append(", \"y\" : ").append(10 * Math.sin(angle)).append(" }");
+			}
+			json.append("],\n    \"Segments\" : [");
+			for (int i = 0; i < n - 1; i++)
+			{
+				json.append(i == 0 ? "" : ", ").append("{ \"V").append(k).append('_').append(i).append("\" : [");
+				for (int j = i + 1; j < n; j++) json.append(j == i + 1 ? "" : ", ").append("\"V").append(k).append('_').append(j).append('"');
+				json.append("] }");
+			}
+			json.append("] }");
+		}
+		json.append("\n] }\n");
+
+		Path path = Files.createTempFile("figures", ".json");
+		Files.writeString(path, json);
+
+		return path;
+	}
+
+	@Test
+	void input_order_test() throws Exception
+	{
+		Path path = writeBatch();
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try
+		{
+			List<FigureNode> figures = InputFacade.extractFigures(path.toString());
+			assertEquals(FIGURES, figures.size());
+
+			List<Preprocessor> fromFile = new BatchPreprocessor(pool).preprocess(path.toString());
+			List<Preprocessor> fromFigures = new BatchPreprocessor(pool).preprocess(figures);
+
+			for (int k = 0; k < FIGURES; k++)
+			{
+				assertEquals("polygon " + k, figures.get(k).getDescription());
+
+				Map.Entry<PointDatabase, Set<Segment>> pair = InputFacade.toGeometryRepresentation(figures.get(k));
+				Preprocessor expected = new Preprocessor(pair.getKey(), pair.getValue());
+
+				for (Preprocessor actual : new Preprocessor[] { fromFile.get(k), fromFigures.get(k) })
+				{
+					assertEquals(expected._implicitPoints, actual._implicitPoints);
+					assertEquals(expected._allMinimalSegments, actual._allMinimalSegments);
+					assertEquals(expected.getAllSegments().size(), actual.getAllSegments().size());
+				}
+			}
+		}
+		finally
+		{
+			pool.shutdown();
+			Files.delete(path);
+		}
+	}
+}
@@ -0,0 +1,232 @@
+package preprocessor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+import geometry_objects.points.PointDatabase;
+import input.InputFacade;
+import input.builder.GeometryBuilder;
+import input.components.FigureNode;
+import input.parser.JSONParser;
+import input.visitor.ToJSONVisitor;
+
+class PreprocessorCacheTest
+{
+	private static final String[] FIXTURES = { "collinear_line_segments.json", "fully_connected_irregular_polygon.json", "segment_with_point.json" };
+
+	private static Preprocessor analyze(FigureNode figure)
+	{
+		Map.Entry<PointDatabase, Set<Segment>> pair = InputFacade.toGeometryRepresentation(figure);
+
+		return new Preprocessor(pair.getKey(), pair.getValue());
+	}
+
+	private static void assertSameAnalysis(Preprocessor expected, Preprocessor actual)
+	{
+		assertEquals(expected._implicitPoints, actual._implicitPoints);
+		assertEquals(expected._implicitSegments, actual._implicitSegments);
+		assertEquals(expected._allMinimalSegments, actual._allMinimalSegments);
+		assertEquals(expected._nonMinimalSegments, actual._nonMinimalSegments);
+		assertEquals(expected.getAllSegments(), actual.getAllSegments());
+
+		for (Point point : expected._implicitPoints)
+		{
+			assertEquals(point.getName(), actual._implicitPoints.stream().filter(point::equals).findFirst().get().getName());
+		}
+	}
+
+	private static void delete(Path directory) throws IOException
+	{
+		try (Stream<Path> files = Files.walk(directory))
+		{
+			for (Path file : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(file);
+		}
+	}
+
+	@Test
+	void hit_test() throws IOException
+	{
+		Path directory = Files.createTempDirectory("preprocessor-cache");
+		try
+		{
+			PreprocessorCache cache = new PreprocessorCache(directory, Long.MAX_VALUE);
+			for (String fixture : FIXTURES) cache.preprocess(InputFacade.extractFigure(fixture));
+			assertEquals(0, cache.getHits());
+			assertEquals(FIXTURES.length, cache.getMisses());
+
+			// a cache over the same directory: every figure is a hit
+			PreprocessorCache reopened = new PreprocessorCache(directory, Long.MAX_VALUE);
+			assertEquals(cache.size(), reopened.size());
+
+			for (String fixture : FIXTURES)
+			{
+				FigureNode figure = InputFacade.extractFigure(fixture);
+				assertTrue(reopened.contains(figure));
+
+				Preprocessor loaded = reopened.preprocess(figure);
+				assertSameAnalysis(analyze(figure), loaded);
+			}
+			assertEquals(FIXTURES.length, reopened.getHits());
+			assertEquals(0, reopened.getMisses());
+
+			// a loaded preprocessor can be edited: remove a diagonal (AC) of the polygon
+			FigureNode polygon = InputFacade.extractFigure("fully_connected_irregular_polygon.json");
+			Preprocessor loaded = reopened.preprocess(polygon);
+			Preprocessor analyzed = analyze(polygon);
+
+			Segment ac = new Segment(analyzed._pointDatabase.getPoint("A"), analyzed._pointDatabase.getPoint("C"));
+			assertTrue(loaded.removeSegment(ac));
+			assertTrue(analyzed.removeSegment(ac));
+			assertEquals(analyzed._implicitPoints, loaded._implicitPoints);
+			assertEquals(analyzed.getAllSegments(), loaded.getAllSegments());
+		}
+		finally
+		{
+			delete(directory);
+		}
+	}
+
+	@Test
+	void key_test()
+	{
+		FigureNode figure = InputFacade.extractFigure("fully_connected_irregular_polygon.json");
+		String key = PreprocessorCache.key(figure);
+
+		assertEquals(64, key.length());
+
+		// the same figure, formatted otherwise (the segments as adjacency lists, in another order)
+		JSONObject unparsed = (JSONObject)figure.accept(new ToJSONVisitor(), null);
+		FigureNode reformatted = (FigureNode)new JSONParser(new GeometryBuilder()).parse(unparsed.toString(4));
+		assertEquals(key, PreprocessorCache.key(reformatted));
+
+		// another figure
+		for (String fixture : new String[] { "collinear_line_segments.json", "segment_with_point.json" })
+		{
+			assertNotEquals(key, PreprocessorCache.key(InputFacade.extractFigure(fixture)));
+		}
+
+		// a point renamed
+		String renamed = unparsed.toString().replace("\"A\"", "\"A1\"");
+		assertNotEquals(key, PreprocessorCache.key((FigureNode)new JSONParser(new GeometryBuilder()).parse(renamed)));
+	}
+
+	@Test
+	void damaged_entry_test() throws IOException
+	{
+		Path directory = Files.createTempDirectory("preprocessor-cache");
+		try
+		{
+			FigureNode figure = InputFacade.extractFigure("fully_connected_irregular_polygon.json");
+			Path entry = directory.resolve(PreprocessorCache.key(figure) + ".pre");
+
+			new PreprocessorCache(directory, Long.MAX_VALUE).preprocess(figure);
+			byte[] bytes = Files.readAllBytes(entry);
+
+			// another version; truncated; the last point id out of range
+			byte[] version = bytes.clone();
+			version[5]++;
+			byte[] id = bytes.clone();
+			id[id.length - 4] = 0x7F;
+
+			for (byte[] damaged : new byte[][] { version, Arrays.copyOf(bytes, bytes.length / 2), id })
+			{
+				Files.write(entry, damaged);
+
+				PreprocessorCache cache = new PreprocessorCache(directory, Long.MAX_VALUE);
+				assertSameAnalysis(analyze(figure), cache.preprocess(figure));
+				assertEquals(1, cache.getMisses());
+
+				// the entry is replaced
+				assertArrayEquals(bytes, Files.readAllBytes(entry));
+			}
+		}
+		finally
+		{
+			delete(directory);
+		}
+	}
+
+	@Test
+	void eviction_test() throws IOException
+	{
+		Path directory = Files.createTempDirectory("preprocessor-cache");
+		try
+		{
+			FigureNode[] figures = new FigureNode[FIXTURES.length];
+			long[] sizes = new long[FIXTURES.length];
+
+			PreprocessorCache unlimited = new PreprocessorCache(directory, Long.MAX_VALUE);
+			for (int k = 0; k < FIXTURES.length; k++)
+			{
+				figures[k] = InputFacade.extractFigure(FIXTURES[k]);
+
+				long before = unlimited.size();
+				unlimited.preprocess(figures[k]);
+				sizes[k] = unlimited.size() - before;
+			}
+			unlimited.clear();
+			assertEquals(0, unlimited.size());
+
+			// room for the first two figures: using the first makes the second the least recent
+			PreprocessorCache cache = new PreprocessorCache(directory, sizes[0] + sizes[1]);
+			cache.preprocess(figures[0]);
+			cache.preprocess(figures[1]);
+			cache.preprocess(figures[0]);
+			assertEquals(1, cache.getHits());
+
+			cache.preprocess(figures[2]);
+			assertTrue(cache.contains(figures[0]));
+			assertFalse(cache.contains(figures[1]));
+			assertTrue(cache.contains(figures[2]));
+			assertTrue(cache.size() <= sizes[0] + sizes[1]);
+
+			// a smaller limit over the same directory evicts on opening
+			PreprocessorCache smaller = new PreprocessorCache(directory, Math.max(sizes[0], sizes[2]));
+			assertTrue(smaller.size() <= Math.max(sizes[0], sizes[2]));
+			try (Stream<Path> files = Files.list(directory)) { assertEquals(1, files.count()); }
+		}
+		finally
+		{
+			delete(directory);
+		}
+	}
+
+	@Test
+	void batch_test() throws IOException
+	{
+		Path directory = Files.createTempDirectory("preprocessor-cache");
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+		try
+		{
+			PreprocessorCache cache = new PreprocessorCache(directory, Long.MAX_VALUE);
+			List<FigureNode> figures = Stream.of(FIXTURES).map(InputFacade::extractFigure).toList();
+
+			new BatchPreprocessor(pool, cache).preprocess(figures);
+			List<Preprocessor> results = new BatchPreprocessor(pool, cache).preprocess(figures);
+
+			assertEquals(FIXTURES.length, cache.getHits());
+			for (int k = 0; k < FIXTURES.length; k++) assertSameAnalysis(analyze(figures.get(k)), results.get(k));
+		}
+		finally
+		{
+			pool.shutdown();
+			delete(directory);
+		}
+	}
+}
@@ -1,14 +1,20 @@
 package preprocessor;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 
 import geometry_objects.Segment;
 import geometry_objects.points.Point;
@@ -16,6 +22,7 @@ import geometry_objects.points.PointDatabase;
 import input.InputFacade;
 import input.components.FigureNode;
 import preprocessor.delegates.ImplicitPointPreprocessor;
+import utilities.memory.OffHeapArena;
 
 class PreprocessorTest
 {
@@ -303,4 +310,220 @@ class PreprocessorTest
 			assertTrue(expectedNonMinimalSegments.contains(computedNonMinimalSegment));
 		}
 	}
-}
\ No newline at end of file
+
+	@Test
+	void test_lazy_segment_database() {
+		for (String file : new String[] {"fully_connected_irregular_polygon.json", "collinear_line_segments.json"}) {
+			FigureNode fig = InputFacade.extractFigure(file);
+
+			Map.Entry<PointDatabase, Set<Segment>> pair = InputFacade.toGeometryRepresentation(fig);
+
+			Preprocessor eager = new Preprocessor(pair.getKey(), pair.getValue());
+			Preprocessor lazy = new Preprocessor(pair.getKey(), pair.getValue(), new Preprocessor.Options().lazySegments());
+
+			assertEquals(eager.getAllSegments().size(), lazy.getAllSegments().size());
+			assertEquals(eager._nonMinimalSegments.size(), lazy._nonMinimalSegments.size());
+
+			for (Segment segment : eager.getAllSegments().keySet())
+			{
+				assertTrue(lazy.getAllSegments().containsKey(segment));
+				assertEquals(segment, lazy.getAllSegments().get(segment));
+				assertEquals(eager._nonMinimalSegments.contains(segment), lazy._nonMinimalSegments.contains(segment));
+			}
+
+			for (Segment segment : lazy.getAllSegments().keySet())
+			{
+				assertTrue(eager.getAllSegments().containsKey(segment));
+			}
+		}
+
+		//	    A----B-----C-----D-----E----------F
+		FigureNode fig = InputFacade.extractFigure("collinear_line_segments.json");
+		Map.Entry<PointDatabase, Set<Segment>> pair = InputFacade.toGeometryRepresentation(fig);
+		PointDatabase points = pair.getKey();
+		Preprocessor lazy = new Preprocessor(points, pair.getValue(), new Preprocessor.Options().lazySegments());
+
+		assertTrue(lazy.getAllSegments().containsKey(new Segment(points.getPoint("F"), points.getPoint("B"))));
+		assertTrue(lazy._nonMinimalSegments.contains(new Segment(points.getPoint("B"), points.getPoint("F"))));
+		assertFalse(lazy._nonMinimalSegments.contains(new Segment(points.getPoint("B"), points.getPoint("C"))));
+		assertFalse(lazy.getAllSegments().containsKey(new Segment(points.getPoint("B"), new Point(5, 1))));
+	}
+
+	@Test
+	void test_incremental_edits() {
+		for (boolean lazySegments : new boolean[] {false, true}) {
+			FigureNode fig = InputFacade.extractFigure("fully_connected_irregular_polygon.json");
+			Map.Entry<PointDatabase, Set<Segment>> pair = InputFacade.toGeometryRepresentation(fig);
+			PointDatabase points = pair.getKey();
+
+			List<Segment> segments = new ArrayList<Segment>(pair.getValue());
+			Set<Segment> initial = new LinkedHashSet<Segment>(segments.subList(0, segments.size() - 3));
+
+			Preprocessor pp = new Preprocessor(points, initial, options(lazySegments));
+
+			// add the remaining three segments one at a time
+			for (Segment segment : segments.subList(segments.size() - 3, segments.size())) {
+				assertTrue(pp.addSegment(segment));
+			}
+			assertFalse(pp.addSegment(segments.get(0)));
+			assertEquals(7, initial.size());
+			assertSameAnalysis(new Preprocessor(points, new LinkedHashSet<Segment>(segments), options(lazySegments)), pp);
+
+			// remove a diagonal: AC
+			Segment ac = new Segment(points.getPoint("A"), points.getPoint("C"));
+			assertTrue(pp.removeSegment(ac));
+			assertFalse(pp.removeSegment(ac));
+			segments.remove(ac);
+			assertSameAnalysis(new Preprocessor(points, new LinkedHashSet<Segment>(segments), options(lazySegments)), pp);
+
+			// a given point at an implicit point; then remove it again
+			Point implicit = pp._implicitPoints.iterator().next();
+			pp.addPoint("X", implicit.getX(), implicit.getY());
+			assertSameAnalysis(new Preprocessor(points, new LinkedHashSet<Segment>(segments), options(lazySegments)), pp);
+
+			assertFalse(pp.removePoint(points.getPoint("A")));
+			assertTrue(pp.removePoint(points.getPoint("X")));
+			assertSameAnalysis(new Preprocessor(points, new LinkedHashSet<Segment>(segments), options(lazySegments)), pp);
+
+			// a point put straight into the database is seen by analyze() only; later edits
+			// start over from the new analysis
+			implicit = pp._implicitPoints.iterator().next();
+			points.put("Y", implicit.getX(), implicit.getY());
+			pp.analyze();
+			assertTrue(pp.addSegment(ac));
+			segments.add(ac);
+			assertSameAnalysis(new Preprocessor(points, new LinkedHashSet<Segment>(segments), options(lazySegments)), pp);
+		}
+	}
+
+	@Test
+	void test_incremental_collinear_edits() {
+		FigureNode fig = InputFacade.extractFigure("collinear_line_segments.json");
+		Map.Entry<PointDatabase, Set<Segment>> pair = InputFacade.toGeometryRepresentation(fig);
+		PointDatabase points = pair.getKey();
+
+		Set<Segment> segments = new LinkedHashSet<Segment>(pair.getValue());
+		Preprocessor pp = new Preprocessor(points, new LinkedHashSet<Segment>(segments));
+
+		//	    A----B--X--C-----D-----E----------F----G
+		//              |
+		// a vertex inserted into the chain, which is then extended past F
+		Segment cross = new Segment(new Point("V1", 6, -1), new Point("V2", 6, 1));
+		Segment extension = new Segment(points.getPoint("F"), new Point("G", 30, 0));
+
+		for (Segment segment : new Segment[] {cross, extension}) {
+			assertTrue(pp.addSegment(segment));
+			segments.add(segment);
+			assertSameAnalysis(new Preprocessor(points, new LinkedHashSet<Segment>(segments)), pp);
+		}
+
+		// the chain is broken in two (without EF), then loses X
+		assertTrue(pp.removeSegment(new Segment(points.getPoint("E"), points.getPoint("F"))));
+		segments.remove(new Segment(points.getPoint("E"), points.getPoint("F")));
+		assertSameAnalysis(new Preprocessor(points, new LinkedHashSet<Segment>(segments)), pp);
+
+		assertTrue(pp.removeSegment(cross));
+		segments.remove(cross);
+		assertSameAnalysis(new Preprocessor(points, new LinkedHashSet<Segment>(segments)), pp);
+	}
+
+	@Test
+	void test_interned_points() {
+		for (String file : new String[] {"fully_connected_irregular_polygon.json", "collinear_line_segments.json"}) {
+			FigureNode fig = InputFacade.extractFigure(file);
+			Map.Entry<PointDatabase, Set<Segment>> pair = InputFacade.toGeometryRepresentation(fig);
+
+			Preprocessor plain = new Preprocessor(pair.getKey(), pair.getValue());
+			Preprocessor interned = new Preprocessor(pair.getKey(), pair.getValue(), new Preprocessor.Options().internPoints());
+
+			assertSameAnalysis(plain, interned);
+
+			// every endpoint is the registered instance: the stored database point or an implicit point
+			for (Segment segment : interned.getAllSegments().keySet())
+			{
+				for (Point endpoint : new Point[] {segment.getPoint1(), segment.getPoint2()})
+				{
+					assertTrue(interned._registry.getId(endpoint) >= 0);
+
+					Point stored = pair.getKey().getPoint(endpoint);
+					assertTrue(stored == null ? interned._implicitPoints.contains(endpoint) : stored == endpoint);
+				}
+			}
+
+			// the ids belong to the registry: another interning Preprocessor over the same database leaves them alone
+			Map<Point, Integer> ids = new IdentityHashMap<Point, Integer>();
+			pair.getKey().getPoints().forEach((point) -> ids.put(point, interned._registry.getId(point)));
+
+			new Preprocessor(pair.getKey(), pair.getValue(), new Preprocessor.Options().internPoints()).analyze();
+
+			ids.forEach((point, id) -> assertEquals((int) id, interned._registry.getId(point)));
+		}
+	}
+
+	@ParameterizedTest
+	@EnumSource(Preprocessor.Storage.class)
+	void test_segment_storage(Preprocessor.Storage storage) {
+		for (boolean lazySegments : new boolean[] {false, true}) {
+			FigureNode fig = InputFacade.extractFigure("fully_connected_irregular_polygon.json");
+			Map.Entry<PointDatabase, Set<Segment>> pair = InputFacade.toGeometryRepresentation(fig);
+			PointDatabase points = pair.getKey();
+
+			List<Segment> segments = new ArrayList<Segment>(pair.getValue());
+
+			OffHeapArena arena = storage == Preprocessor.Storage.OFF_HEAP ? new OffHeapArena() : null;
+			Preprocessor plain = new Preprocessor(points, new LinkedHashSet<Segment>(segments), options(lazySegments));
+			Preprocessor stored = new Preprocessor(points, new LinkedHashSet<Segment>(segments),
+					arena == null ? options(lazySegments).storage(storage) : options(lazySegments).storage(arena));
+
+			assertSameAnalysis(plain, stored);
+
+			// the minimal segments are the first entries of the table; the non-minimal segments follow
+			SegmentTable table = stored.getSegmentTable();
+			assertEquals(storage == Preprocessor.Storage.HEAP, table == null);
+			assertEquals(storage == Preprocessor.Storage.OFF_HEAP, table instanceof OffHeapSegmentTable);
+			if (table != null) {
+				assertEquals(plain._allMinimalSegments.size(), stored.getMinimalEnd());
+				assertEquals(plain._allMinimalSegments, table.range(0, stored.getMinimalEnd()));
+				if (!lazySegments) {
+					assertEquals(plain._nonMinimalSegments, table.from(stored.getMinimalEnd()));
+					assertEquals(plain.getAllSegments().size(), table.size());
+				}
+			}
+
+			// the sets follow incremental edits (in tables of their own): remove a diagonal (AC), then add it back
+			Segment ac = new Segment(points.getPoint("A"), points.getPoint("C"));
+			assertTrue(stored.removeSegment(ac));
+			segments.remove(ac);
+			assertSameAnalysis(new Preprocessor(points, new LinkedHashSet<Segment>(segments), options(lazySegments)), stored);
+			assertEquals(null, stored.getSegmentTable());
+
+			assertTrue(stored.addSegment(ac));
+			segments.add(ac);
+			assertSameAnalysis(new Preprocessor(points, new LinkedHashSet<Segment>(segments), options(lazySegments)), stored);
+
+			// closing the arena releases the segments: the sets are unusable
+			if (arena != null) {
+				arena.close();
+				assertThrows(IllegalStateException.class, () -> stored._allMinimalSegments.iterator().next());
+			}
+		}
+	}
+
+	private static Preprocessor.Options options(boolean lazySegments) {
+		return lazySegments ? new Preprocessor.Options().lazySegments() : new Preprocessor.Options();
+	}
+
+	private void assertSameAnalysis(Preprocessor expected, Preprocessor actual) {
+		assertEquals(expected._implicitPoints, actual._implicitPoints);
+		assertEquals(expected._implicitSegments, actual._implicitSegments);
+		assertEquals(expected._allMinimalSegments, actual._allMinimalSegments);
+		assertEquals(expected._nonMinimalSegments.size(), actual._nonMinimalSegments.size());
+		assertEquals(expected.getAllSegments().size(), actual.getAllSegments().size());
+
+		for (Segment segment : expected.getAllSegments().keySet())
+		{
+			assertTrue(actual.getAllSegments().containsKey(segment));
+			assertEquals(expected._nonMinimalSegments.contains(segment), actual._nonMinimalSegments.contains(segment));
+		}
+	}
+}
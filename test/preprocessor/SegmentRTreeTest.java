@@ -0,0 +1,83 @@
+package preprocessor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+import geometry_objects.points.PointDatabase;
+import input.InputFacade;
+import input.components.FigureNode;
+
+class SegmentRTreeTest
+{
+	@Test
+	void empty_test()
+	{
+		SegmentRTree tree = new SegmentRTree(new ArrayList<Segment>());
+
+		assertEquals(0, tree.size());
+		assertTrue(tree.segmentsThrough(new Point(0, 0)).isEmpty());
+		assertTrue(tree.segmentsInWindow(-1, -1, 1, 1).isEmpty());
+	}
+
+	@Test
+	void lattice_queries_test()
+	{
+		// the unit segments of a 20 x 20 lattice
+		List<Segment> segments = new ArrayList<Segment>();
+		for (int x = 0; x < 20; x++)
+		{
+			for (int y = 0; y < 20; y++)
+			{
+				segments.add(new Segment(new Point(x, y), new Point(x + 1, y)));
+				segments.add(new Segment(new Point(x, y), new Point(x, y + 1)));
+			}
+		}
+
+		SegmentRTree tree = new SegmentRTree(segments);
+		assertEquals(800, tree.size());
+
+		// a lattice point is on four segments; the middle of an edge on one; a cell center on none
+		assertEquals(4, tree.segmentsThrough(new Point(5, 5)).size());
+		assertEquals(1, tree.segmentsThrough(new Point(5.5, 5)).size());
+		assertEquals(0, tree.segmentsThrough(new Point(5.5, 5.5)).size());
+
+		// a window strictly inside one cell touches nothing; around a lattice point it touches four
+		assertEquals(0, tree.segmentsInWindow(5.2, 5.2, 5.8, 5.8).size());
+		assertEquals(4, tree.segmentsInWindow(4.9, 4.9, 5.1, 5.1).size());
+
+		// a diagonal crossing the first three cells: (0, 0) .. (3, 3)
+		Set<Segment> expected = new HashSet<Segment>();
+		for (Segment segment : segments)
+		{
+			if (segment.segmentIntersection(new Segment(new Point(0, 0), new Point(3, 3))) != null) expected.add(segment);
+		}
+		assertEquals(expected, new HashSet<Segment>(tree.crossings(new Segment(new Point(0, 0), new Point(3, 3)))));
+	}
+
+	@Test
+	void preprocessor_index_test()
+	{
+		FigureNode fig = InputFacade.extractFigure("fully_connected_irregular_polygon.json");
+		Map.Entry<PointDatabase, Set<Segment>> pair = InputFacade.toGeometryRepresentation(fig);
+
+		Preprocessor pp = new Preprocessor(pair.getKey(), pair.getValue());
+		SegmentRTree tree = pp.getSegmentIndex();
+
+		assertEquals(pp._allMinimalSegments.size(), tree.size());
+
+		// each implicit point lies on four minimal segments
+		for (Point implicit : pp._implicitPoints)
+		{
+			assertEquals(4, tree.segmentsThrough(implicit).size());
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package preprocessor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import geometry_objects.Segment;
+import geometry_objects.points.OffHeapPointStore;
+import geometry_objects.points.Point;
+import geometry_objects.points.PointStore;
+import utilities.memory.OffHeapArena;
+
+class SegmentSetTest
+{
+	@Test
+	void heap_set_test()
+	{
+		assertSetBehavior(new SegmentTable(new PointStore()).from(0));
+	}
+
+	@Test
+	void off_heap_set_test()
+	{
+		try (OffHeapArena arena = new OffHeapArena())
+		{
+			assertSetBehavior(new OffHeapSegmentTable(new OffHeapPointStore(arena)).from(0));
+		}
+	}
+
+	/**
+	 * Insertion order, unordered endpoints, removal while iterating, and a closed range of the table.
+	 */
+	private static void assertSetBehavior(SegmentSet set)
+	{
+		for (int k = 0; k < 100000; k++) assertTrue(set.add(new Segment(new Point(k, 0), new Point(k, 1))));
+
+		assertFalse(set.add(new Segment(new Point(7, 1), new Point(7, 0))));
+		assertTrue(set.contains(new Segment(new Point(99999, 1), new Point(99999, 0))));
+		assertFalse(set.contains(new Segment(new Point(7, 0), new Point(8, 1))));
+
+		set.removeIf((segment) -> segment.getPoint1().getX() % 2 == 0);
+		assertEquals(50000, set.size());
+
+		int x = 1;
+		for (Segment segment : set)
+		{
+			assertEquals(new Segment(new Point(x, 0), new Point(x, 1)), segment);
+			x += 2;
+		}
+		assertTrue(set.remove(new Segment(new Point(1, 1), new Point(1, 0))));
+		assertFalse(set.contains(new Segment(new Point(1, 0), new Point(1, 1))));
+		assertTrue(set.contains(new Segment(new Point(3, 0), new Point(3, 1))));
+
+		// a closed range: the entries 0 .. 9 (the odd x of 3 .. 9 remain)
+		SegmentSet range = set.getTable().range(0, 10);
+		assertEquals(4, range.size());
+		assertTrue(range.contains(new Segment(new Point(9, 0), new Point(9, 1))));
+		assertFalse(range.contains(new Segment(new Point(11, 0), new Point(11, 1))));
+		assertThrows(UnsupportedOperationException.class, () -> range.add(new Segment(new Point(0, 5), new Point(1, 5))));
+	}
+}
@@ -6,7 +6,9 @@ import static org.junit.jupiter.api.Assertions.*;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 
 
@@ -74,4 +76,160 @@ public class ImplicitPointPreprocessorTest {
 		
 		assertTrue(implicitPoints.isEmpty());
 	}
+	
+	@Test
+	void compute_incidence_test() {
+		//
+		// three crossings within EPSILON of one another, on both sides of a
+		// GridHash cell border (x = EPSILON): they are one implicit point, and
+		// each crossing is recorded on both of its segments as that very object
+		//
+		Segment horizontal = new Segment(new Point(-1, 0), new Point(1, 0));
+		Segment rising = new Segment(new Point(7e-7 - 1, -1), new Point(7e-7 + 1, 1));
+		Segment falling = new Segment(new Point(1.3e-6 + 1, -1), new Point(1.3e-6 - 1, 1));
+		List<Segment> segments = Arrays.asList(new Segment[] {horizontal, rising, falling});
+		
+		SegmentPointIncidence incidence = new SegmentPointIncidence();
+		Set<Point> implicitPoints = ImplicitPointPreprocessor.compute(new PointDatabase(), segments,
+				                                                      ImplicitPointPreprocessor.Strategy.SWEEP_LINE, incidence);
+		assertEquals(1, implicitPoints.size());
+		
+		Point implicit = implicitPoints.iterator().next();
+		for (Segment segment : segments) {
+			assertEquals(1, incidence.getOrderedPoints(segment).size());
+			assertSame(implicit, incidence.getOrderedPoints(segment).get(0));
+		}
+	}
+	
+	@Test
+	void compute_sweepMatchesAllPairs_test() {
+		// a crossing next to (within EPSILON of) a crossing event of another pair
+		assertSweepMatchesAllPairs(Arrays.asList(new Segment[] {
+				new Segment(new Point(6.875458363272485, 9.291117134434938), new Point(9.741080051614702, 0.5746259103763551)),
+				new Segment(new Point(4.48926721879287, 2.9532187036054203), new Point(9.271666143525096, 2.6216050062495952)),
+				new Segment(new Point(5.885033784941763, 8.698491688352696), new Point(8.192088332093183, 2.696462105439376)),
+				new Segment(new Point(9.897690693904615, 2.3761403002557313), new Point(2.558850391544122, 2.950300045707187))}));
+		
+		//
+		// random segments: uniform; on a 4 x 4 lattice (many concurrent, collinear and
+		// overlapping segments); the lattice perturbed near EPSILON; nearly collinear;
+		// nearly concurrent
+		//
+		Random random = new Random(223);
+		for (int trial = 0; trial < 3000; trial++) {
+			int kind = trial % 5;
+			List<Segment> segments = new ArrayList<Segment>();
+			for (int s = 2 + random.nextInt(10); s > 0; s--) {
+				segments.add(randomSegment(random, kind));
+			}
+			
+			assertSweepMatchesAllPairs(segments);
+		}
+	}
+	
+	private static void assertSweepMatchesAllPairs(List<Segment> segments) {
+		List<SegmentCrossing> expected = ImplicitPointPreprocessor.findCrossingsAllPairs(segments);
+		List<SegmentCrossing> actual = SweepLineIntersector.findCrossings(segments);
+		
+		assertEquals(expected.toString(), actual.toString());
+		
+		// the same points with the same names
+		List<Point> pointInput = new ArrayList<Point>();
+		for (Segment segment : segments) {
+			pointInput.add(segment.getPoint1());
+			pointInput.add(segment.getPoint2());
+		}
+		assertEquals(ImplicitPointPreprocessor.nameCrossings(new PointDatabase(pointInput), expected).toString(),
+				     ImplicitPointPreprocessor.nameCrossings(new PointDatabase(pointInput), actual).toString());
+	}
+	
+	private static Segment randomSegment(Random random, int kind) {
+		double[] jitter = {1e-9, 1e-7, 5e-7, 1e-6, 2e-6, 1e-5};
+		double scale = jitter[random.nextInt(jitter.length)];
+		
+		switch (kind) {
+		case 0:
+			return new Segment(new Point(10 * random.nextDouble(), 10 * random.nextDouble()),
+					           new Point(10 * random.nextDouble(), 10 * random.nextDouble()));
+		case 1:
+			return new Segment(new Point(random.nextInt(4), random.nextInt(4)),
+					           new Point(random.nextInt(4), random.nextInt(4)));
+		case 2:
+			return new Segment(new Point(random.nextInt(4) + jitter(random, scale), random.nextInt(4) + jitter(random, scale)),
+					           new Point(random.nextInt(4) + jitter(random, scale), random.nextInt(4) + jitter(random, scale)));
+		case 3:
+			// near the line y = x / 2 + 1
+			double x1 = 10 * random.nextDouble();
+			double x2 = 10 * random.nextDouble();
+			return new Segment(new Point(x1, x1 / 2 + 1 + jitter(random, scale)),
+					           new Point(x2, x2 / 2 + 1 + jitter(random, scale)));
+		default:
+			// near the point (5, 5); some nearly vertical
+			double angle = random.nextInt(4) == 0 ? Math.PI / 2 + jitter(random, scale) : Math.PI * random.nextDouble();
+			double length1 = 5 * random.nextDouble();
+			double length2 = 5 * random.nextDouble();
+			return new Segment(new Point(5 + length1 * Math.cos(angle) + jitter(random, scale), 5 + length1 * Math.sin(angle) + jitter(random, scale)),
+					           new Point(5 - length2 * Math.cos(angle) + jitter(random, scale), 5 - length2 * Math.sin(angle) + jitter(random, scale)));
+		}
+	}
+	
+	private static double jitter(Random random, double scale) {
+		return (2 * random.nextDouble() - 1) * scale;
+	}
+	
+	@Test
+	void compute_uniformGrid_test() {
+		Point a = new Point("A", 0, 0); //  C   D            G   H
+		Point b = new Point("B", 1, 0); //    X
+		Point c = new Point("C", 0, 1); //  A   B            E   F
+		Point d = new Point("D", 1, 1);
+		Point e = new Point("E", 10, 0);
+		Point f = new Point("F", 11, 0);
+		Point g = new Point("G", 10, 1);
+		Point h = new Point("H", 11, 1);
+		List<Point> pointInput = Arrays.asList(new Point[]{a, b, c, d, e, f, g, h});
+		PointDatabase points = new PointDatabase(pointInput);
+		
+		List<Segment> segments = Arrays.asList(new Segment[] {new Segment(a, d), new Segment(b, c),
+				                                              new Segment(e, h), new Segment(f, g)});
+		
+		UniformGridBroadPhase grid = new UniformGridBroadPhase(segments);
+		assertEquals(2, grid.findCrossings().size());
+		
+		// only the two crossing pairs share a cell
+		assertEquals(6, grid.getPairCount());
+		assertEquals(2, grid.getCandidateCount());
+		
+		assertEquals("[*_A(0.5, 0.5), *_B(10.5, 0.5)]",
+				     ImplicitPointPreprocessor.compute(points, segments, ImplicitPointPreprocessor.Strategy.UNIFORM_GRID).toString());
+	}
+	
+	@Test
+	void compute_parallelMatchesSequential_test() {
+		// every segment of a 4 x 5 lattice: enough pairs to split across tasks
+		List<Point> pointInput = new ArrayList<Point>();
+		for (int x = 0; x < 4; x++) {
+			for (int y = 0; y < 5; y++) {
+				pointInput.add(new Point("P" + x + y, x, y));
+			}
+		}
+		PointDatabase points = new PointDatabase(pointInput);
+		
+		List<Segment> segments = new ArrayList<Segment>();
+		for (int i = 0; i < pointInput.size() - 1; i++) {
+			for (int j = i + 1; j < pointInput.size(); j++) {
+				segments.add(new Segment(pointInput.get(i), pointInput.get(j)));
+			}
+		}
+		
+		String expected = ImplicitPointPreprocessor.compute(points, segments, ImplicitPointPreprocessor.Strategy.ALL_PAIRS).toString();
+		
+		for (int threads : new int[] {1, 2, 4}) {
+			ForkJoinPool pool = new ForkJoinPool(threads);
+			List<SegmentCrossing> crossings = ParallelPairIntersector.findCrossings(segments, pool);
+			pool.shutdown();
+			
+			assertEquals(expected, ImplicitPointPreprocessor.nameCrossings(points, crossings).toString());
+		}
+	}
 }
@@ -0,0 +1,81 @@
+package utilities.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class MappedCommentFilterReaderTest
+{
+	/**
+	 * @return the text without its comments (line by line, keeping every line)
+	 */
+	private static String filter(String text)
+	{
+		StringBuilder builder = new StringBuilder();
+		for (String line : text.split("\n", -1))
+		{
+			int commentIndex = line.indexOf("//");
+			builder.append(commentIndex < 0 ? line : line.substring(0, commentIndex)).append('\n');
+		}
+
+		return builder.substring(0, builder.length() - 1);
+	}
+
+	private static String read(Path path, int chunk) throws IOException
+	{
+		StringBuilder builder = new StringBuilder();
+		try (Reader reader = new MappedCommentFilterReader(path.toString()))
+		{
+			char[] buffer = new char[chunk];
+			for (int count = reader.read(buffer); count >= 0; count = reader.read(buffer)) builder.append(buffer, 0, count);
+		}
+
+		return builder.toString();
+	}
+
+	@Test
+	void filter_test() throws IOException
+	{
+		Random random = new Random(3);
+		String[] pieces = { "/", "//", "\n", "a", " ", "\u00e9", "\u20ac", "{\"x\" : 1}", "// c\n", "/ /" };
+
+		Path path = Files.createTempFile("filter", ".json");
+		try
+		{
+			for (int trial = 0; trial < 200; trial++)
+			{
+				StringBuilder text = new StringBuilder();
+				for (int k = random.nextInt(60); k > 0; k--) text.append(pieces[random.nextInt(pieces.length)]);
+				Files.writeString(path, text, StandardCharsets.UTF_8);
+
+				// every buffer size: a '/' (or a character) at every buffer boundary
+				for (int chunk = 1; chunk <= 5; chunk++) assertEquals(filter(text.toString()), read(path, chunk), text.toString());
+				assertEquals(filter(text.toString()), read(path, 8192));
+			}
+		}
+		finally
+		{
+			Files.delete(path);
+		}
+	}
+
+	@Test
+	void file_test() throws IOException
+	{
+		// the same figure text as readFileFilterComments, but for its blank lines
+		for (String file : new String[] { "fully_connected_irregular_polygon.json", "collinear_line_segments.json" })
+		{
+			String expected = FileUtilities.readFileFilterComments(file);
+			String actual = read(Path.of(file), 8192);
+
+			assertEquals(expected.replaceAll("\\s+", ""), actual.replaceAll("\\s+", ""));
+		}
+	}
+}
@@ -0,0 +1,120 @@
+package utilities.math;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.ToIntFunction;
+
+import geometry_objects.points.Point;
+
+/**
+ * Probe lengths of hashed point lookups on symmetric figures; run by hand (not part of
+ * the test suite):
+ *
+ *     java utilities.math.GridHashBenchmark
+ *
+ * For each figure, the mean number of key comparisons per successful lookup in a
+ * HashMap-sized table (chained buckets, HashMap's spreading of the hash) is reported for
+ * the former hash (the sum of the hashes of the truncated coordinates) and for GridHash,
+ * along with the mean number of cells a tolerant lookup (see PointProbe) visits for a
+ * query moved by less than EPSILON.
+ */
+public class GridHashBenchmark
+{
+	public static void main(String[] args) throws Exception
+	{
+		report("integer lattice 300x300", lattice(300, 1));
+		report("quarter lattice 300x300", lattice(300, 0.25));
+		report("regular 90000-gon", polygon(90000));
+		report("symmetric diagonals", diagonals(45000));
+	}
+
+	private static void report(String figure, List<Point> points)
+	{
+		ToIntFunction<Point> former = (p) -> Double.valueOf(MathUtilities.removeLessEpsilon(p.getX())).hashCode() +
+				                             Double.valueOf(MathUtilities.removeLessEpsilon(p.getY())).hashCode();
+
+		System.out.printf("%-24s %6d points  comparisons: former %7.2f  grid %5.2f  cells probed %5.2f%n",
+				          figure, points.size(), comparisons(points, former), comparisons(points, Point::hashCode),
+				          cellsProbed(points));
+	}
+
+	/**
+	 * @return the mean 1-based position of each point in its bucket (points are inserted in order)
+	 */
+	private static double comparisons(List<Point> points, ToIntFunction<Point> hash)
+	{
+		int capacity = Integer.highestOneBit((int)(points.size() / 0.75)) << 1;
+		int[] chains = new int[capacity];
+
+		long total = 0;
+		for (Point point : points)
+		{
+			int h = hash.applyAsInt(point);
+			total += ++chains[(h ^ (h >>> 16)) & (capacity - 1)];
+		}
+
+		return (double)total / points.size();
+	}
+
+	/**
+	 * @return the mean number of cells visited to find each point from a query within EPSILON of it:
+	 *         the cell of the query, then (on a miss) its neighbors in PointProbe's order
+	 */
+	private static double cellsProbed(List<Point> points)
+	{
+		Random random = new Random(13);
+
+		long total = 0;
+		for (Point point : points)
+		{
+			double x = point.getX() + (random.nextDouble() - 0.5) * MathUtilities.EPSILON;
+			double y = point.getY() + (random.nextDouble() - 0.5) * MathUtilities.EPSILON;
+
+			long cellX = GridHash.cell(point.getX()) - GridHash.cell(x);
+			long cellY = GridHash.cell(point.getY()) - GridHash.cell(y);
+
+			if (cellX == 0 && cellY == 0) total += 1;
+			else if (cellY == 0) total += 2;
+			else if (cellX == 0) total += 3;
+			else total += 4;
+		}
+
+		return (double)total / points.size();
+	}
+
+	private static List<Point> lattice(int size, double step)
+	{
+		List<Point> points = new ArrayList<Point>();
+		for (int i = 0; i < size; i++)
+		{
+			for (int j = 0; j < size; j++) points.add(new Point(i * step, j * step));
+		}
+		return points;
+	}
+
+	private static List<Point> polygon(int vertices)
+	{
+		List<Point> points = new ArrayList<Point>();
+		for (int k = 0; k < vertices; k++)
+		{
+			double angle = 2 * Math.PI * k / vertices;
+			points.add(new Point(Math.cos(angle), Math.sin(angle)));
+		}
+		return points;
+	}
+
+	/**
+	 * @return the points (i, i) and (i, -i) for i in [-n/2, n/2): mirror images of one another
+	 */
+	private static List<Point> diagonals(int n)
+	{
+		List<Point> points = new ArrayList<Point>();
+		for (int i = -n / 2; i < n / 2; i++)
+		{
+			points.add(new Point(i, i));
+			if (i != 0) points.add(new Point(i, -i));
+		}
+		return points;
+	}
+}
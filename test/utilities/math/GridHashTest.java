@@ -0,0 +1,65 @@
+package utilities.math;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import geometry_objects.points.Point;
+import geometry_objects.points.PointDatabase;
+import geometry_objects.points.PointProbe;
+import input.components.point.PointNode;
+import input.components.point.PointNodeDatabase;
+
+class GridHashTest
+{
+	// the border between cells 0 and 1 lies at EPSILON
+	private static final double BELOW = 0.9999e-6;
+	private static final double ABOVE = 1.0001e-6;
+
+	@Test
+	void symmetric_points_test()
+	{
+		// (a, b) and (b, a) used to collide
+		assertNotEquals(new Point(1, 2).hashCode(), new Point(2, 1).hashCode());
+		assertEquals(new Point(1, 2).hashCode(), new PointNode(1, 2).hashCode());
+
+		assertEquals(0, GridHash.cell(BELOW));
+		assertEquals(1, GridHash.cell(ABOVE));
+		assertEquals(1, GridHash.side(BELOW));
+		assertEquals(-1, GridHash.side(ABOVE));
+	}
+
+	@Test
+	void cell_border_test()
+	{
+		Set<Point> points = new HashSet<Point>();
+		points.add(new Point(BELOW, BELOW));
+
+		// equal points on the other side of a cell border
+		assertTrue(PointProbe.contains(points, new Point(ABOVE, BELOW)));
+		assertTrue(PointProbe.contains(points, new Point(BELOW, ABOVE)));
+		assertTrue(PointProbe.contains(points, new Point(ABOVE, ABOVE)));
+		assertFalse(PointProbe.contains(points, new Point(3e-6, 0)));
+
+		for (boolean compact : new boolean[] { false, true })
+		{
+			PointDatabase database = new PointDatabase(compact);
+			database.put("A", BELOW, 5);
+			database.put("B", ABOVE, 5);
+
+			assertEquals(1, database.size());
+			assertEquals("A", database.getPoint(ABOVE, 5).getName());
+		}
+
+		PointNodeDatabase nodes = new PointNodeDatabase();
+		nodes.put(new PointNode("A", 5, BELOW));
+		nodes.put(new PointNode("B", 5, ABOVE));
+
+		assertEquals(1, nodes.getPoints().size());
+		assertEquals("A", nodes.getPoint(5, ABOVE).getName());
+		assertTrue(nodes.contains(new PointNode(5, ABOVE)));
+	}
+}